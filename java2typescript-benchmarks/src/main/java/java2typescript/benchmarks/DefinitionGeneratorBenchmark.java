@@ -0,0 +1,41 @@
+package java2typescript.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java2typescript.jackson.module.Configuration;
+import java2typescript.jackson.module.DefinitionGenerator;
+import java2typescript.jackson.module.StaticFieldExporter;
+import java2typescript.jackson.module.grammar.Module;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DefinitionGeneratorBenchmark {
+
+	@Benchmark
+	public Module generateTypeScript(ModelState state) throws JsonMappingException {
+		// new mapper and configuration: nothing is reused between invocations
+		DefinitionGenerator generator = new DefinitionGenerator(new ObjectMapper());
+		return generator.generateTypeScript("benchmark", state.model.getClasses(), new Configuration());
+	}
+
+	@Benchmark
+	public Module exportStaticFields(ModelState state) {
+		Module module = new Module("benchmark");
+		new StaticFieldExporter(module, new Configuration()).export(state.model.getClasses());
+		return module;
+	}
+}
@@ -0,0 +1,76 @@
+package java2typescript.benchmarks;
+
+import java.io.Writer;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java2typescript.jackson.module.Configuration;
+import java2typescript.jackson.module.DefinitionGenerator;
+import java2typescript.jackson.module.grammar.Module;
+import java2typescript.testsupport.SyntheticModel;
+import java2typescript.testsupport.SyntheticModelGenerator;
+
+/** Synthetic model shared by the benchmarks, with the module generated out of it */
+@State(Scope.Benchmark)
+public class ModelState {
+
+	@Param({ "10", "1000", "50000" })
+	public int classCount;
+
+	SyntheticModel model;
+
+	/** Generated once, for the benchmarks of writers */
+	Module module;
+
+	/** Same module, generated with types and their members kept sorted */
+	Module sortedModule;
+
+	@Setup(Level.Trial)
+	public void createModel() throws JsonMappingException {
+		// one enum for 9 DTOs, one resource for 100 classes
+		SyntheticModelGenerator generator = new SyntheticModelGenerator();
+		generator.setDtoCount(classCount - classCount / 10);
+		generator.setEnumCount(classCount / 10);
+		generator.setWideFields(50);
+		generator.setConstantsPerClass(2);
+		generator.setResourceCount(Math.max(1, classCount / 100));
+		generator.setMethodsPerResource(100);
+		model = generator.generate();
+		DefinitionGenerator definitionGenerator = new DefinitionGenerator(new ObjectMapper());
+		module = definitionGenerator.generateTypeScript("benchmark", model.getClasses(), null);
+		Configuration sorted = new Configuration();
+		sorted.setSorted(true);
+		sortedModule = definitionGenerator.generateTypeScript("benchmark", model.getClasses(), sorted);
+	}
+
+	/** Writer discarding its output, so that only the cost of writing is measured */
+	static class NullWriter extends Writer {
+
+		@Override
+		public void write(char[] cbuf, int off, int len) {
+		}
+
+		@Override
+		public void write(String str) {
+		}
+
+		@Override
+		public void write(String str, int off, int len) {
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
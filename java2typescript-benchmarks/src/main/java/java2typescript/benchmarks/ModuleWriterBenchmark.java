@@ -0,0 +1,57 @@
+package java2typescript.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java2typescript.jackson.module.writer.ExternalModuleFormatWriter;
+import java2typescript.jackson.module.writer.InternalModuleFormatWriter;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ModuleWriterBenchmark {
+
+	@Benchmark
+	public void writeExternalModule(ModelState state) throws IOException {
+		new ExternalModuleFormatWriter().write(state.module, new ModelState.NullWriter());
+	}
+
+	@Benchmark
+	public void writeInternalModule(ModelState state) throws IOException {
+		new InternalModuleFormatWriter().write(state.module, new ModelState.NullWriter());
+	}
+
+	@Benchmark
+	public void writeExternalModuleInParallel(ModelState state) throws IOException {
+		ExternalModuleFormatWriter writer = new ExternalModuleFormatWriter();
+		writer.preferences.setRenderingPool(ForkJoinPool.commonPool());
+		writer.write(state.module, new ModelState.NullWriter());
+	}
+
+	/** Sorting types and their members while writing */
+	@Benchmark
+	public void writeSortedOutput(ModelState state) throws IOException {
+		ExternalModuleFormatWriter writer = new ExternalModuleFormatWriter();
+		writer.preferences.sort();
+		writer.write(state.module, new ModelState.NullWriter());
+	}
+
+	/** Same output, out of a module kept sorted as it was generated */
+	@Benchmark
+	public void writeSortedModule(ModelState state) throws IOException {
+		ExternalModuleFormatWriter writer = new ExternalModuleFormatWriter();
+		writer.preferences.sort();
+		writer.write(state.sortedModule, new ModelState.NullWriter());
+	}
+}
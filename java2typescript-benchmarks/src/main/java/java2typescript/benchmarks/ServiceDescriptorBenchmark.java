@@ -0,0 +1,44 @@
+package java2typescript.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+
+import java2typescript.jackson.module.Configuration;
+import java2typescript.jackson.module.grammar.Module;
+import java2typescript.jaxrs.ServiceDescriptorGenerator;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ServiceDescriptorBenchmark {
+
+	@Benchmark
+	public Module generateTypeScript(ModelState state) throws JsonMappingException {
+		return new ServiceDescriptorGenerator(state.model.getResources()).generateTypeScript("benchmark",
+				new Configuration());
+	}
+
+	@Benchmark
+	public void generateJavascript(ModelState state) throws IOException {
+		new ServiceDescriptorGenerator(state.model.getResources()).generateJavascript("benchmark",
+				new ModelState.NullWriter());
+	}
+
+	@Benchmark
+	public void generateBoth(ModelState state) throws IOException {
+		new ServiceDescriptorGenerator(state.model.getResources()).generate("benchmark", new Configuration())
+			.writeJavascript(new ModelState.NullWriter());
+	}
+}
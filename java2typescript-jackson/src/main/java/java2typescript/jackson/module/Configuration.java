@@ -7,16 +7,38 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
 
+import java2typescript.jackson.module.cache.ClassIntrospectionCache;
+import java2typescript.jackson.module.cache.TypeCache;
+import java2typescript.jackson.module.conf.IntrospectionBackend;
 import java2typescript.jackson.module.conf.typename.SimpleJacksonTSTypeNamingStrategy;
 import java2typescript.jackson.module.conf.typename.TSTypeNamingStrategy;
 import java2typescript.jackson.module.grammar.ArrayType;
 import java2typescript.jackson.module.grammar.base.AbstractType;
+import java2typescript.jackson.module.metrics.GenerationListener;
+import java2typescript.jackson.module.metrics.GenerationMetrics;
+import java2typescript.jackson.module.visitors.TypeDefinitionListener;
 
 public class Configuration {
 	private Map<String, AbstractType> customTypes = Collections.emptyMap();
 	private List<String> ignoredMethodNames = new ArrayList<String>();
 	private TSTypeNamingStrategy namingStrategy = new SimpleJacksonTSTypeNamingStrategy();
+	/** if not null, root classes are visited in parallel using this pool */
+	private ForkJoinPool generationPool;
+	/** if not null, definitions of unchanged classes are restored from this cache */
+	private TypeCache typeCache;
+	private ClassIntrospectionCache introspectionCache = new ClassIntrospectionCache();
+	private IntrospectionBackend introspectionBackend = IntrospectionBackend.SERIALIZERS;
+	/** if not null, notified of each named type once its definition is complete */
+	private TypeDefinitionListener definitionListener;
+	/** if not null, notified of timings, visited types and cache statistics */
+	private GenerationListener generationListener;
+	/** if true, the generated module keeps types and their members sorted by name as they are added */
+	private boolean sorted;
+	/** if not null, only classes accepted by this filter are described, others are only referenced by name */
+	private Predicate<Class<?>> classFilter;
 
 	public Map<String, AbstractType> getCustomTypes() {
 		return customTypes;
@@ -54,6 +76,10 @@ public class Configuration {
 		return ignoredMethodNames.contains(name);
 	}
 
+	public List<String> getIgnoredMethodNames() {
+		return Collections.unmodifiableList(ignoredMethodNames);
+	}
+
 	public TSTypeNamingStrategy getNamingStrategy() {
 		return namingStrategy;
 	}
@@ -61,4 +87,103 @@ public class Configuration {
 	public void setNamingStrategy(TSTypeNamingStrategy namingStrategy) {
 		this.namingStrategy = namingStrategy;
 	}
+
+	public ForkJoinPool getGenerationPool() {
+		return generationPool;
+	}
+
+	/**
+	 * Visit root classes in parallel using given pool (for example {@link ForkJoinPool#commonPool()}), or
+	 * sequentially if null. Generated module is the same in both modes.
+	 */
+	public void setGenerationPool(ForkJoinPool generationPool) {
+		this.generationPool = generationPool;
+	}
+
+	public TypeCache getTypeCache() {
+		return typeCache;
+	}
+
+	public void setTypeCache(TypeCache typeCache) {
+		this.typeCache = typeCache;
+	}
+
+	public TypeDefinitionListener getDefinitionListener() {
+		return definitionListener;
+	}
+
+	/**
+	 * Hand named types to given listener as soon as their definition is complete, for example to a
+	 * {@link java2typescript.jackson.module.writer.StreamingModuleWriter}
+	 */
+	public void setDefinitionListener(TypeDefinitionListener definitionListener) {
+		this.definitionListener = definitionListener;
+	}
+
+	public GenerationListener getGenerationListener() {
+		return generationListener;
+	}
+
+	/** Report timings, visited types and cache statistics to given listener, for example {@link GenerationMetrics} */
+	public void setGenerationListener(GenerationListener generationListener) {
+		this.generationListener = generationListener;
+	}
+
+	public IntrospectionBackend getIntrospectionBackend() {
+		return introspectionBackend;
+	}
+
+	/**
+	 * {@link IntrospectionBackend#BEAN_DESCRIPTIONS} avoids creating Jackson serializers, which saves time and memory
+	 * on large models
+	 */
+	public void setIntrospectionBackend(IntrospectionBackend introspectionBackend) {
+		if (introspectionBackend == null) {
+			throw new IllegalArgumentException("introspectionBackend must not be null");
+		}
+		this.introspectionBackend = introspectionBackend;
+	}
+
+	public ClassIntrospectionCache getIntrospectionCache() {
+		return introspectionCache;
+	}
+
+	/** Share reflection results with other configurations or generators */
+	public void setIntrospectionCache(ClassIntrospectionCache introspectionCache) {
+		if (introspectionCache == null) {
+			throw new IllegalArgumentException("introspectionCache must not be null");
+		}
+		this.introspectionCache = introspectionCache;
+	}
+
+	public boolean isSorted() {
+		return sorted;
+	}
+
+	/**
+	 * Keep named types, vars, fields, methods and enum values of the generated module sorted by name as they are added,
+	 * so that writers with {@link java2typescript.jackson.module.writer.WriterPreferences#sort()} do not sort them
+	 * again on each write. Fields and methods are then no longer in declaration order.
+	 */
+	public void setSorted(boolean sorted) {
+		this.sorted = sorted;
+	}
+
+	public Predicate<Class<?>> getClassFilter() {
+		return classFilter;
+	}
+
+	/**
+	 * Only describe the classes (and enums) accepted by given filter, for example the ones of the application's
+	 * packages: other classes are referenced by their name, without being visited, nor added to the module. The classes
+	 * given to the generator are described in any case. Describes all classes if null.
+	 */
+	public void setClassFilter(Predicate<Class<?>> classFilter) {
+		this.classFilter = classFilter;
+	}
+
+	/** @return true if given class is to be visited and described */
+	public boolean isDescribedClass(Class<?> clazz) {
+		return classFilter == null || classFilter.test(clazz);
+	}
 }
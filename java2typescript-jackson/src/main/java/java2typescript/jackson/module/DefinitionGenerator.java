@@ -15,12 +15,41 @@
  ******************************************************************************/
 package java2typescript.jackson.module;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import java2typescript.jackson.module.cache.ClassIntrospectionCache;
+import java2typescript.jackson.module.conf.IntrospectionBackend;
+import java2typescript.jackson.module.grammar.ClassType;
 import java2typescript.jackson.module.grammar.Module;
+import java2typescript.jackson.module.grammar.base.AbstractNamedType;
+import java2typescript.jackson.module.grammar.base.AbstractType;
+import java2typescript.jackson.module.metrics.GenerationListener;
+import java2typescript.jackson.module.metrics.GenerationPhase;
+import java2typescript.jackson.module.metrics.PhaseTimer;
+import java2typescript.jackson.module.visitors.BeanDescriptionHandler;
 import java2typescript.jackson.module.visitors.TSJsonFormatVisitorWrapper;
+import java2typescript.jackson.module.visitors.TypeReferenceListener;
+import java2typescript.jackson.module.writer.TypeDependencies;
 
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.DefaultSerializerProvider;
 
 /**
  * Main class that generates a TypeScript grammar tree (a Module), out of a
@@ -28,6 +57,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  */
 public class DefinitionGenerator {
 
+	private static final Logger LOG = Logger.getLogger(DefinitionGenerator.class.getName());
+
 	private final ObjectMapper mapper;
 
 	public DefinitionGenerator(ObjectMapper mapper) {
@@ -46,14 +77,306 @@ public class DefinitionGenerator {
 		if(conf == null) {
 			conf = new Configuration();
 		}
+		return generateTypeScript(moduleName, classes, conf, Collections.<String, AbstractNamedType> emptyMap(), null);
+	}
+
+	/**
+	 * Generates the module of given classes again once some of their types changed, reusing the types of the previous
+	 * module that do not depend on them, directly or not. Types of root classes are always visited again, and reused
+	 * types that are not referenced anymore are left out, so that the module has the same types as with
+	 * {@link #generateTypeScript(String, Collection, Configuration)}.
+	 * 
+	 * @param previous
+	 *            module generated for the previous version of the classes, left unchanged
+	 * @param changedTypeNames
+	 *            names of the types of the previous module whose classes changed
+	 * @param classes
+	 *            Class for which generating definition
+	 */
+	public Module regenerateTypeScript(Module previous, Collection<String> changedTypeNames,
+			Collection<? extends Class<?>> classes, Configuration conf) throws IOException {
+		if(conf == null) {
+			conf = new Configuration();
+		}
+		// classes may have been loaded again, they are matched by name
+		Set<String> rootClassNames = new HashSet<String>();
+		for (Class<?> clazz : classes) {
+			rootClassNames.add(clazz.getName());
+		}
+		Set<String> staleTypeNames = new HashSet<String>(changedTypeNames);
+		for (AbstractNamedType type : previous.getNamedTypes().values()) {
+			if (type.getJavaClass() != null && rootClassNames.contains(type.getJavaClass().getName())) {
+				staleTypeNames.add(type.getName());
+			}
+		}
+		Map<String, AbstractNamedType> reusedTypes = new HashMap<String, AbstractNamedType>(previous.getNamedTypes());
+		reusedTypes.keySet().removeAll(new TypeDependencies(previous).getDependentTypes(staleTypeNames));
+
+		Set<AbstractNamedType> referencedTypes = Collections.newSetFromMap(
+				new ConcurrentHashMap<AbstractNamedType, Boolean>());
+		Module module = generateTypeScript(previous.getName(), classes, conf, reusedTypes, referencedTypes);
+		Set<String> referencedNames = new HashSet<String>();
+		for (AbstractNamedType type : referencedTypes) {
+			referencedNames.add(type.getName());
+		}
+		module.getNamedTypes().keySet().retainAll(new TypeDependencies(module).getReachableTypes(referencedNames));
+		return module;
+	}
 
-		Module module = new Module(moduleName);
+	/**
+	 * @param reusedTypes
+	 *            named types to add to the module without visiting them
+	 * @param referencedTypes
+	 *            filled with the named types referenced while visiting given classes, if not null
+	 */
+	private Module generateTypeScript(String moduleName, Collection<? extends Class<?>> classes, Configuration conf,
+			Map<String, AbstractNamedType> reusedTypes, final Set<AbstractNamedType> referencedTypes)
+			throws JsonMappingException {
+		if (conf.getTypeCache() != null) {
+			conf.getTypeCache().setMapper(mapper);
+			for (AbstractNamedType type : reusedTypes.values()) {
+				if (type instanceof ClassType && type.getJavaClass() != null) {
+					conf.getTypeCache().reused(type.getJavaClass(), conf);
+				}
+			}
+		}
+		if (conf.getGenerationPool() != null) {
+			return generateTypeScriptInParallel(moduleName, classes, conf, reusedTypes, referencedTypes);
+		}
+
+		Module module = new Module(moduleName, conf.isSorted());
+		module.getNamedTypes().putAll(reusedTypes);
 		TSJsonFormatVisitorWrapper visitor = new TSJsonFormatVisitorWrapper(module, conf);
+		visitor.setRootClasses(new HashSet<Class<?>>(classes));
+		if (referencedTypes != null) {
+			visitor.setReferenceListener(new TypeReferenceListener() {
+				@Override
+				public void typeReferenced(AbstractNamedType owner, AbstractNamedType referenced) {
+					referencedTypes.add(referenced);
+				}
+			});
+		}
 
+		VisitTimer timer = new VisitTimer(conf);
 		for (Class<?> clazz : classes) {
+			acceptJsonFormatVisitor(clazz, visitor, conf);
+		}
+		timer.report(timer.getCallerCpuNanos());
+		saveTypeCache(conf);
+		reportCacheStatistics(conf);
+		return module;
+	}
+
+	private void acceptJsonFormatVisitor(Class<?> clazz, TSJsonFormatVisitorWrapper visitor, Configuration conf)
+			throws JsonMappingException {
+		long start = System.nanoTime();
+		visitRootClass(clazz, visitor, conf);
+		if (conf.getGenerationListener() != null) {
+			conf.getGenerationListener().rootClassVisited(clazz, System.nanoTime() - start);
+		}
+	}
+
+	private void visitRootClass(Class<?> clazz, TSJsonFormatVisitorWrapper visitor, Configuration conf)
+			throws JsonMappingException {
+		if (conf.getIntrospectionBackend() != IntrospectionBackend.BEAN_DESCRIPTIONS) {
 			mapper.acceptJsonFormatVisitor(clazz, visitor);
+			visitor.completeDefinition();
+			return;
+		}
+		// the provider is only used for its configuration, and to create serializers referenced by annotations
+		visitor.setProvider(((DefaultSerializerProvider) mapper.getSerializerProvider()).createInstance(
+				mapper.getSerializationConfig(), mapper.getSerializerFactory()));
+		BeanDescriptionHandler handler = new BeanDescriptionHandler(mapper.getSerializerFactory());
+		visitor.setIntrospectionHandler(handler);
+		handler.acceptJsonFormatVisitor(visitor, mapper.constructType(clazz));
+		visitor.completeDefinition();
+	}
+
+	private void reportCacheStatistics(Configuration conf) {
+		GenerationListener listener = conf.getGenerationListener();
+		if (listener == null) {
+			return;
+		}
+		ClassIntrospectionCache introspectionCache = conf.getIntrospectionCache();
+		listener.cacheStatistics("introspection", introspectionCache.getHits(), introspectionCache.getMisses());
+		if (conf.getTypeCache() != null) {
+			listener.cacheStatistics("types", conf.getTypeCache().getHits(), conf.getTypeCache().getMisses());
+		}
+	}
+
+	private void saveTypeCache(Configuration conf) {
+		if (conf.getTypeCache() != null) {
+			try {
+				conf.getTypeCache().save(conf);
+			} catch (IOException e) {
+				// the cache is only an optimization, the next generation introspects all classes again
+				LOG.log(Level.WARNING, "Failed to save type cache to " + conf.getTypeCache().getFile()
+						+ ", deleting it", e);
+				conf.getTypeCache().delete();
+			}
+		}
+	}
+
+	/**
+	 * Visits root classes concurrently, sharing named types and computed types between the visitors. As named types
+	 * are then discovered in no particular order, references between them are recorded and replayed afterwards, so
+	 * that named types are added to the returned module in the same order as in sequential mode. Reused types are added
+	 * after them, as their own references are not recorded.
+	 */
+	private Module generateTypeScriptInParallel(String moduleName, Collection<? extends Class<?>> classes,
+			final Configuration conf, Map<String, AbstractNamedType> reusedTypes,
+			final Set<AbstractNamedType> referencedTypes) throws JsonMappingException {
+
+		final Module registry = new ConcurrentModule(moduleName, conf.isSorted());
+		registry.getNamedTypes().putAll(reusedTypes);
+		final Map<JavaType, AbstractType> computedTypes = new ConcurrentHashMap<JavaType, AbstractType>();
+		final Map<AbstractNamedType, List<AbstractNamedType>> references = new ConcurrentHashMap<AbstractNamedType, List<AbstractNamedType>>();
+		// CPU time of the generation threads, -1 once it could not be measured
+		final AtomicLong cpuNanos = new AtomicLong();
+
+		final Set<Class<?>> rootClasses = new HashSet<Class<?>>(classes);
+		List<Callable<List<AbstractNamedType>>> tasks = new ArrayList<Callable<List<AbstractNamedType>>>();
+		for (final Class<?> clazz : classes) {
+			tasks.add(new Callable<List<AbstractNamedType>>() {
+				@Override
+				public List<AbstractNamedType> call() throws JsonMappingException {
+					final List<AbstractNamedType> rootReferences = new ArrayList<AbstractNamedType>();
+					TSJsonFormatVisitorWrapper visitor = new TSJsonFormatVisitorWrapper(registry, computedTypes, conf);
+					visitor.setRootClasses(rootClasses);
+					visitor.setReferenceListener(new TypeReferenceListener() {
+						@Override
+						public void typeReferenced(AbstractNamedType owner, AbstractNamedType referenced) {
+							if (referencedTypes != null) {
+								referencedTypes.add(referenced);
+							}
+							if (owner == null) {
+								rootReferences.add(referenced);
+							} else {
+								// only the thread visiting the owner adds references to its list
+								references.computeIfAbsent(owner, k -> new ArrayList<AbstractNamedType>()).add(referenced);
+							}
+						}
+					});
+					long cpuStart = PhaseTimer.currentThreadCpuTime();
+					acceptJsonFormatVisitor(clazz, visitor, conf);
+					long cpuEnd = PhaseTimer.currentThreadCpuTime();
+					if (cpuStart < 0) {
+						cpuNanos.set(-1);
+					} else {
+						cpuNanos.getAndUpdate(total -> total < 0 ? total : total + cpuEnd - cpuStart);
+					}
+					return rootReferences;
+				}
+			});
+		}
+
+		VisitTimer timer = new VisitTimer(conf);
+		List<Future<List<AbstractNamedType>>> results = conf.getGenerationPool().invokeAll(tasks);
+		timer.report(cpuNanos.get());
+
+		Module module = new Module(moduleName, conf.isSorted());
+		for (Future<List<AbstractNamedType>> rootReferences : results) {
+			for (AbstractNamedType type : getResult(rootReferences)) {
+				addInDiscoveryOrder(module, type, references);
+			}
+		}
+		for (AbstractNamedType type : reusedTypes.values()) {
+			if (!module.getNamedTypes().containsKey(type.getName())) {
+				module.getNamedTypes().put(type.getName(), type);
+			}
 		}
+		saveTypeCache(conf);
+		reportCacheStatistics(conf);
 		return module;
 	}
 
+	private void addInDiscoveryOrder(Module module, AbstractNamedType type,
+			Map<AbstractNamedType, List<AbstractNamedType>> references) {
+		if (module.getNamedTypes().containsKey(type.getName())) {
+			return;
+		}
+		module.getNamedTypes().put(type.getName(), type);
+		List<AbstractNamedType> referencedTypes = references.get(type);
+		if (referencedTypes != null) {
+			for (AbstractNamedType referenced : referencedTypes) {
+				addInDiscoveryOrder(module, referenced, references);
+			}
+		}
+	}
+
+	private static <T> T getResult(Future<T> future) throws JsonMappingException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof JsonMappingException) {
+				throw (JsonMappingException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new RuntimeException(cause);
+		}
+	}
+
+	/** Reports the time spent introspecting classes, and the rest of the time spent visiting them */
+	private static class VisitTimer {
+
+		private final Configuration conf;
+
+		private final PhaseTimer timer = PhaseTimer.start();
+
+		private final long introspectionNanos;
+
+		private final long introspectionCpuNanos;
+
+		VisitTimer(Configuration conf) {
+			this.conf = conf;
+			this.introspectionNanos = conf.getIntrospectionCache().getIntrospectionNanos();
+			this.introspectionCpuNanos = conf.getIntrospectionCache().getIntrospectionCpuNanos();
+		}
+
+		long getCallerCpuNanos() {
+			return timer.getCpuNanos();
+		}
+
+		/**
+		 * @param cpuNanos
+		 *            CPU time of the threads that visited root classes, or -1 if it could not be measured
+		 */
+		void report(long cpuNanos) {
+			GenerationListener listener = conf.getGenerationListener();
+			if (listener == null) {
+				return;
+			}
+			ClassIntrospectionCache cache = conf.getIntrospectionCache();
+			long introspectionWall = cache.getIntrospectionNanos() - introspectionNanos;
+			long introspectionCpu = cache.getIntrospectionCpuNanos() < 0 || introspectionCpuNanos < 0 ? -1
+					: cache.getIntrospectionCpuNanos() - introspectionCpuNanos;
+			listener.phaseCompleted(GenerationPhase.INTROSPECT, introspectionWall, introspectionCpu);
+			// with a generation pool, introspection time is summed over threads and may exceed elapsed time
+			long visitCpu = cpuNanos < 0 || introspectionCpu < 0 ? cpuNanos : Math.max(0, cpuNanos - introspectionCpu);
+			listener.phaseCompleted(GenerationPhase.VISIT, Math.max(0, timer.getWallNanos() - introspectionWall),
+					visitCpu);
+		}
+	}
+
+	/** Module used as a named types registry shared by concurrent visitors */
+	private static class ConcurrentModule extends Module {
+
+		private final Map<String, AbstractNamedType> namedTypes = new ConcurrentHashMap<String, AbstractNamedType>();
+
+		public ConcurrentModule(String name, boolean sorted) {
+			super(name, sorted);
+		}
+
+		@Override
+		public Map<String, AbstractNamedType> getNamedTypes() {
+			return namedTypes;
+		}
+	}
+
 }
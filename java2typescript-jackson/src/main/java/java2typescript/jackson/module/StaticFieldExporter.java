@@ -18,6 +18,7 @@ package java2typescript.jackson.module;
 import java.lang.reflect.Field;
 import java.util.List;
 
+import java2typescript.jackson.module.cache.ClassIntrospectionCache;
 import java2typescript.jackson.module.grammar.AnyType;
 import java2typescript.jackson.module.grammar.ArrayType;
 import java2typescript.jackson.module.grammar.BooleanType;
@@ -37,6 +38,7 @@ public class StaticFieldExporter {
 	
 	private final Module module;
 	private final TSJsonFormatVisitorWrapper tsJsonFormatVisitorWrapper;
+	private final ClassIntrospectionCache introspectionCache;
 
 	public StaticFieldExporter(Module module, Configuration conf) {
 		this.module = module;
@@ -44,6 +46,7 @@ public class StaticFieldExporter {
 			conf = new Configuration();
 		}
 		tsJsonFormatVisitorWrapper = new TSJsonFormatVisitorWrapper(module, conf);
+		introspectionCache = conf.getIntrospectionCache();
 	}
 
 	/** @deprecated - use constructor and instance method instead */
@@ -59,21 +62,18 @@ public class StaticFieldExporter {
 				continue;
 			}
 			StaticClassType staticClass = new StaticClassType(clazz.getSimpleName()
-					+ CLASS_NAME_EXTENSION, clazz);
+					+ CLASS_NAME_EXTENSION, clazz, module.isSorted());
 
-			Field[] declaredFields = clazz.getDeclaredFields();
-			for (Field field : declaredFields) {
-				if (isPublicStaticFinal(field.getModifiers())) {
-					Value value;
-					try {
-						value = constructValue(module, field.getType(), field.get(null));
-					}
-					catch (IllegalAccessException e) {
-						throw new RuntimeException("Failed to get value of field " + field, e);
-					}
-					if (value != null) {
-						staticClass.getStaticFields().put(field.getName(), value);
-					}
+			for (Field field : introspectionCache.get(clazz).getPublicStaticFinalFields()) {
+				Value value;
+				try {
+					value = constructValue(module, field.getType(), field.get(null));
+				}
+				catch (IllegalAccessException e) {
+					throw new RuntimeException("Failed to get value of field " + field, e);
+				}
+				if (value != null) {
+					staticClass.getStaticFields().put(field.getName(), value);
 				}
 			}
 			if (staticClass.getStaticFields().size() > 0) {
@@ -82,12 +82,6 @@ public class StaticFieldExporter {
 		}
 	}
 
-	private boolean isPublicStaticFinal(final int modifiers) {
-		return java.lang.reflect.Modifier.isPublic(modifiers)
-				&& java.lang.reflect.Modifier.isStatic(modifiers)
-				&& java.lang.reflect.Modifier.isFinal(modifiers);
-	}
-
 	private Value constructValue(Module module, Class<?> type, Object rawValue)
 			throws IllegalArgumentException, IllegalAccessException {
 		if (type == boolean.class) {
@@ -0,0 +1,188 @@
+package java2typescript.jackson.module.cache;
+
+import static java.lang.reflect.Modifier.isFinal;
+import static java.lang.reflect.Modifier.isPublic;
+import static java.lang.reflect.Modifier.isStatic;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import java2typescript.jackson.module.metrics.PhaseTimer;
+
+/**
+ * Reflection results computed once per class and shared by all generators: bean info, accessor methods, public
+ * declared methods with their annotations and public static final fields.
+ * <p>
+ * Entries are attached to their classes through a {@link ClassValue}, so a long lived cache does not pin any class
+ * (nor its class loader): an entry is collected together with its class. Thread safe.
+ */
+public class ClassIntrospectionCache {
+
+	private volatile ClassValue<ClassInfo> entries = newEntries();
+
+	private long gets;
+
+	private long misses;
+
+	private long introspectionNanos;
+
+	private long introspectionCpuNanos;
+
+	private ClassValue<ClassInfo> newEntries() {
+		return new ClassValue<ClassInfo>() {
+			@Override
+			protected ClassInfo computeValue(Class<?> clazz) {
+				// a concurrent miss on the same class only costs a duplicate introspection
+				PhaseTimer timer = PhaseTimer.start();
+				ClassInfo info = new ClassInfo(clazz);
+				long cpuNanos = timer.getCpuNanos();
+				long wallNanos = timer.getWallNanos();
+				synchronized (ClassIntrospectionCache.this) {
+					misses++;
+					introspectionNanos += wallNanos;
+					introspectionCpuNanos = cpuNanos < 0 || introspectionCpuNanos < 0 ? -1
+							: introspectionCpuNanos + cpuNanos;
+				}
+				return info;
+			}
+		};
+	}
+
+	public ClassInfo get(Class<?> clazz) {
+		synchronized (this) {
+			gets++;
+		}
+		return entries.get(clazz);
+	}
+
+	public synchronized long getHits() {
+		return Math.max(0, gets - misses);
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/** @return time spent introspecting classes, summed over all threads */
+	public synchronized long getIntrospectionNanos() {
+		return introspectionNanos;
+	}
+
+	/** @return CPU time spent introspecting classes, or -1 if it could not be measured */
+	public synchronized long getIntrospectionCpuNanos() {
+		return introspectionCpuNanos;
+	}
+
+	/** Drop all entries, which are released by the classes once the previous class value is collected */
+	public void clear() {
+		entries = newEntries();
+	}
+
+	/** Introspection results of one class */
+	public static class ClassInfo {
+
+		private final Class<?> clazz;
+
+		private final BeanInfo beanInfo;
+
+		private final Set<Method> accessors = new HashSet<Method>();
+
+		private final List<Method> publicDeclaredMethods = new ArrayList<Method>();
+
+		private final Map<Method, Map<Class<? extends Annotation>, Annotation>> methodAnnotations = new HashMap<Method, Map<Class<? extends Annotation>, Annotation>>();
+
+		private final Map<Method, Annotation[][]> parameterAnnotations = new HashMap<Method, Annotation[][]>();
+
+		private final List<Field> publicStaticFinalFields = new ArrayList<Field>();
+
+		ClassInfo(Class<?> clazz) {
+			this.clazz = clazz;
+			try {
+				beanInfo = Introspector.getBeanInfo(clazz);
+			} catch (IntrospectionException e) {
+				throw new RuntimeException("Failed to introspect " + clazz.getName(), e);
+			} finally {
+				// cached here instead, the cache of the introspector would pin the class
+				Introspector.flushFromCaches(clazz);
+			}
+			for (PropertyDescriptor property : beanInfo.getPropertyDescriptors()) {
+				if (property.getReadMethod() != null) {
+					accessors.add(property.getReadMethod());
+				}
+				if (property.getWriteMethod() != null) {
+					accessors.add(property.getWriteMethod());
+				}
+			}
+			for (Method method : clazz.getDeclaredMethods()) {
+				if (!isPublic(method.getModifiers())) {
+					continue;
+				}
+				publicDeclaredMethods.add(method);
+				Map<Class<? extends Annotation>, Annotation> annotations = new HashMap<Class<? extends Annotation>, Annotation>();
+				for (Annotation annotation : method.getAnnotations()) {
+					annotations.put(annotation.annotationType(), annotation);
+				}
+				methodAnnotations.put(method, annotations);
+				parameterAnnotations.put(method, method.getParameterAnnotations());
+			}
+			for (Field field : clazz.getDeclaredFields()) {
+				int modifiers = field.getModifiers();
+				if (isPublic(modifiers) && isStatic(modifiers) && isFinal(modifiers)) {
+					publicStaticFinalFields.add(field);
+				}
+			}
+		}
+
+		public Class<?> getIntrospectedClass() {
+			return clazz;
+		}
+
+		public BeanInfo getBeanInfo() {
+			return beanInfo;
+		}
+
+		/** @return true if given method is the read or write method of a bean property */
+		public boolean isAccessor(Method method) {
+			return accessors.contains(method);
+		}
+
+		/** @return public methods declared by the class, in reflection order */
+		public List<Method> getPublicDeclaredMethods() {
+			return Collections.unmodifiableList(publicDeclaredMethods);
+		}
+
+		/** @return annotation of given type on one of {@link #getPublicDeclaredMethods()}, or null */
+		public <A extends Annotation> A getAnnotation(Method method, Class<A> annotationType) {
+			Map<Class<? extends Annotation>, Annotation> annotations = methodAnnotations.get(method);
+			if (annotations == null) {
+				return method.getAnnotation(annotationType);
+			}
+			return annotationType.cast(annotations.get(annotationType));
+		}
+
+		/** @return parameter annotations of one of {@link #getPublicDeclaredMethods()} */
+		public Annotation[][] getParameterAnnotations(Method method) {
+			Annotation[][] annotations = parameterAnnotations.get(method);
+			if (annotations == null) {
+				return method.getParameterAnnotations();
+			}
+			return annotations;
+		}
+
+		public List<Field> getPublicStaticFinalFields() {
+			return Collections.unmodifiableList(publicStaticFinalFields);
+		}
+	}
+}
@@ -0,0 +1,705 @@
+package java2typescript.jackson.module.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import java2typescript.jackson.module.Configuration;
+import java2typescript.jackson.module.grammar.AnyType;
+import java2typescript.jackson.module.grammar.ArrayType;
+import java2typescript.jackson.module.grammar.BooleanType;
+import java2typescript.jackson.module.grammar.ClassType;
+import java2typescript.jackson.module.grammar.FunctionType;
+import java2typescript.jackson.module.grammar.MapType;
+import java2typescript.jackson.module.grammar.NullType;
+import java2typescript.jackson.module.grammar.NumberType;
+import java2typescript.jackson.module.grammar.StringType;
+import java2typescript.jackson.module.grammar.VoidType;
+import java2typescript.jackson.module.grammar.base.AbstractNamedType;
+import java2typescript.jackson.module.grammar.base.AbstractType;
+
+import com.fasterxml.jackson.databind.AnnotationIntrospector;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.cfg.SerializerFactoryConfig;
+import com.fasterxml.jackson.databind.introspect.ClassIntrospector.MixInResolver;
+import com.fasterxml.jackson.databind.ser.BasicSerializerFactory;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.Serializers;
+
+/**
+ * Keeps definitions of visited classes between builds, so that classes that didn't change are not introspected again.
+ * <p>
+ * Each cached definition is stored together with a hash of the bytecode of every class it depends on (the class
+ * hierarchy and the classes used in property and method signatures), and is only reused when none of these hashes
+ * changed. The index file is read at once, and entries are only decoded when looked up.
+ * <p>
+ * The whole cache is ignored when the configuration or the ObjectMapper changed: its features, naming strategy,
+ * annotation introspectors and the classes of the serializers and modifiers registered by modules. Mix-ins are hashed
+ * together with the classes they apply to. What the cache can't see, such as the serializers added to a module it
+ * already knew, must be reflected by the version given to the cache.
+ * <p>
+ * Set it with {@link Configuration#setTypeCache(TypeCache)}; the cache is saved by the DefinitionGenerator at the end
+ * of the generation.
+ */
+public class TypeCache {
+
+	/** Resolves a reference to a named type, when restoring a cached definition */
+	public static interface NamedTypeResolver {
+		AbstractType resolve(Class<?> clazz);
+	}
+
+	private static final int FORMAT_VERSION = 2;
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final byte PRIMITIVE = 'P';
+	private static final byte ARRAY = 'A';
+	private static final byte MAP = 'M';
+	private static final byte NAMED = 'N';
+	private static final byte CUSTOM = 'C';
+
+	private static final List<AbstractType> PRIMITIVES = Arrays.<AbstractType> asList(AnyType.getInstance(),
+			BooleanType.getInstance(), NumberType.getInstance(), StringType.getInstance(), NullType.getInstance(),
+			VoidType.getInstance());
+
+	private final File file;
+
+	private final String version;
+
+	/** Settings of the mapper used by the current generation */
+	private String mapperFingerprint = "";
+	private MixInResolver mixIns;
+
+	/** Offsets of the entries in the index file, by class name */
+	private Map<String, Integer> offsets;
+	private ByteBuffer index;
+	private String loadedFingerprint;
+
+	/** Entries found valid during this generation */
+	private final Map<String, CachedDefinition> validEntries = new ConcurrentHashMap<String, CachedDefinition>();
+	/** Entries of the types reused from a previous generation, kept when saving without being checked */
+	private final Map<String, CachedDefinition> reusedEntries = new ConcurrentHashMap<String, CachedDefinition>();
+	/** Classes visited during this generation, to be stored when saving */
+	private final Map<ClassType, Set<Class<?>>> visitedTypes = new ConcurrentHashMap<ClassType, Set<Class<?>>>();
+	/** Definitions of visited classes recorded before saving */
+	private final Map<String, CachedDefinition> completedEntries = new ConcurrentHashMap<String, CachedDefinition>();
+	/** Bytecode hashes of the classes checked during this generation, released when saving with their loaders */
+	private final Map<Class<?>, byte[]> classHashes = new ConcurrentHashMap<Class<?>, byte[]>();
+
+	private long hits;
+	private long misses;
+
+	public TypeCache(File file) {
+		this(file, "");
+	}
+
+	/**
+	 * @param version
+	 *            cached definitions are only reused by caches of the same version, to be changed when the
+	 *            serialization of the types changes in ways the cache can't detect
+	 */
+	public TypeCache(File file, String version) {
+		this.file = file;
+		this.version = version;
+	}
+
+	/**
+	 * Set the mapper the definitions are generated with, before each generation: definitions generated with a mapper
+	 * configured otherwise are not reused
+	 */
+	public synchronized void setMapper(ObjectMapper mapper) {
+		SerializationConfig config = mapper.getSerializationConfig();
+		StringBuilder fingerprint = new StringBuilder();
+		fingerprint.append(config.getSerializationFeatures()).append(',');
+		for (MapperFeature feature : MapperFeature.values()) {
+			if (config.isEnabled(feature)) {
+				fingerprint.append(feature.name()).append(',');
+			}
+		}
+		fingerprint.append(config.getSerializationInclusion()).append(',');
+		appendClassName(fingerprint, config.getPropertyNamingStrategy());
+		for (AnnotationIntrospector introspector : config.getAnnotationIntrospector().allIntrospectors()) {
+			appendClassName(fingerprint, introspector);
+		}
+		appendClassName(fingerprint, mapper.getTypeFactory());
+		appendClassName(fingerprint, mapper.getSerializerFactory());
+		if (mapper.getSerializerFactory() instanceof BasicSerializerFactory) {
+			SerializerFactoryConfig factoryConfig = ((BasicSerializerFactory) mapper.getSerializerFactory())
+					.getFactoryConfig();
+			for (Serializers serializers : factoryConfig.serializers()) {
+				appendClassName(fingerprint, serializers);
+			}
+			fingerprint.append("keys,");
+			for (Serializers serializers : factoryConfig.keySerializers()) {
+				appendClassName(fingerprint, serializers);
+			}
+			fingerprint.append("modifiers,");
+			for (BeanSerializerModifier modifier : factoryConfig.serializerModifiers()) {
+				appendClassName(fingerprint, modifier);
+			}
+		}
+		mapperFingerprint = fingerprint.toString();
+		mixIns = config;
+	}
+
+	private static void appendClassName(StringBuilder builder, Object object) {
+		builder.append(object == null ? "null" : object.getClass().getName()).append(',');
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Fill given class type with its cached definition
+	 *
+	 * @return false if there is no valid cached definition for the class
+	 */
+	public boolean restore(ClassType type, Configuration conf, NamedTypeResolver resolver) {
+		CachedDefinition cached = lookup(type.getJavaClass(), conf);
+		synchronized (this) {
+			if (cached == null) {
+				misses++;
+			} else {
+				hits++;
+			}
+		}
+		if (cached == null) {
+			return false;
+		}
+		// methods first, as they are added before the properties when a class is visited
+		for (CachedMethod method : cached.methods) {
+			FunctionType function = new FunctionType();
+			function.setResultType(method.resultType.toType(conf, resolver));
+			for (Entry<String, CachedType> param : method.parameters.entrySet()) {
+				function.getParameters().put(param.getKey(), param.getValue().toType(conf, resolver));
+			}
+			type.getMethods().put(method.name, function);
+		}
+		for (Entry<String, CachedType> field : cached.fields.entrySet()) {
+			type.getFields().put(field.getKey(), field.getValue().toType(conf, resolver));
+		}
+		return true;
+	}
+
+	/**
+	 * Keep the entry of given class when saving, for a type reused from a previous generation instead of being visited
+	 * again. The entry is still checked when looked up by a later generation.
+	 */
+	public void reused(Class<?> clazz, Configuration conf) {
+		CachedDefinition cached = read(clazz.getName(), conf);
+		if (cached != null) {
+			reusedEntries.put(cached.className, cached);
+		}
+	}
+
+	/**
+	 * Register a class type being visited, to be stored in the cache when saving
+	 *
+	 * @param dependencies
+	 *            classes the definition depends on, may still be filled until the cache is saved
+	 */
+	public void visited(ClassType type, Set<Class<?>> dependencies) {
+		visitedTypes.put(type, dependencies);
+	}
+
+	/**
+	 * Do not store given visited class type, whose definition could not be restored as it was generated: one of its
+	 * properties is serialized as told by its own annotations
+	 */
+	public void notCacheable(ClassType type) {
+		visitedTypes.remove(type);
+	}
+
+	/**
+	 * Record the definition of a visited class type now, instead of when saving, so that the type can be released in
+	 * the meantime
+	 */
+	public void completed(ClassType type, Configuration conf) {
+		Set<Class<?>> dependencies = visitedTypes.remove(type);
+		if (dependencies != null) {
+			CachedDefinition definition = CachedDefinition.of(type, dependencies, conf, this);
+			if (definition != null) {
+				completedEntries.put(definition.className, definition);
+			}
+		}
+	}
+
+	/** Write valid, reused and newly visited definitions to the cache file, other entries are dropped */
+	public synchronized void save(Configuration conf) throws IOException {
+		try {
+			Map<String, CachedDefinition> entries = new HashMap<String, CachedDefinition>(reusedEntries);
+			entries.putAll(validEntries);
+			entries.putAll(completedEntries);
+			for (Entry<ClassType, Set<Class<?>>> visited : visitedTypes.entrySet()) {
+				CachedDefinition definition = CachedDefinition.of(visited.getKey(), visited.getValue(), conf, this);
+				if (definition != null) {
+					entries.put(definition.className, definition);
+				}
+			}
+
+			file.getAbsoluteFile().getParentFile().mkdirs();
+			DataOutputStream out = new DataOutputStream(new FileOutputStream(getTmpFile()));
+			try {
+				out.writeInt(FORMAT_VERSION);
+				writeString(out, fingerprint(conf));
+				out.writeInt(entries.size());
+				for (CachedDefinition entry : entries.values()) {
+					ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+					entry.write(new DataOutputStream(bytes));
+					out.writeInt(bytes.size());
+					bytes.writeTo(out);
+				}
+			} finally {
+				out.close();
+			}
+			// read again by the next generation
+			index = null;
+			offsets = null;
+			Files.move(getTmpFile().toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			// entries are validated again by the next generation, as classes may have been reloaded
+			visitedTypes.clear();
+			completedEntries.clear();
+			validEntries.clear();
+			reusedEntries.clear();
+			classHashes.clear();
+			mixIns = null;
+		}
+	}
+
+	/** Delete the cache file, for example once it could not be saved, so that it is not used anymore */
+	public synchronized void delete() {
+		index = null;
+		offsets = null;
+		getTmpFile().delete();
+		file.delete();
+	}
+
+	private File getTmpFile() {
+		return new File(file.getPath() + ".tmp");
+	}
+
+	private CachedDefinition lookup(Class<?> clazz, Configuration conf) {
+		String className = clazz.getName();
+		CachedDefinition cached = validEntries.get(className);
+		if (cached == null) {
+			cached = read(className, conf);
+			if (cached == null || !cached.isUpToDate(clazz.getClassLoader(), this)) {
+				return null;
+			}
+			validEntries.put(className, cached);
+		}
+		return cached;
+	}
+
+	private synchronized CachedDefinition read(String className, Configuration conf) {
+		try {
+			if (offsets == null || !fingerprint(conf).equals(loadedFingerprint)) {
+				loadIndex(conf);
+			}
+			Integer offset = offsets.get(className);
+			if (offset == null) {
+				return null;
+			}
+			ByteBuffer buffer = index.duplicate();
+			buffer.position(offset);
+			int length = buffer.getInt();
+			byte[] bytes = new byte[length];
+			buffer.get(bytes);
+			return CachedDefinition.read(new DataInputStream(new ByteArrayInputStream(bytes)));
+		} catch (IOException e) {
+			// corrupted cache, it is rewritten when saving
+			offsets = Collections.emptyMap();
+			return null;
+		}
+	}
+
+	private void loadIndex(Configuration conf) throws IOException {
+		offsets = new HashMap<String, Integer>();
+		loadedFingerprint = fingerprint(conf);
+		if (!file.isFile()) {
+			return;
+		}
+		// read in memory rather than mapped, as a mapped file could not be replaced when saving on some platforms
+		ByteBuffer buffer;
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			buffer = ByteBuffer.allocate((int) channel.size());
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+				// until the whole file is read
+			}
+			buffer.flip();
+		} finally {
+			channel.close();
+		}
+		if (buffer.getInt() != FORMAT_VERSION || !loadedFingerprint.equals(readString(buffer))) {
+			return;
+		}
+		int count = buffer.getInt();
+		for (int i = 0; i < count; i++) {
+			int offset = buffer.position();
+			int length = buffer.getInt();
+			// entries start with the class name
+			String className = readString(buffer.duplicate());
+			offsets.put(className, offset);
+			buffer.position(offset + 4 + length);
+		}
+		index = buffer;
+	}
+
+	/** Hash of the bytecode of given class and of its mix-in if any, or null if it can't be read */
+	byte[] hash(Class<?> clazz) {
+		byte[] hash = classHashes.get(clazz);
+		if (hash == null) {
+			try {
+				MessageDigest digest = MessageDigest.getInstance("SHA-1");
+				if (!digestBytecode(clazz, digest)) {
+					return null;
+				}
+				Class<?> mixIn = mixIns == null ? null : mixIns.findMixInClassFor(clazz);
+				if (mixIn != null) {
+					digest.update(mixIn.getName().getBytes(UTF8));
+					if (!digestBytecode(mixIn, digest)) {
+						return null;
+					}
+				}
+				hash = digest.digest();
+			} catch (IOException e) {
+				return null;
+			} catch (NoSuchAlgorithmException e) {
+				throw new RuntimeException(e);
+			}
+			classHashes.put(clazz, hash);
+		}
+		return hash;
+	}
+
+	/** @return false if the bytecode of given class can't be read */
+	private static boolean digestBytecode(Class<?> clazz, MessageDigest digest) throws IOException {
+		InputStream in = clazz.getResourceAsStream("/" + clazz.getName().replace('.', '/') + ".class");
+		if (in == null) {
+			return false;
+		}
+		try {
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				digest.update(buffer, 0, read);
+			}
+		} finally {
+			in.close();
+		}
+		return true;
+	}
+
+	/** Settings of the configuration and of the mapper that have an impact on the generated definitions */
+	private synchronized String fingerprint(Configuration conf) {
+		return version + "|" + conf.getClass().getName() + "|" + conf.getNamingStrategy().getClass().getName() + "|"
+				+ conf.getIntrospectionBackend() + "|"
+				+ new TreeSet<String>(conf.getIgnoredMethodNames()) + "|"
+				+ new TreeSet<String>(conf.getCustomTypes().keySet()) + "|" + mapperFingerprint;
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(UTF8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, UTF8);
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return new String(bytes, UTF8);
+	}
+
+	private static class CachedDefinition {
+		private final String className;
+		private final Map<String, byte[]> dependencies = new LinkedHashMap<String, byte[]>();
+		private final Map<String, CachedType> fields = new LinkedHashMap<String, CachedType>();
+		private final List<CachedMethod> methods = new ArrayList<CachedMethod>();
+
+		private CachedDefinition(String className) {
+			this.className = className;
+		}
+
+		/** @return null if the definition can't be cached */
+		static CachedDefinition of(ClassType type, Set<Class<?>> dependencies, Configuration conf, TypeCache cache) {
+			CachedDefinition definition = new CachedDefinition(type.getJavaClass().getName());
+			for (Class<?> dependency : dependencies) {
+				byte[] hash = cache.hash(dependency);
+				if (hash == null) {
+					return null;
+				}
+				definition.dependencies.put(dependency.getName(), hash);
+			}
+			for (Entry<String, FunctionType> method : type.getMethods().entrySet()) {
+				CachedMethod cachedMethod = new CachedMethod(method.getKey());
+				cachedMethod.resultType = CachedType.of(method.getValue().getResultType(), conf);
+				if (cachedMethod.resultType == null) {
+					return null;
+				}
+				for (Entry<String, AbstractType> param : method.getValue().getParameters().entrySet()) {
+					CachedType paramType = CachedType.of(param.getValue(), conf);
+					if (paramType == null) {
+						return null;
+					}
+					cachedMethod.parameters.put(param.getKey(), paramType);
+				}
+				definition.methods.add(cachedMethod);
+			}
+			for (Entry<String, AbstractType> field : type.getFields().entrySet()) {
+				CachedType fieldType = CachedType.of(field.getValue(), conf);
+				if (fieldType == null) {
+					return null;
+				}
+				definition.fields.put(field.getKey(), fieldType);
+			}
+			return definition;
+		}
+
+		boolean isUpToDate(ClassLoader classLoader, TypeCache cache) {
+			for (Entry<String, byte[]> dependency : dependencies.entrySet()) {
+				byte[] hash;
+				try {
+					hash = cache.hash(Class.forName(dependency.getKey(), false, classLoader));
+				} catch (ClassNotFoundException e) {
+					return false;
+				}
+				if (!Arrays.equals(dependency.getValue(), hash)) {
+					return false;
+				}
+			}
+			// referenced classes must be loadable too
+			try {
+				for (CachedMethod method : methods) {
+					method.resultType.loadClasses(classLoader);
+					for (CachedType param : method.parameters.values()) {
+						param.loadClasses(classLoader);
+					}
+				}
+				for (CachedType field : fields.values()) {
+					field.loadClasses(classLoader);
+				}
+			} catch (ClassNotFoundException e) {
+				return false;
+			}
+			return true;
+		}
+
+		void write(DataOutputStream out) throws IOException {
+			writeString(out, className);
+			out.writeInt(dependencies.size());
+			for (Entry<String, byte[]> dependency : dependencies.entrySet()) {
+				writeString(out, dependency.getKey());
+				out.writeInt(dependency.getValue().length);
+				out.write(dependency.getValue());
+			}
+			out.writeInt(methods.size());
+			for (CachedMethod method : methods) {
+				writeString(out, method.name);
+				method.resultType.write(out);
+				out.writeInt(method.parameters.size());
+				for (Entry<String, CachedType> param : method.parameters.entrySet()) {
+					writeString(out, param.getKey());
+					param.getValue().write(out);
+				}
+			}
+			out.writeInt(fields.size());
+			for (Entry<String, CachedType> field : fields.entrySet()) {
+				writeString(out, field.getKey());
+				field.getValue().write(out);
+			}
+		}
+
+		static CachedDefinition read(DataInputStream in) throws IOException {
+			CachedDefinition definition = new CachedDefinition(readString(in));
+			int dependencyCount = in.readInt();
+			for (int i = 0; i < dependencyCount; i++) {
+				String name = readString(in);
+				byte[] hash = new byte[in.readInt()];
+				in.readFully(hash);
+				definition.dependencies.put(name, hash);
+			}
+			int methodCount = in.readInt();
+			for (int i = 0; i < methodCount; i++) {
+				CachedMethod method = new CachedMethod(readString(in));
+				method.resultType = CachedType.read(in);
+				int paramCount = in.readInt();
+				for (int j = 0; j < paramCount; j++) {
+					method.parameters.put(readString(in), CachedType.read(in));
+				}
+				definition.methods.add(method);
+			}
+			int fieldCount = in.readInt();
+			for (int i = 0; i < fieldCount; i++) {
+				definition.fields.put(readString(in), CachedType.read(in));
+			}
+			return definition;
+		}
+	}
+
+	private static class CachedMethod {
+		private final String name;
+		private CachedType resultType;
+		private final Map<String, CachedType> parameters = new LinkedHashMap<String, CachedType>();
+
+		CachedMethod(String name) {
+			this.name = name;
+		}
+	}
+
+	/** Serializable form of a type reference : primitive, array, map, named or custom type */
+	private static class CachedType {
+		private final byte kind;
+		/** primitive index, named class name or custom type key */
+		private final String name;
+		private final CachedType first;
+		private final CachedType second;
+		private Class<?> namedClass;
+
+		CachedType(byte kind, String name, CachedType first, CachedType second) {
+			this.kind = kind;
+			this.name = name;
+			this.first = first;
+			this.second = second;
+		}
+
+		/** @return null if the type can't be cached */
+		static CachedType of(AbstractType type, Configuration conf) {
+			if (type == null) {
+				return null;
+			}
+			for (Entry<String, AbstractType> custom : conf.getCustomTypes().entrySet()) {
+				if (custom.getValue() == type) {
+					return new CachedType(CUSTOM, custom.getKey(), null, null);
+				}
+			}
+			int primitive = PRIMITIVES.indexOf(type);
+			if (primitive >= 0) {
+				return new CachedType(PRIMITIVE, String.valueOf(primitive), null, null);
+			}
+			if (type instanceof ArrayType) {
+				CachedType item = of(((ArrayType) type).getItemType(), conf);
+				return item == null ? null : new CachedType(ARRAY, null, item, null);
+			}
+			if (type instanceof MapType) {
+				CachedType key = of(((MapType) type).getKeyType(), conf);
+				CachedType value = of(((MapType) type).getValueType(), conf);
+				return key == null || value == null ? null : new CachedType(MAP, null, key, value);
+			}
+			if (type instanceof AbstractNamedType) {
+				Class<?> javaClass = ((AbstractNamedType) type).getJavaClass();
+				// generic types can't be restored from their class only
+				if (javaClass == null || javaClass.getTypeParameters().length > 0) {
+					return null;
+				}
+				CachedType named = new CachedType(NAMED, javaClass.getName(), null, null);
+				named.namedClass = javaClass;
+				return named;
+			}
+			return null;
+		}
+
+		void loadClasses(ClassLoader classLoader) throws ClassNotFoundException {
+			if (kind == NAMED) {
+				namedClass = Class.forName(name, false, classLoader);
+			}
+			if (first != null) {
+				first.loadClasses(classLoader);
+			}
+			if (second != null) {
+				second.loadClasses(classLoader);
+			}
+		}
+
+		AbstractType toType(Configuration conf, NamedTypeResolver resolver) {
+			switch (kind) {
+			case PRIMITIVE:
+				return PRIMITIVES.get(Integer.parseInt(name));
+			case CUSTOM:
+				return conf.getCustomTypes().get(name);
+			case ARRAY:
+				return new ArrayType(first.toType(conf, resolver));
+			case MAP:
+				MapType mapType = new MapType();
+				mapType.setKeyType(first.toType(conf, resolver));
+				mapType.setValueType(second.toType(conf, resolver));
+				return mapType;
+			case NAMED:
+				return resolver.resolve(namedClass);
+			default:
+				throw new IllegalStateException("Unknown cached type kind " + kind);
+			}
+		}
+
+		void write(DataOutputStream out) throws IOException {
+			out.writeByte(kind);
+			if (kind == PRIMITIVE || kind == NAMED || kind == CUSTOM) {
+				writeString(out, name);
+			}
+			if (first != null) {
+				first.write(out);
+			}
+			if (second != null) {
+				second.write(out);
+			}
+		}
+
+		static CachedType read(DataInputStream in) throws IOException {
+			byte kind = in.readByte();
+			switch (kind) {
+			case PRIMITIVE:
+			case NAMED:
+			case CUSTOM:
+				return new CachedType(kind, readString(in), null, null);
+			case ARRAY:
+				return new CachedType(kind, null, read(in), null);
+			case MAP:
+				CachedType key = read(in);
+				return new CachedType(kind, null, key, read(in));
+			default:
+				throw new IOException("Unknown cached type kind " + kind);
+			}
+		}
+	}
+}
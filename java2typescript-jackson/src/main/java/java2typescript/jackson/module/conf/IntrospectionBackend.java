@@ -0,0 +1,17 @@
+package java2typescript.jackson.module.conf;
+
+/**
+ * How Java types are described to the visitors building the TypeScript grammar
+ */
+public enum IntrospectionBackend {
+
+	/** Ask Jackson for the serializer of each type and let it visit the type (default) */
+	SERIALIZERS,
+
+	/**
+	 * Describe types out of Jackson bean descriptions and annotations, without creating serializers. Only serializers
+	 * registered by modules or referenced by <code>@JsonSerialize(using=...)</code> are still used.
+	 */
+	BEAN_DESCRIPTIONS
+
+}
@@ -36,6 +36,10 @@ public class ArrayType extends AbstractType {
 		writer.write("[]");
 	}
 
+	public AbstractType getItemType() {
+		return itemType;
+	}
+
 	public void setItemType(AbstractType itemType) {
 		this.itemType = itemType;
 	}
@@ -15,14 +15,13 @@
  ******************************************************************************/
 package java2typescript.jackson.module.grammar;
 
-import static java.lang.String.format;
-
 import java.io.IOException;
 import java.io.Writer;
 import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.TreeMap;
 
 import java2typescript.jackson.module.grammar.base.AbstractNamedType;
 import java2typescript.jackson.module.grammar.base.AbstractType;
@@ -31,9 +30,9 @@ import java2typescript.jackson.module.writer.WriterPreferences;
 
 public class ClassType extends AbstractNamedType {
 
-	private Map<String, AbstractType> fields = new LinkedHashMap<String, AbstractType>();
+	private Map<String, AbstractType> fields;
 
-	private Map<String, FunctionType> methods = new LinkedHashMap<String, FunctionType>();
+	private Map<String, FunctionType> methods;
 
 	static private ClassType objectType = new ClassType("Object", Object.class);
 
@@ -43,31 +42,52 @@ public class ClassType extends AbstractNamedType {
 	}
 
 	public ClassType(String className, Class<?> javaClass) {
+		this(className, javaClass, false);
+	}
+
+	/**
+	 * @param sorted
+	 *            if true, fields and methods are kept sorted by name instead of in declaration order
+	 */
+	public ClassType(String className, Class<?> javaClass, boolean sorted) {
 		super(className, javaClass);
+		if (sorted) {
+			fields = new TreeMap<String, AbstractType>();
+			methods = new TreeMap<String, FunctionType>();
+		} else {
+			fields = new LinkedHashMap<String, AbstractType>();
+			methods = new LinkedHashMap<String, FunctionType>();
+		}
 	}
 
 	@Override
 	public void writeDefInternal(Writer writer, WriterPreferences preferences) throws IOException {
-		writer.write(format("interface %s {\n", name));
+		writer.write("interface ");
+		writer.write(name);
+		writer.write(" {\n");
 		preferences.increaseIndentation();
 		Collection<Entry<String, AbstractType>> fieldsEntrySet = fields.entrySet();
 		Collection<String> methodsKeySet = methods.keySet();
 		if(preferences.isSort()) {
-			fieldsEntrySet = SortUtil.sortEntriesByKey(fieldsEntrySet);
-			methodsKeySet = SortUtil.sort(methodsKeySet);
+			fieldsEntrySet = SortUtil.entriesSortedByKey(fields);
+			methodsKeySet = SortUtil.keysSorted(methods);
 		}
 		for (Entry<String, AbstractType> entry : fieldsEntrySet) {
-			writer.write(format("%s%s: ", preferences.getIndentation(), entry.getKey()));
+			writer.write(preferences.getIndentation());
+			writer.write(entry.getKey());
+			writer.write(": ");
 			entry.getValue().write(writer);
 			writer.write(";\n");
 		}
 		for (String methodName : methodsKeySet) {
-			writer.write(preferences.getIndentation() + methodName);
+			writer.write(preferences.getIndentation());
+			writer.write(methodName);
 			this.methods.get(methodName).writeNonLambda(writer);
 			writer.write(";\n");
 		}
 		preferences.decreaseIndention();
-		writer.write(preferences.getIndentation() + "}");
+		writer.write(preferences.getIndentation());
+		writer.write("}");
 	}
 
 	public Map<String, AbstractType> getFields() {
@@ -15,15 +15,13 @@
  ******************************************************************************/
 package java2typescript.jackson.module.grammar;
 
-import static java.lang.String.format;
-
 import java.io.IOException;
 import java.io.Writer;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 import java2typescript.jackson.module.grammar.base.AbstractNamedType;
+import java2typescript.jackson.module.writer.SortUtil;
 import java2typescript.jackson.module.writer.WriterPreferences;
 
 
@@ -37,16 +35,22 @@ public class EnumType extends AbstractNamedType {
 
 	@Override
 	public void writeDefInternal(Writer writer, WriterPreferences preferences) throws IOException {
-		writer.write(format("enum %s {\n", name));
+		writer.write("enum ");
+		writer.write(name);
+		writer.write(" {\n");
 		preferences.increaseIndentation();
+		List<String> values = this.values;
 		if(preferences.isSort()) {
-			Collections.sort(values);
+			values = SortUtil.sortedIfNeeded(values);
 		}
 		for (String value : values) {
-			writer.write(format("%s%s,\n", preferences.getIndentation(), value));
+			writer.write(preferences.getIndentation());
+			writer.write(value);
+			writer.write(",\n");
 		}
 		preferences.decreaseIndention();
-		writer.write(preferences.getIndentation() + "}");
+		writer.write(preferences.getIndentation());
+		writer.write("}");
 	}
 
 	public List<String> getValues() {
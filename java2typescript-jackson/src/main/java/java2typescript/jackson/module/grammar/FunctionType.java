@@ -50,7 +50,7 @@ public class FunctionType extends AbstractType {
 			}
 			i++;
 		}
-		writer.write(")" + (lambdaSyntax ? "=> " : ": "));
+		writer.write(lambdaSyntax ? ")=> " : "): ");
 		resultType.write(writer);
 	}
 
@@ -15,28 +15,56 @@
  ******************************************************************************/
 package java2typescript.jackson.module.grammar;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 
 import java2typescript.jackson.module.grammar.base.AbstractNamedType;
 import java2typescript.jackson.module.grammar.base.AbstractType;
+import java2typescript.jackson.module.writer.AtomicFileWriter;
 import java2typescript.jackson.module.writer.InternalModuleFormatWriter;
 
 public class Module {
 
 	private String name;
 
-	private Map<String, AbstractNamedType> namedTypes = new HashMap<String, AbstractNamedType>();
+	private final boolean sorted;
 
-	private Map<String, AbstractType> vars = new HashMap<String, AbstractType>();
+	private Map<String, AbstractNamedType> namedTypes;
+
+	private Map<String, AbstractType> vars;
 
 	public Module() {
+		this(null);
 	}
 
 	public Module(String name) {
+		this(name, false);
+	}
+
+	/**
+	 * @param sorted
+	 *            if true, named types and vars are kept sorted by name as they are added, so that sorted output does
+	 *            not need to sort them again each time the module is written
+	 */
+	public Module(String name, boolean sorted) {
 		this.name = name;
+		this.sorted = sorted;
+		if (sorted) {
+			namedTypes = new TreeMap<String, AbstractNamedType>();
+			vars = new TreeMap<String, AbstractType>();
+		} else {
+			namedTypes = new HashMap<String, AbstractNamedType>();
+			vars = new HashMap<String, AbstractType>();
+		}
+	}
+
+	/** @return true if types created for this module keep their members sorted by name */
+	public boolean isSorted() {
+		return sorted;
 	}
 
 	public Map<String, AbstractNamedType> getNamedTypes() {
@@ -59,4 +87,19 @@ public class Module {
 		new InternalModuleFormatWriter().write(this, writer);
 	}
 
+	/**
+	 * Write this module in internal module format to given file, in UTF-8, replacing it atomically
+	 * 
+	 * @return true if the file has been (re)written, false if it already had the same content
+	 */
+	public boolean write(File file) throws IOException {
+		AtomicFileWriter out = new AtomicFileWriter(file);
+		try {
+			write(out);
+			return out.commit();
+		} finally {
+			out.close();
+		}
+	}
+
 }
@@ -15,14 +15,13 @@
  ******************************************************************************/
 package java2typescript.jackson.module.grammar;
 
-import static java.lang.String.format;
-
 import java.io.IOException;
 import java.io.Writer;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.TreeMap;
 
 import java2typescript.jackson.module.grammar.base.AbstractNamedType;
 import java2typescript.jackson.module.grammar.base.Value;
@@ -31,29 +30,44 @@ import java2typescript.jackson.module.writer.WriterPreferences;
 
 public class StaticClassType extends AbstractNamedType {
 
-	private Map<String, Value> fields = new HashMap<String, Value>();
+	private final Map<String, Value> fields;
 
 	public StaticClassType(String className, Class<?> javaClass) {
+		this(className, javaClass, false);
+	}
+
+	/**
+	 * @param sorted
+	 *            if true, static fields are kept sorted by name
+	 */
+	public StaticClassType(String className, Class<?> javaClass, boolean sorted) {
 		super(className, javaClass);
+		fields = sorted ? new TreeMap<String, Value>() : new HashMap<String, Value>();
 	}
 
 	@Override
 	public void writeDefInternal(Writer writer, WriterPreferences prefs) throws IOException {
-		writer.write(format("class %s {\n", name));
+		writer.write("class ");
+		writer.write(name);
+		writer.write(" {\n");
 		prefs.increaseIndentation();
 		Collection<Entry<String, Value>> fieldsEntrySet = fields.entrySet();
 		if(prefs.isSort()) {
-			fieldsEntrySet = SortUtil.sortEntriesByKey(fieldsEntrySet);
+			fieldsEntrySet = SortUtil.entriesSortedByKey(fields);
 		}
 		for (Entry<String, Value> entry : fieldsEntrySet) {
-			writer.write(format("%sstatic %s: ", prefs.getIndentation(), entry.getKey()));
+			writer.write(prefs.getIndentation());
+			writer.write("static ");
+			writer.write(entry.getKey());
+			writer.write(": ");
 			entry.getValue().getType().write(writer);
 			writer.write(" = ");
 			writer.write(entry.getValue().getValue().toString());
 			writer.write(";\n");
 		}
 		prefs.decreaseIndention();
-		writer.write(prefs.getIndentation() + "}");
+		writer.write(prefs.getIndentation());
+		writer.write("}");
 	}
 
 	public Map<String, Value> getStaticFields() {
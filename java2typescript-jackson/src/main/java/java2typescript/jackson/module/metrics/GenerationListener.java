@@ -0,0 +1,38 @@
+package java2typescript.jackson.module.metrics;
+
+import com.fasterxml.jackson.databind.JavaType;
+
+import java2typescript.jackson.module.grammar.base.AbstractNamedType;
+
+/**
+ * Notified of what happens during generation, to find out where generation time goes. Root classes may be visited
+ * concurrently (see {@link java2typescript.jackson.module.Configuration#setGenerationPool}), so implementations must be
+ * thread safe.
+ * 
+ * @see GenerationMetrics
+ */
+public interface GenerationListener {
+
+	/**
+	 * @param wallNanos
+	 *            elapsed time of the phase
+	 * @param cpuNanos
+	 *            CPU time of the threads executing the phase, or -1 if the JVM can not measure it
+	 */
+	void phaseCompleted(GenerationPhase phase, long wallNanos, long cpuNanos);
+
+	/** A root class was visited, together with the types it references that were not visited yet */
+	void rootClassVisited(Class<?> rootClass, long wallNanos);
+
+	/** A named type was added to the module */
+	void namedTypeVisited(AbstractNamedType type);
+
+	/** The type of given Java type was already computed, it is not visited again */
+	void computedTypeHit(JavaType javaType);
+
+	/** A named type was already added to the module, it is not visited again */
+	void namedTypeHit(AbstractNamedType type);
+
+	/** Hits and misses of a cache used by the generation, since the cache was created */
+	void cacheStatistics(String cacheName, long hits, long misses);
+}
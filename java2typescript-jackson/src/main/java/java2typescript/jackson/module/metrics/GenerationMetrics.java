@@ -0,0 +1,256 @@
+package java2typescript.jackson.module.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java2typescript.jackson.module.grammar.base.AbstractNamedType;
+
+/**
+ * Collects per phase timings, counts of visited types, cache statistics and the slowest root classes, to be printed
+ * ({@link #getSummary()}) or written as JSON ({@link #writeJson(Writer)}) so that regressions can be tracked between
+ * builds. Thread safe.
+ */
+public class GenerationMetrics implements GenerationListener {
+
+	public static final int DEFAULT_SLOWEST_CLASSES = 10;
+
+	private static final Comparator<ClassTiming> BY_WALL_TIME = new Comparator<ClassTiming>() {
+		@Override
+		public int compare(ClassTiming t1, ClassTiming t2) {
+			return Long.compare(t1.getWallNanos(), t2.getWallNanos());
+		}
+	};
+
+	private final int slowestClassesCount;
+
+	private final Map<GenerationPhase, long[]> phases = new EnumMap<GenerationPhase, long[]>(GenerationPhase.class);
+
+	/** the fastest of the slowest classes first, to be replaced by slower ones */
+	private final PriorityQueue<ClassTiming> slowestClasses;
+
+	private final Map<String, long[]> caches = new LinkedHashMap<String, long[]>();
+
+	private final AtomicLong rootClasses = new AtomicLong();
+
+	private final AtomicLong namedTypesVisited = new AtomicLong();
+
+	private final AtomicLong computedTypeHits = new AtomicLong();
+
+	private final AtomicLong namedTypeHits = new AtomicLong();
+
+	public GenerationMetrics() {
+		this(DEFAULT_SLOWEST_CLASSES);
+	}
+
+	public GenerationMetrics(int slowestClassesCount) {
+		if (slowestClassesCount < 1) {
+			throw new IllegalArgumentException("slowestClassesCount must be positive: " + slowestClassesCount);
+		}
+		this.slowestClassesCount = slowestClassesCount;
+		this.slowestClasses = new PriorityQueue<ClassTiming>(slowestClassesCount, BY_WALL_TIME);
+	}
+
+	@Override
+	public synchronized void phaseCompleted(GenerationPhase phase, long wallNanos, long cpuNanos) {
+		long[] times = phases.get(phase);
+		if (times == null) {
+			times = new long[] { 0, 0 };
+			phases.put(phase, times);
+		}
+		times[0] += wallNanos;
+		if (cpuNanos < 0 || times[1] < 0) {
+			times[1] = -1;
+		} else {
+			times[1] += cpuNanos;
+		}
+	}
+
+	@Override
+	public void rootClassVisited(Class<?> rootClass, long wallNanos) {
+		rootClasses.incrementAndGet();
+		synchronized (slowestClasses) {
+			if (slowestClasses.size() < slowestClassesCount) {
+				slowestClasses.add(new ClassTiming(rootClass.getName(), wallNanos));
+			} else if (slowestClasses.peek().getWallNanos() < wallNanos) {
+				slowestClasses.poll();
+				slowestClasses.add(new ClassTiming(rootClass.getName(), wallNanos));
+			}
+		}
+	}
+
+	@Override
+	public void namedTypeVisited(AbstractNamedType type) {
+		namedTypesVisited.incrementAndGet();
+	}
+
+	@Override
+	public void computedTypeHit(JavaType javaType) {
+		computedTypeHits.incrementAndGet();
+	}
+
+	@Override
+	public void namedTypeHit(AbstractNamedType type) {
+		namedTypeHits.incrementAndGet();
+	}
+
+	@Override
+	public synchronized void cacheStatistics(String cacheName, long hits, long misses) {
+		caches.put(cacheName, new long[] { hits, misses });
+	}
+
+	/** @return elapsed time of given phase, summed over all its executions */
+	public synchronized long getWallNanos(GenerationPhase phase) {
+		long[] times = phases.get(phase);
+		return times == null ? 0 : times[0];
+	}
+
+	/** @return CPU time of given phase, summed over all its executions, or -1 if it could not be measured */
+	public synchronized long getCpuNanos(GenerationPhase phase) {
+		long[] times = phases.get(phase);
+		return times == null ? 0 : times[1];
+	}
+
+	public long getRootClasses() {
+		return rootClasses.get();
+	}
+
+	public long getNamedTypesVisited() {
+		return namedTypesVisited.get();
+	}
+
+	/** @return number of times the type of a Java type was taken from the computed types */
+	public long getComputedTypeHits() {
+		return computedTypeHits.get();
+	}
+
+	/** @return number of times a named type was found in the module */
+	public long getNamedTypeHits() {
+		return namedTypeHits.get();
+	}
+
+	/** @return hits and misses by cache name, as last reported */
+	public synchronized Map<String, long[]> getCacheStatistics() {
+		Map<String, long[]> copy = new LinkedHashMap<String, long[]>();
+		for (Map.Entry<String, long[]> entry : caches.entrySet()) {
+			copy.put(entry.getKey(), entry.getValue().clone());
+		}
+		return copy;
+	}
+
+	/** @return root classes that took the longest to visit, slowest first */
+	public List<ClassTiming> getSlowestClasses() {
+		List<ClassTiming> slowest;
+		synchronized (slowestClasses) {
+			slowest = new ArrayList<ClassTiming>(slowestClasses);
+		}
+		Collections.sort(slowest, Collections.reverseOrder(BY_WALL_TIME));
+		return slowest;
+	}
+
+	/** @return human readable summary, one line per item */
+	public String getSummary() {
+		StringBuilder summary = new StringBuilder();
+		for (GenerationPhase phase : GenerationPhase.values()) {
+			summary.append(String.format(Locale.ROOT, "%-10s %10.1f ms wall", phase, millis(getWallNanos(phase))));
+			long cpuNanos = getCpuNanos(phase);
+			if (cpuNanos >= 0) {
+				summary.append(String.format(Locale.ROOT, " %10.1f ms CPU", millis(cpuNanos)));
+			}
+			summary.append('\n');
+		}
+		summary.append(String.format("%d root classes, %d named types visited, %d computed type hits, %d named type hits\n",
+				getRootClasses(), getNamedTypesVisited(), getComputedTypeHits(), getNamedTypeHits()));
+		for (Map.Entry<String, long[]> cache : getCacheStatistics().entrySet()) {
+			summary.append(String.format("%s cache: %d hits, %d misses\n", cache.getKey(), cache.getValue()[0],
+					cache.getValue()[1]));
+		}
+		List<ClassTiming> slowest = getSlowestClasses();
+		if (!slowest.isEmpty()) {
+			summary.append("slowest classes:\n");
+			for (ClassTiming timing : slowest) {
+				summary.append(String.format(Locale.ROOT, "  %10.1f ms %s\n", millis(timing.getWallNanos()),
+						timing.getClassName()));
+			}
+		}
+		return summary.toString();
+	}
+
+	/** Write metrics as a JSON object, times being in nanoseconds */
+	public void writeJson(Writer writer) throws IOException {
+		Map<String, Object> report = new LinkedHashMap<String, Object>();
+
+		Map<String, Object> phasesReport = new LinkedHashMap<String, Object>();
+		for (GenerationPhase phase : GenerationPhase.values()) {
+			Map<String, Object> phaseReport = new LinkedHashMap<String, Object>();
+			phaseReport.put("wallNanos", getWallNanos(phase));
+			phaseReport.put("cpuNanos", getCpuNanos(phase));
+			phasesReport.put(phase.name(), phaseReport);
+		}
+		report.put("phases", phasesReport);
+		report.put("rootClasses", getRootClasses());
+		report.put("namedTypesVisited", getNamedTypesVisited());
+		report.put("computedTypeHits", getComputedTypeHits());
+		report.put("namedTypeHits", getNamedTypeHits());
+
+		Map<String, Object> cachesReport = new LinkedHashMap<String, Object>();
+		for (Map.Entry<String, long[]> cache : getCacheStatistics().entrySet()) {
+			Map<String, Object> cacheReport = new LinkedHashMap<String, Object>();
+			cacheReport.put("hits", cache.getValue()[0]);
+			cacheReport.put("misses", cache.getValue()[1]);
+			cachesReport.put(cache.getKey(), cacheReport);
+		}
+		report.put("caches", cachesReport);
+
+		List<Object> slowestReport = new ArrayList<Object>();
+		for (ClassTiming timing : getSlowestClasses()) {
+			Map<String, Object> timingReport = new LinkedHashMap<String, Object>();
+			timingReport.put("className", timing.getClassName());
+			timingReport.put("wallNanos", timing.getWallNanos());
+			slowestReport.add(timingReport);
+		}
+		report.put("slowestClasses", slowestReport);
+
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+		mapper.writerWithDefaultPrettyPrinter().writeValue(writer, report);
+	}
+
+	private static double millis(long nanos) {
+		return nanos / 1000000.0;
+	}
+
+	/** Time spent visiting a root class */
+	public static class ClassTiming {
+
+		private final String className;
+
+		private final long wallNanos;
+
+		ClassTiming(String className, long wallNanos) {
+			this.className = className;
+			this.wallNanos = wallNanos;
+		}
+
+		public String getClassName() {
+			return className;
+		}
+
+		public long getWallNanos() {
+			return wallNanos;
+		}
+	}
+}
@@ -0,0 +1,18 @@
+package java2typescript.jackson.module.metrics;
+
+/** Phases of the generation reported to {@link GenerationListener#phaseCompleted} */
+public enum GenerationPhase {
+
+	/** finding the classes to generate definitions for, for example by scanning the classpath */
+	SCAN,
+
+	/** reflection on classes (bean info, methods, annotations, static fields), summed over generation threads */
+	INTROSPECT,
+
+	/** visiting root classes and the types they reference, introspection excluded */
+	VISIT,
+
+	/** writing generated definitions */
+	WRITE
+
+}
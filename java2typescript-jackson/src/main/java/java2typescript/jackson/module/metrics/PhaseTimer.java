@@ -0,0 +1,44 @@
+package java2typescript.jackson.module.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/** Measures the wall and CPU time of the current thread since the timer was started */
+public class PhaseTimer {
+
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	private final long wallStart;
+
+	private final long cpuStart;
+
+	private PhaseTimer() {
+		wallStart = System.nanoTime();
+		cpuStart = currentThreadCpuTime();
+	}
+
+	public static PhaseTimer start() {
+		return new PhaseTimer();
+	}
+
+	/** @return CPU time of the current thread, or -1 if the JVM can not measure it */
+	public static long currentThreadCpuTime() {
+		return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+	}
+
+	public long getWallNanos() {
+		return System.nanoTime() - wallStart;
+	}
+
+	/** @return CPU time of the current thread since the timer was started, or -1 if the JVM can not measure it */
+	public long getCpuNanos() {
+		return cpuStart < 0 ? -1 : currentThreadCpuTime() - cpuStart;
+	}
+
+	/** Report elapsed times as given phase, if listener is not null */
+	public void report(GenerationListener listener, GenerationPhase phase) {
+		if (listener != null) {
+			listener.phaseCompleted(phase, getWallNanos(), getCpuNanos());
+		}
+	}
+}
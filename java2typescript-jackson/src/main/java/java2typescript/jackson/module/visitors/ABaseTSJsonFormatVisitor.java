@@ -15,13 +15,23 @@
  ******************************************************************************/
 package java2typescript.jackson.module.visitors;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java2typescript.jackson.module.grammar.ArrayType;
+import java2typescript.jackson.module.grammar.FunctionType;
+import java2typescript.jackson.module.grammar.MapType;
 import java2typescript.jackson.module.grammar.Module;
+import java2typescript.jackson.module.grammar.base.AbstractNamedType;
 import java2typescript.jackson.module.grammar.base.AbstractType;
 
+import com.fasterxml.jackson.databind.BeanProperty;
 import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsonFormatVisitors.JsonFormatVisitable;
 import com.fasterxml.jackson.databind.jsonFormatVisitors.JsonFormatVisitorWithSerializerProvider;
 
 import java2typescript.jackson.module.Configuration;
@@ -42,6 +52,12 @@ public abstract class ABaseTSJsonFormatVisitor<T extends AbstractType> implement
 	private Module module;
 
 	private Map<JavaType, AbstractType> computedTypes;
+
+	private TypeReferenceListener referenceListener;
+
+	private BeanDescriptionHandler introspectionHandler;
+
+	private Set<Class<?>> rootClasses = Collections.emptySet();
 	
 	protected final Configuration conf;
 
@@ -56,6 +72,15 @@ public abstract class ABaseTSJsonFormatVisitor<T extends AbstractType> implement
 		this.conf = conf;
 	}
 
+	/**
+	 * Root visitor sharing given map of computed types (and the named types of the module) with other root visitors.
+	 * Both maps must be thread safe if the root visitors are used concurrently.
+	 */
+	public ABaseTSJsonFormatVisitor(Module module, Map<JavaType, AbstractType> computedTypes, Configuration conf) {
+		this(module, conf);
+		this.computedTypes = computedTypes;
+	}
+
 	public SerializerProvider getProvider() {
 		return (parentHolder == null) ? serializerProvider : parentHolder.getProvider();
 	}
@@ -90,4 +115,93 @@ public abstract class ABaseTSJsonFormatVisitor<T extends AbstractType> implement
 	public T getType() {
 		return type;
 	}
+
+	public TypeReferenceListener getReferenceListener() {
+		return (parentHolder == null) ? referenceListener : parentHolder.getReferenceListener();
+	}
+
+	public void setReferenceListener(TypeReferenceListener referenceListener) {
+		if (parentHolder != null) {
+			parentHolder.setReferenceListener(referenceListener);
+		} else {
+			this.referenceListener = referenceListener;
+		}
+	}
+
+	public BeanDescriptionHandler getIntrospectionHandler() {
+		return (parentHolder == null) ? introspectionHandler : parentHolder.getIntrospectionHandler();
+	}
+
+	/** Describe types with given handler instead of their serializers, if not null */
+	public void setIntrospectionHandler(BeanDescriptionHandler introspectionHandler) {
+		if (parentHolder != null) {
+			parentHolder.setIntrospectionHandler(introspectionHandler);
+		} else {
+			this.introspectionHandler = introspectionHandler;
+		}
+	}
+
+	/**
+	 * Classes given to the generator, described even when the class filter of the configuration does not accept them:
+	 * the filter only applies to the types they reach
+	 */
+	public void setRootClasses(Set<Class<?>> rootClasses) {
+		if (parentHolder != null) {
+			parentHolder.setRootClasses(rootClasses);
+		} else {
+			this.rootClasses = rootClasses;
+		}
+	}
+
+	/** @return true if given class is to be visited and described: a root class, or one accepted by the filter */
+	protected boolean isDescribedClass(Class<?> clazz) {
+		if (parentHolder != null) {
+			return parentHolder.isDescribedClass(clazz);
+		}
+		return rootClasses.contains(clazz) || conf.isDescribedClass(clazz);
+	}
+
+	/** Handler visiting given type: its serializer, or the introspection handler if any */
+	protected JsonFormatVisitable findHandler(JavaType type, BeanProperty property) throws JsonMappingException {
+		BeanDescriptionHandler handler = getIntrospectionHandler();
+		if (handler != null) {
+			return handler.forProperty(property);
+		}
+		return getProvider().findValueSerializer(type, property);
+	}
+
+	/** Named type whose definition is being visited, or null when visiting a root class */
+	protected AbstractNamedType getOwnerType() {
+		return (parentHolder == null) ? null : parentHolder.getOwnerType();
+	}
+
+	/** Report named types referenced by given (possibly anonymous) type to the reference listener, if any */
+	protected void fireTypeReferenced(AbstractType referenced) {
+		TypeReferenceListener listener = getReferenceListener();
+		if (listener != null) {
+			fireTypeReferenced(listener, getOwnerType(), referenced);
+		}
+	}
+
+	private void fireTypeReferenced(TypeReferenceListener listener, AbstractNamedType owner,
+			AbstractType referenced) {
+		if (referenced instanceof AbstractNamedType) {
+			Class<?> javaClass = ((AbstractNamedType) referenced).getJavaClass();
+			// types of the classes that are not described are only referenced by name, not part of the module
+			if (javaClass == null || isDescribedClass(javaClass)) {
+				listener.typeReferenced(owner, (AbstractNamedType) referenced);
+			}
+		} else if (referenced instanceof ArrayType) {
+			fireTypeReferenced(listener, owner, ((ArrayType) referenced).getItemType());
+		} else if (referenced instanceof MapType) {
+			fireTypeReferenced(listener, owner, ((MapType) referenced).getKeyType());
+			fireTypeReferenced(listener, owner, ((MapType) referenced).getValueType());
+		} else if (referenced instanceof FunctionType) {
+			FunctionType function = (FunctionType) referenced;
+			fireTypeReferenced(listener, owner, function.getResultType());
+			for (Entry<String, AbstractType> param : function.getParameters().entrySet()) {
+				fireTypeReferenced(listener, owner, param.getValue());
+			}
+		}
+	}
 }
@@ -0,0 +1,352 @@
+package java2typescript.jackson.module.visitors;
+
+import java.io.File;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.AnnotationIntrospector;
+import com.fasterxml.jackson.databind.AnnotationIntrospector.ReferenceProperty;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.PropertyName;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMethod;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.jsonFormatVisitors.JsonArrayFormatVisitor;
+import com.fasterxml.jackson.databind.jsonFormatVisitors.JsonFormatTypes;
+import com.fasterxml.jackson.databind.jsonFormatVisitors.JsonFormatVisitable;
+import com.fasterxml.jackson.databind.jsonFormatVisitors.JsonFormatVisitorWrapper;
+import com.fasterxml.jackson.databind.jsonFormatVisitors.JsonMapFormatVisitor;
+import com.fasterxml.jackson.databind.jsonFormatVisitors.JsonObjectFormatVisitor;
+import com.fasterxml.jackson.databind.ser.BasicSerializerFactory;
+import com.fasterxml.jackson.databind.ser.SerializerFactory;
+import com.fasterxml.jackson.databind.ser.Serializers;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.databind.util.NameTransformer;
+
+import java2typescript.jackson.module.conf.IntrospectionBackend;
+
+/**
+ * Describes types to the visitors the same way Jackson serializers would, but out of {@link BeanDescription}s and
+ * annotations, without creating serializers (see {@link IntrospectionBackend#BEAN_DESCRIPTIONS}).
+ * <p>
+ * Serializers registered by modules or referenced by <code>@JsonSerialize(using=...)</code> are still used to visit
+ * the types they handle. Map keys other than enums are visited as strings, which is how Jackson writes them.
+ */
+public class BeanDescriptionHandler implements JsonFormatVisitable {
+
+	/** Types (and their subtypes) visited as JSON strings by the standard JDK serializers */
+	private static final Class<?>[] STRING_TYPES = { String.class, StringBuilder.class, StringBuffer.class,
+			Character.class, char.class, UUID.class, URL.class, URI.class, File.class, Class.class, Locale.class,
+			Currency.class, Pattern.class, TimeZone.class, InetAddress.class, InetSocketAddress.class, Charset.class,
+			ByteBuffer.class, java.sql.Time.class };
+
+	private static final Class<?>[] INTEGER_TYPES = { byte.class, short.class, int.class, long.class, Byte.class,
+			Short.class, Integer.class, Long.class, java.math.BigInteger.class, AtomicInteger.class, AtomicLong.class };
+
+	private final Iterable<Serializers> moduleSerializers;
+
+	/** Results of @JsonIgnoreType lookups, shared by all handlers of a generation */
+	private final Map<Class<?>, Boolean> ignorableTypes;
+
+	/** Property whose value is visited, or null */
+	private final BeanProperty property;
+
+	public BeanDescriptionHandler(SerializerFactory serializerFactory) {
+		this(serializerFactory instanceof BasicSerializerFactory //
+				? ((BasicSerializerFactory) serializerFactory).getFactoryConfig().serializers() //
+				: Collections.<Serializers> emptyList(), new ConcurrentHashMap<Class<?>, Boolean>(), null);
+	}
+
+	private BeanDescriptionHandler(Iterable<Serializers> moduleSerializers, Map<Class<?>, Boolean> ignorableTypes,
+			BeanProperty property) {
+		this.moduleSerializers = moduleSerializers;
+		this.ignorableTypes = ignorableTypes;
+		this.property = property;
+	}
+
+	/** @return handler of the values of given property, taking its annotations into account */
+	public BeanDescriptionHandler forProperty(BeanProperty property) {
+		if (property == this.property) {
+			return this;
+		}
+		return new BeanDescriptionHandler(moduleSerializers, ignorableTypes, property);
+	}
+
+	@Override
+	public void acceptJsonFormatVisitor(JsonFormatVisitorWrapper visitor, JavaType type) throws JsonMappingException {
+		SerializerProvider provider = visitor.getProvider();
+		SerializationConfig config = provider.getConfig();
+		Class<?> rawClass = type.getRawClass();
+
+		JsonSerializer<?> serializer = findExplicitSerializer(provider, type);
+		if (serializer != null) {
+			serializer.acceptJsonFormatVisitor(visitor, type);
+			return;
+		}
+		JsonFormat.Value format = property == null ? null : property.findFormatOverrides(config
+				.getAnnotationIntrospector());
+
+		if (rawClass == Object.class) {
+			visitor.expectAnyFormat(type);
+		} else if (rawClass == Void.class) {
+			visitor.expectNullFormat(type);
+		} else if (rawClass.isEnum()) {
+			visitEnum(visitor, type, config, format);
+		} else if (rawClass == boolean.class || rawClass == Boolean.class || rawClass == AtomicBoolean.class) {
+			visitor.expectBooleanFormat(type);
+		} else if (isSubtypeOfOneOf(rawClass, INTEGER_TYPES)) {
+			visitor.expectIntegerFormat(type);
+		} else if (rawClass == float.class || rawClass == double.class || Number.class.isAssignableFrom(rawClass)) {
+			visitor.expectNumberFormat(type);
+		} else if (isSubtypeOfOneOf(rawClass, STRING_TYPES)) {
+			visitor.expectStringFormat(type);
+		} else if (Date.class.isAssignableFrom(rawClass) || Calendar.class.isAssignableFrom(rawClass)) {
+			visitDate(visitor, type, provider, format);
+		} else if (JsonSerializable.class.isAssignableFrom(rawClass) || rawClass == AtomicReference.class
+				|| Map.Entry.class.isAssignableFrom(rawClass)) {
+			// serializers not describing their format
+			visitor.expectAnyFormat(type);
+		} else if (type.isArrayType()) {
+			visitArray(visitor, type, type.getContentType());
+		} else if (type.isMapLikeType()) {
+			visitMap(visitor, type, config);
+		} else if (type.isCollectionLikeType()) {
+			visitArray(visitor, type, type.getContentType());
+		} else if (Iterable.class.isAssignableFrom(rawClass)) {
+			visitArray(visitor, type, findElementType(config, type, Iterable.class));
+		} else if (Iterator.class.isAssignableFrom(rawClass)) {
+			visitArray(visitor, type, findElementType(config, type, Iterator.class));
+		} else {
+			visitBean(visitor, type, config);
+		}
+	}
+
+	private JsonSerializer<?> findExplicitSerializer(SerializerProvider provider, JavaType type)
+			throws JsonMappingException {
+		SerializationConfig config = provider.getConfig();
+		AnnotationIntrospector introspector = config.getAnnotationIntrospector();
+		if (property != null && property.getMember() != null) {
+			Object serializerDef = introspector.findSerializer(property.getMember());
+			if (serializerDef != null) {
+				return provider.handlePrimaryContextualization(
+						provider.serializerInstance(property.getMember(), serializerDef), property);
+			}
+		}
+		if (type.isPrimitive()) {
+			return null;
+		}
+		BeanDescription classDescription = null;
+		for (Serializers serializers : moduleSerializers) {
+			if (classDescription == null) {
+				classDescription = config.introspectClassAnnotations(type);
+			}
+			JsonSerializer<?> serializer = serializers.findSerializer(config, type, classDescription);
+			if (serializer != null) {
+				return provider.handlePrimaryContextualization(serializer, property);
+			}
+		}
+		if (isStandardType(type.getRawClass())) {
+			return null;
+		}
+		if (classDescription == null) {
+			classDescription = config.introspectClassAnnotations(type);
+		}
+		Object serializerDef = introspector.findSerializer(classDescription.getClassInfo());
+		if (serializerDef != null) {
+			return provider.handlePrimaryContextualization(
+					provider.serializerInstance(classDescription.getClassInfo(), serializerDef), property);
+		}
+		return null;
+	}
+
+	private void visitEnum(JsonFormatVisitorWrapper visitor, JavaType type, SerializationConfig config,
+			JsonFormat.Value format) throws JsonMappingException {
+		if (format == null || !format.hasShape()) {
+			format = config.introspectClassAnnotations(type).findExpectedFormat(null);
+		}
+		JsonFormat.Shape shape = format == null ? null : format.getShape();
+		if (shape == JsonFormat.Shape.OBJECT) {
+			visitBean(visitor, type, config);
+		} else if (shape != null && shape.isNumeric()) {
+			visitor.expectIntegerFormat(type);
+		} else if (shape != JsonFormat.Shape.STRING && config.isEnabled(SerializationFeature.WRITE_ENUMS_USING_INDEX)) {
+			visitor.expectIntegerFormat(type);
+		} else {
+			visitor.expectStringFormat(type);
+		}
+	}
+
+	private void visitDate(JsonFormatVisitorWrapper visitor, JavaType type, SerializerProvider provider,
+			JsonFormat.Value format) throws JsonMappingException {
+		boolean timestamp;
+		if (format != null && format.hasShape() && format.getShape().isNumeric()) {
+			timestamp = true;
+		} else if (format != null && (format.getShape() == JsonFormat.Shape.STRING || format.hasPattern()
+				|| format.hasLocale() || format.hasTimeZone())) {
+			timestamp = false;
+		} else {
+			// java.sql.Date is written as a string unless told otherwise
+			timestamp = type.getRawClass() != java.sql.Date.class
+					&& provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		}
+		if (timestamp) {
+			visitor.expectIntegerFormat(type);
+		} else {
+			visitor.expectStringFormat(type);
+		}
+	}
+
+	private void visitArray(JsonFormatVisitorWrapper visitor, JavaType type, JavaType elementType)
+			throws JsonMappingException {
+		JsonArrayFormatVisitor arrayVisitor = visitor.expectArrayFormat(type);
+		if (arrayVisitor == null) {
+			return;
+		}
+		Class<?> elementClass = elementType.getRawClass();
+		if (elementClass == byte.class || elementClass == char.class || elementClass == String.class) {
+			arrayVisitor.itemsFormat(JsonFormatTypes.STRING);
+		} else if (elementClass == boolean.class) {
+			arrayVisitor.itemsFormat(JsonFormatTypes.BOOLEAN);
+		} else if (elementClass == float.class || elementClass == double.class) {
+			arrayVisitor.itemsFormat(JsonFormatTypes.NUMBER);
+		} else if (elementClass.isPrimitive()) {
+			arrayVisitor.itemsFormat(JsonFormatTypes.INTEGER);
+		} else {
+			arrayVisitor.itemsFormat(forProperty(null), elementType);
+		}
+	}
+
+	private void visitMap(JsonFormatVisitorWrapper visitor, JavaType type, SerializationConfig config)
+			throws JsonMappingException {
+		JsonMapFormatVisitor mapVisitor = visitor.expectMapFormat(type);
+		if (mapVisitor == null) {
+			return;
+		}
+		JavaType keyType = type.getKeyType();
+		if (keyType.getRawClass() != Object.class && !keyType.isEnumType()) {
+			// keys are written as JSON strings
+			keyType = config.getTypeFactory().constructType(String.class);
+		}
+		BeanDescriptionHandler handler = forProperty(null);
+		mapVisitor.keyFormat(handler, keyType);
+		mapVisitor.valueFormat(handler, type.getContentType());
+	}
+
+	private void visitBean(JsonFormatVisitorWrapper visitor, JavaType type, SerializationConfig config)
+			throws JsonMappingException {
+		BeanDescription description = config.introspect(type);
+		AnnotatedMethod valueMethod = description.findJsonValueMethod();
+		if (valueMethod != null) {
+			forProperty(null).acceptJsonFormatVisitor(visitor, valueMethod.getType(description.bindingsForBeanType()));
+			return;
+		}
+		JsonObjectFormatVisitor objectVisitor = visitor.expectObjectFormat(type);
+		if (objectVisitor != null) {
+			visitProperties(objectVisitor, description, config, NameTransformer.NOP);
+		}
+	}
+
+	/** Mirrors the properties BeanSerializerFactory would create writers for */
+	private void visitProperties(JsonObjectFormatVisitor objectVisitor, BeanDescription description,
+			SerializationConfig config, NameTransformer nameTransformer) throws JsonMappingException {
+		AnnotationIntrospector introspector = config.getAnnotationIntrospector();
+		String[] ignored = introspector.findPropertiesToIgnore(description.getClassInfo(), true);
+		for (BeanPropertyDefinition definition : description.findProperties()) {
+			AnnotatedMember accessor = definition.getAccessor();
+			if (accessor == null || definition.isTypeId()) {
+				continue;
+			}
+			ReferenceProperty reference = definition.findReferenceType();
+			if (reference != null && reference.isBackReference()) {
+				continue;
+			}
+			if (ignored != null && Arrays.asList(ignored).contains(definition.getName())) {
+				continue;
+			}
+			JavaType propertyType = accessor.getType(description.bindingsForBeanType());
+			if (isIgnorableType(config, propertyType)) {
+				continue;
+			}
+			NameTransformer unwrapper = introspector.findUnwrappingNameTransformer(accessor);
+			if (unwrapper != null) {
+				visitProperties(objectVisitor, config.introspect(propertyType), config,
+						NameTransformer.chainedTransformer(nameTransformer, unwrapper));
+				continue;
+			}
+			BeanProperty beanProperty = new BeanProperty.Std(PropertyName.construct(nameTransformer
+					.transform(definition.getName())), propertyType, definition.getWrapperName(),
+					description.getClassAnnotations(), accessor, definition.getMetadata());
+			if (definition.isRequired()) {
+				objectVisitor.property(beanProperty);
+			} else {
+				objectVisitor.optionalProperty(beanProperty);
+			}
+		}
+	}
+
+	private boolean isIgnorableType(SerializationConfig config, JavaType type) {
+		Class<?> rawClass = type.getRawClass();
+		Boolean ignorable = ignorableTypes.get(rawClass);
+		if (ignorable == null) {
+			ignorable = config.getAnnotationIntrospector().isIgnorableType(
+					config.introspectClassAnnotations(rawClass).getClassInfo());
+			if (ignorable == null) {
+				ignorable = Boolean.FALSE;
+			}
+			ignorableTypes.put(rawClass, ignorable);
+		}
+		return ignorable.booleanValue();
+	}
+
+	private static JavaType findElementType(SerializationConfig config, JavaType type, Class<?> container) {
+		JavaType[] parameters = config.getTypeFactory().findTypeParameters(type, container);
+		if (parameters == null || parameters.length != 1) {
+			return TypeFactory.unknownType();
+		}
+		return parameters[0];
+	}
+
+	/** JDK types can not carry Jackson annotations */
+	private static boolean isStandardType(Class<?> rawClass) {
+		String name = rawClass.getName();
+		return name.startsWith("java.") || name.startsWith("javax.");
+	}
+
+	private static boolean isSubtypeOfOneOf(Class<?> rawClass, Class<?>[] candidates) {
+		for (Class<?> candidate : candidates) {
+			if (candidate.isAssignableFrom(rawClass)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -40,6 +40,7 @@ public class TSJsonArrayFormatVisitor extends ABaseTSJsonFormatVisitor<ArrayType
 	public void itemsFormat(JsonFormatVisitable handler, JavaType elementType) throws JsonMappingException {
 		TSJsonFormatVisitorWrapper visitorWrapper = new TSJsonFormatVisitorWrapper(this, conf);
 		handler.acceptJsonFormatVisitor(visitorWrapper, elementType);
+		visitorWrapper.completeDefinition();
 		type.setItemType(visitorWrapper.getType());
 	}
 
@@ -15,6 +15,10 @@
  ******************************************************************************/
 package java2typescript.jackson.module.visitors;
 
+import java.util.Collections;
+import java.util.Map;
+
+import java2typescript.jackson.module.grammar.ClassType;
 import java2typescript.jackson.module.grammar.EnumType;
 import java2typescript.jackson.module.grammar.Module;
 import java2typescript.jackson.module.grammar.base.AbstractNamedType;
@@ -40,6 +44,9 @@ import java2typescript.jackson.module.Configuration;
 public class TSJsonFormatVisitorWrapper extends ABaseTSJsonFormatVisitor implements
 		JsonFormatVisitorWrapper {
 
+	/** Named type this wrapper registered, whose definition is complete once the visit is over */
+	private AbstractNamedType definedType;
+
 	public TSJsonFormatVisitorWrapper(ABaseTSJsonFormatVisitor parentHolder, Configuration conf) {
 		super(parentHolder, conf);
 	}
@@ -48,6 +55,10 @@ public class TSJsonFormatVisitorWrapper extends ABaseTSJsonFormatVisitor impleme
 		super(module, conf);
 	}
 
+	public TSJsonFormatVisitorWrapper(Module module, Map<JavaType, AbstractType> computedTypes, Configuration conf) {
+		super(module, computedTypes, conf);
+	}
+
 	private <T extends ABaseTSJsonFormatVisitor<?>> T setTypeAndReturn(T actualVisitor) {
 		type = actualVisitor.getType();
 		return actualVisitor;
@@ -60,21 +71,75 @@ public class TSJsonFormatVisitorWrapper extends ABaseTSJsonFormatVisitor impleme
 		AbstractType computedType = baseVisitor.getComputedTypes().get(typeHint);
 
 		if (computedType != null) {
+			if (conf.getGenerationListener() != null) {
+				conf.getGenerationListener().computedTypeHit(typeHint);
+			}
+			baseVisitor.fireTypeReferenced(computedType);
 			return computedType;
 		}
 		TSJsonFormatVisitorWrapper visitor = new TSJsonFormatVisitorWrapper(baseVisitor, conf);
 		handler.acceptJsonFormatVisitor(visitor, typeHint);
-		baseVisitor.getComputedTypes().put(typeHint, visitor.getType());
+		visitor.completeDefinition();
+		if (visitor.getType() != null) {
+			baseVisitor.getComputedTypes().put(typeHint, visitor.getType());
+		}
 		return visitor.getType();
 	}
 
+	/**
+	 * To be called once a handler visited this wrapper: reports the named type registered during the visit, if any, to
+	 * the definition listener of the configuration
+	 */
+	public void completeDefinition() {
+		AbstractNamedType type = definedType;
+		definedType = null;
+		TypeDefinitionListener listener = conf.getDefinitionListener();
+		if (type == null || listener == null) {
+			return;
+		}
+		if (type instanceof ClassType && conf.getTypeCache() != null) {
+			// before the listener possibly releases the definition
+			conf.getTypeCache().completed((ClassType) type, conf);
+		}
+		listener.typeDefined(type);
+	}
+
+	private void fireNamedTypeVisited(AbstractNamedType namedType) {
+		if (conf.getGenerationListener() != null) {
+			conf.getGenerationListener().namedTypeVisited(namedType);
+		}
+	}
+
+	private void fireNamedTypeHit(AbstractNamedType namedType) {
+		if (conf.getGenerationListener() != null) {
+			conf.getGenerationListener().namedTypeHit(namedType);
+		}
+	}
+
 	/** Either Java simple name or @JsonTypeName annotation */
 	public String getName(JavaType type) {
 		return conf.getNamingStrategy().getName(type);
 	}
 
+	/**
+	 * @return true if given type is only to be referenced by its name, as its class is neither a root class nor
+	 *         accepted by the class filter of the configuration
+	 */
+	private boolean referenceOnly(JavaType javaType) {
+		if (isDescribedClass(javaType.getRawClass())) {
+			return false;
+		}
+		// not registered in the module, nor reported as referenced
+		type = new ClassType(getName(javaType), javaType.getRawClass(), getModule().isSorted());
+		return true;
+	}
+
 	private TSJsonObjectFormatVisitor useNamedClassOrParse(JavaType javaType) {
 
+		if (referenceOnly(javaType)) {
+			return null;
+		}
+
 		String name = getName(javaType);
 
 		AbstractNamedType namedType = getModule().getNamedTypes().get(name);
@@ -82,14 +147,24 @@ public class TSJsonFormatVisitorWrapper extends ABaseTSJsonFormatVisitor impleme
 		if (namedType == null) {
 			TSJsonObjectFormatVisitor visitor = new TSJsonObjectFormatVisitor(this, name, javaType
 					.getRawClass(), conf);
-			type = visitor.getType();
-			getModule().getNamedTypes().put(visitor.getType().getName(), visitor.getType());
-			visitor.addPublicMethods();
-			return visitor;
-		} else {
-			type = namedType;
-			return null;
+			// Another visitor may have registered the same type concurrently
+			namedType = getModule().getNamedTypes().putIfAbsent(visitor.getType().getName(), visitor.getType());
+			if (namedType == null) {
+				type = visitor.getType();
+				definedType = visitor.getType();
+				fireNamedTypeVisited(definedType);
+				fireTypeReferenced(type);
+				if (visitor.restoreFromCache()) {
+					return null;
+				}
+				visitor.addPublicMethods();
+				return visitor;
+			}
 		}
+		fireNamedTypeHit(namedType);
+		type = namedType;
+		fireTypeReferenced(type);
+		return null;
 	}
 
 	public EnumType parseEnumOrGetFromCache(Module module, JavaType javaType) {
@@ -100,11 +175,20 @@ public class TSJsonFormatVisitorWrapper extends ABaseTSJsonFormatVisitor impleme
 			for (Object val : javaType.getRawClass().getEnumConstants()) {
 				enumType.getValues().add(((Enum<?>)val).name());
 			}
-			module.getNamedTypes().put(name, enumType);
-			return enumType;
-		} else {
-			return (EnumType) namedType;
+			if (module.isSorted()) {
+				Collections.sort(enumType.getValues());
+			}
+			namedType = module.getNamedTypes().putIfAbsent(name, enumType);
+			if (namedType == null) {
+				definedType = enumType;
+				fireNamedTypeVisited(enumType);
+				fireTypeReferenced(enumType);
+				return enumType;
+			}
 		}
+		fireNamedTypeHit((AbstractNamedType) namedType);
+		fireTypeReferenced(namedType);
+		return (EnumType) namedType;
 	}
 
 	@Override
@@ -120,7 +204,9 @@ public class TSJsonFormatVisitorWrapper extends ABaseTSJsonFormatVisitor impleme
 	@Override
 	public JsonStringFormatVisitor expectStringFormat(JavaType jType) throws JsonMappingException {
 		if (jType.getRawClass().isEnum()) {
-			type = parseEnumOrGetFromCache(getModule(), jType);
+			if (!referenceOnly(jType)) {
+				type = parseEnumOrGetFromCache(getModule(), jType);
+			}
 			return null;
 		} else {
 			return setTypeAndReturn(new TSJsonStringFormatVisitor(this, conf));
@@ -152,6 +238,13 @@ public class TSJsonFormatVisitorWrapper extends ABaseTSJsonFormatVisitor impleme
 		if ("java.lang.Object".equals(type.getRawClass().getName())) {
 			return setTypeAndReturn(new TSJsonAnyFormatVisitor(this, conf));
 		}
+		if (type.getRawClass().isEnum()) {
+			// for example enum used as a map key
+			if (!referenceOnly(type)) {
+				this.type = parseEnumOrGetFromCache(getModule(), type);
+			}
+			return null;
+		}
 		// probably just a class without fields/properties
 		useNamedClassOrParse(type);
 		return null;
@@ -16,20 +16,22 @@
 package java2typescript.jackson.module.visitors;
 
 import static com.fasterxml.jackson.databind.PropertyName.NO_NAME;
-import static java.lang.reflect.Modifier.isPublic;
 import static java2typescript.jackson.module.visitors.TSJsonFormatVisitorWrapper.getTSTypeForHandler;
 
-import java.beans.BeanInfo;
-import java.beans.Introspector;
-import java.beans.PropertyDescriptor;
-import java.beans.Transient;
 import java.lang.reflect.Method;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import java2typescript.jackson.module.cache.ClassIntrospectionCache.ClassInfo;
+import java2typescript.jackson.module.cache.TypeCache;
 import java2typescript.jackson.module.grammar.AnyType;
 import java2typescript.jackson.module.grammar.FunctionType;
 import java2typescript.jackson.module.grammar.ClassType;
 import java2typescript.jackson.module.grammar.VoidType;
+import java2typescript.jackson.module.grammar.base.AbstractNamedType;
 import java2typescript.jackson.module.grammar.base.AbstractType;
 
+import com.fasterxml.jackson.databind.AnnotationIntrospector;
 import com.fasterxml.jackson.databind.BeanProperty;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonMappingException;
@@ -43,7 +45,6 @@ import com.fasterxml.jackson.databind.jsonFormatVisitors.JsonFormatVisitable;
 import com.fasterxml.jackson.databind.jsonFormatVisitors.JsonObjectFormatVisitor;
 import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
 import com.fasterxml.jackson.databind.type.TypeBindings;
-import com.fasterxml.jackson.databind.type.TypeFactory;
 
 import java2typescript.jackson.module.Configuration;
 
@@ -51,45 +52,91 @@ public class TSJsonObjectFormatVisitor extends ABaseTSJsonFormatVisitor<ClassTyp
 
 	private Class clazz;
 
+	/** Classes this definition depends on, only collected when a type cache is used */
+	private final Set<Class<?>> dependencies;
+
 	public TSJsonObjectFormatVisitor(ABaseTSJsonFormatVisitor<?> parentHolder, String className, Class clazz, Configuration conf) {
 		super(parentHolder, conf);
-		type = new ClassType(className, clazz);
+		type = new ClassType(className, clazz, getModule().isSorted());
 		this.clazz = clazz;
+		if (conf.getTypeCache() != null) {
+			dependencies = new LinkedHashSet<Class<?>>();
+			addHierarchyDependencies(clazz);
+		} else {
+			dependencies = null;
+		}
+	}
+
+	@Override
+	protected AbstractNamedType getOwnerType() {
+		return type;
 	}
 
 	private void addField(String name, AbstractType fieldType) {
 		type.getFields().put(name, fieldType);
 	}
 
-	private boolean isAccessorMethod(Method method, BeanInfo beanInfo) {
-		for (PropertyDescriptor property : beanInfo.getPropertyDescriptors()) {
-			if (method.equals(property.getReadMethod())) {
-				return true;
+	/**
+	 * Fill the definition from the type cache instead of visiting the class, or register the class to be cached if
+	 * it is not
+	 *
+	 * @return true if the definition was restored from the cache
+	 */
+	boolean restoreFromCache() {
+		TypeCache cache = conf.getTypeCache();
+		if (cache == null) {
+			return false;
+		}
+		boolean restored = cache.restore(type, conf, new TypeCache.NamedTypeResolver() {
+			@Override
+			public AbstractType resolve(Class<?> clazz) {
+				// as referenced by a property without annotations, others are not cached
+				JavaType javaType = getProvider().getTypeFactory().constructType(clazz);
+				try {
+					return getTSTypeForHandler(TSJsonObjectFormatVisitor.this, findHandler(javaType, null), javaType,
+							conf);
+				} catch (JsonMappingException e) {
+					throw new RuntimeException(e);
+				}
 			}
-			if (method.equals(property.getWriteMethod())) {
-				return true;
+		});
+		if (!restored) {
+			cache.visited(type, dependencies);
+		}
+		return restored;
+	}
+
+	private void addHierarchyDependencies(Class<?> clazz) {
+		for (Class<?> current = clazz; current != null; current = current.getSuperclass()) {
+			dependencies.add(current);
+			for (Class<?> anInterface : current.getInterfaces()) {
+				addHierarchyDependencies(anInterface);
 			}
 		}
-		return false;
 	}
 
-	void addPublicMethods() {
+	private void addDependencies(JavaType javaType) {
+		if (dependencies == null || javaType == null) {
+			return;
+		}
+		Class<?> rawClass = javaType.getRawClass();
+		if (!rawClass.isPrimitive() && !rawClass.isArray()) {
+			dependencies.add(rawClass);
+		}
+		for (int i = 0; i < javaType.containedTypeCount(); i++) {
+			addDependencies(javaType.containedType(i));
+		}
+		addDependencies(javaType.getContentType());
+	}
 
-		for (Method method : this.clazz.getDeclaredMethods()) {
+	void addPublicMethods() {
 
-			// Only public
-			if (!isPublic(method.getModifiers())) {
-				continue;
-			}
+		ClassInfo classInfo = conf.getIntrospectionCache().get(clazz);
+		for (Method method : classInfo.getPublicDeclaredMethods()) {
 
 			// Exclude accessors
-			try {
-				BeanInfo beanInfo = Introspector.getBeanInfo(clazz);
-				if (isAccessorMethod(method, beanInfo)) {
-					continue;
-				}
-			} catch (Exception e) {
-				throw new RuntimeException(e);
+			if (classInfo.isAccessor(method)) {
+				continue;
 			}
 
 			if(conf.isIgnoredMethod(method)) {
@@ -102,7 +149,7 @@ public class TSJsonObjectFormatVisitor extends ABaseTSJsonFormatVisitor<ClassTyp
 
 	private AbstractType getTSTypeForClass(AnnotatedMember member) {
 
-		TypeBindings bindings = new TypeBindings(TypeFactory.defaultInstance(), member.getDeclaringClass());
+		TypeBindings bindings = new TypeBindings(getProvider().getTypeFactory(), member.getDeclaringClass());
 		JavaType javaType = member.getType(bindings);
 		if (javaType.getRawClass().getSimpleName().equals("Observable")) {
 			javaType = javaType.containedType(0);
@@ -140,6 +187,7 @@ public class TSJsonObjectFormatVisitor extends ABaseTSJsonFormatVisitor<ClassTyp
 	@Override
 	public void property(String name, JsonFormatVisitable handler, JavaType propertyTypeHint)
 			throws JsonMappingException {
+		addDependencies(propertyTypeHint);
 		addField(name, getTSTypeForHandler(this, handler, propertyTypeHint, conf));
 	}
 
@@ -152,6 +200,7 @@ public class TSJsonObjectFormatVisitor extends ABaseTSJsonFormatVisitor<ClassTyp
 	@Override
 	public void optionalProperty(String name, JsonFormatVisitable handler, JavaType propertyTypeHint)
 			throws JsonMappingException {
+		addDependencies(propertyTypeHint);
 		addField(name, getTSTypeForHandler(this, handler, propertyTypeHint, conf));
 	}
 
@@ -160,6 +209,11 @@ public class TSJsonObjectFormatVisitor extends ABaseTSJsonFormatVisitor<ClassTyp
 			throw new IllegalArgumentException("Null writer");
 		}
 		JavaType type = writer.getType();
+		addDependencies(type);
+		if (dependencies != null && hasSerializationAnnotations(writer)) {
+			// the definition could not be restored the same way
+			conf.getTypeCache().notCacheable(this.type);
+		}
 		if (type.getRawClass().equals(Void.TYPE)) {
 			return VoidType.getInstance();
 		}
@@ -170,13 +224,13 @@ public class TSJsonObjectFormatVisitor extends ABaseTSJsonFormatVisitor<ClassTyp
 		}
 
 		try {
-			JsonSerializer<Object> ser = getSer(writer);
+			JsonFormatVisitable handler = getHandler(writer);
 
-			if (ser != null) {
+			if (handler != null) {
 				if (type == null) {
 					throw new IllegalStateException("Missing type for property '" + writer.getName() + "'");
 				}
-				return getTSTypeForHandler(this, ser, type, conf);
+				return getTSTypeForHandler(this, handler, type, conf);
 			} else {
 				return AnyType.getInstance();
 			}
@@ -188,6 +242,35 @@ public class TSJsonObjectFormatVisitor extends ABaseTSJsonFormatVisitor<ClassTyp
 
 	}
 
+	/** @return true if given property has annotations changing how its type is serialized */
+	private boolean hasSerializationAnnotations(BeanProperty writer) {
+		AnnotatedMember member = writer.getMember();
+		AnnotationIntrospector introspector = getProvider().getAnnotationIntrospector();
+		if (member == null || introspector == null) {
+			return false;
+		}
+		JavaType type = writer.getType();
+		return introspector.findSerializer(member) != null || introspector.findKeySerializer(member) != null
+				|| introspector.findContentSerializer(member) != null
+				|| introspector.findNullSerializer(member) != null
+				|| introspector.findSerializationConverter(member) != null
+				|| introspector.findSerializationContentConverter(member) != null
+				|| introspector.findSerializationType(member) != null
+				|| introspector.findSerializationKeyType(member, type) != null
+				|| introspector.findSerializationContentType(member, type) != null
+				|| introspector.findFormat(member) != null
+				|| introspector.findPropertyTypeResolver(getProvider().getConfig(), member, type) != null;
+	}
+
+	/** Serializer of the property, or the introspection handler if any */
+	protected JsonFormatVisitable getHandler(BeanProperty writer) throws JsonMappingException {
+		BeanDescriptionHandler handler = getIntrospectionHandler();
+		if (handler != null) {
+			return handler.forProperty(writer);
+		}
+		return getSer(writer);
+	}
+
 	protected JsonSerializer<java.lang.Object> getSer(BeanProperty writer) throws JsonMappingException {
 		JsonSerializer<Object> ser = null;
 		if (writer instanceof BeanPropertyWriter) {
@@ -0,0 +1,16 @@
+package java2typescript.jackson.module.visitors;
+
+import java2typescript.jackson.module.grammar.base.AbstractNamedType;
+
+/**
+ * Notified when the definition of a named type is complete, i.e. once all its fields and methods were visited
+ */
+public interface TypeDefinitionListener {
+
+	/**
+	 * Called once per named type, possibly concurrently when root classes are visited in parallel. Types referenced
+	 * by the definition may not be complete yet.
+	 */
+	void typeDefined(AbstractNamedType type);
+
+}
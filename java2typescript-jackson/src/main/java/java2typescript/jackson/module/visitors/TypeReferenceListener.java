@@ -0,0 +1,19 @@
+package java2typescript.jackson.module.visitors;
+
+import java2typescript.jackson.module.grammar.base.AbstractNamedType;
+
+/**
+ * Notified each time a visitor resolves a reference to a named type, either by parsing it or by getting it from the
+ * module / computed types cache.
+ */
+public interface TypeReferenceListener {
+
+	/**
+	 * @param owner
+	 *            named type being visited when the reference was resolved, or null for root classes
+	 * @param referenced
+	 *            named type that was referenced
+	 */
+	void typeReferenced(AbstractNamedType owner, AbstractNamedType referenced);
+
+}
@@ -0,0 +1,214 @@
+package java2typescript.jackson.module.writer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Writes a generated file in UTF-8, whatever the platform charset, through a file channel and a direct byte buffer.
+ * Content goes to a temporary file next to the target, which replaces the target atomically on {@link #commit()}, so
+ * that readers (such as tsc --watch) never see a partially written file. Closing without committing discards the
+ * content, leaving the target untouched:
+ *
+ * <pre>
+ * AtomicFileWriter out = new AtomicFileWriter(file);
+ * try {
+ * 	moduleWriter.write(module, out);
+ * 	out.commit();
+ * } finally {
+ * 	out.close();
+ * }
+ * </pre>
+ *
+ * Not thread safe.
+ */
+public class AtomicFileWriter extends Writer {
+
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	private final File target;
+
+	private final Path tmpFile;
+
+	private final FileChannel channel;
+
+	private final ByteBuffer bytes;
+
+	private final CharBuffer chars;
+
+	private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+		.onMalformedInput(CodingErrorAction.REPLACE)
+		.onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+	private boolean closed;
+
+	public AtomicFileWriter(File target) throws IOException {
+		this(target, ByteBuffer.allocateDirect(DEFAULT_BUFFER_SIZE));
+	}
+
+	/**
+	 * @param buffer
+	 *            buffer of the bytes to write, which can be reused by the next file once this one is closed
+	 */
+	public AtomicFileWriter(File target, ByteBuffer buffer) throws IOException {
+		if (buffer.capacity() < 16) {
+			throw new IllegalArgumentException("buffer too small: " + buffer.capacity());
+		}
+		this.target = target.getAbsoluteFile();
+		File directory = this.target.getParentFile();
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Could not create directory " + directory);
+		}
+		// unlike Files.createTempFile, keeps the default permissions, which the target then gets
+		this.tmpFile = File.createTempFile("." + this.target.getName() + ".", ".tmp", directory).toPath();
+		this.channel = FileChannel.open(tmpFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		this.bytes = buffer;
+		this.bytes.clear();
+		// at most 3 bytes per char, so that encoding a full char buffer rarely needs several writes
+		this.chars = CharBuffer.allocate(Math.max(8, buffer.capacity() / 3));
+	}
+
+	public File getTarget() {
+		return target;
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		ensureOpen();
+		while (len > 0) {
+			int count = Math.min(len, chars.remaining());
+			chars.put(cbuf, off, count);
+			off += count;
+			len -= count;
+			if (!chars.hasRemaining()) {
+				encode(false);
+			}
+		}
+	}
+
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		ensureOpen();
+		while (len > 0) {
+			int count = Math.min(len, chars.remaining());
+			str.getChars(off, off + count, chars.array(), chars.arrayOffset() + chars.position());
+			chars.position(chars.position() + count);
+			off += count;
+			len -= count;
+			if (!chars.hasRemaining()) {
+				encode(false);
+			}
+		}
+	}
+
+	@Override
+	public void write(String str) throws IOException {
+		write(str, 0, str.length());
+	}
+
+	@Override
+	public void write(int c) throws IOException {
+		ensureOpen();
+		chars.put((char) c);
+		if (!chars.hasRemaining()) {
+			encode(false);
+		}
+	}
+
+	/** Write buffered content to the temporary file */
+	@Override
+	public void flush() throws IOException {
+		ensureOpen();
+		encode(false);
+		writeBytes();
+	}
+
+	/**
+	 * Replace the target with the written content, unless the target already has the same content, so that its
+	 * modification time is left untouched. Closes this writer.
+	 *
+	 * @return true if the target has been (re)written
+	 */
+	public boolean commit() throws IOException {
+		ensureOpen();
+		encode(true);
+		while (encoder.flush(bytes) == CoderResult.OVERFLOW) {
+			writeBytes();
+		}
+		writeBytes();
+		closed = true;
+		try {
+			channel.close();
+			if (sameContent(tmpFile, target.toPath())) {
+				Files.delete(tmpFile);
+				return false;
+			}
+			try {
+				Files.move(tmpFile, target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmpFile, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			return true;
+		} catch (IOException e) {
+			Files.deleteIfExists(tmpFile);
+			throw e;
+		}
+	}
+
+	/** Discard the written content if it has not been committed */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			channel.close();
+		} finally {
+			Files.deleteIfExists(tmpFile);
+		}
+	}
+
+	private void ensureOpen() throws IOException {
+		if (closed) {
+			throw new IOException("Writer of " + target + " is closed");
+		}
+	}
+
+	private void encode(boolean endOfInput) throws IOException {
+		chars.flip();
+		while (encoder.encode(chars, bytes, endOfInput) == CoderResult.OVERFLOW) {
+			writeBytes();
+		}
+		// keeps the high surrogate of a pair split between two writes
+		chars.compact();
+	}
+
+	private void writeBytes() throws IOException {
+		bytes.flip();
+		while (bytes.hasRemaining()) {
+			channel.write(bytes);
+		}
+		bytes.clear();
+	}
+
+	private static boolean sameContent(Path written, Path existing) throws IOException {
+		if (!Files.isRegularFile(existing) || Files.size(written) != Files.size(existing)) {
+			return false;
+		}
+		return Arrays.equals(Files.readAllBytes(written), Files.readAllBytes(existing));
+	}
+}
@@ -25,18 +25,29 @@ public class EnumTypeToEnumPatternWriter implements CustomAbstractTypeWriter {
 	public void writeDef(AbstractNamedType type, Writer writer, WriterPreferences preferences) throws IOException {
 		EnumType enumType = (EnumType) type;
 		String enumTypeName = enumType.getName();
-		writer.write(String.format("class %s extends EnumPatternBase {\n", enumTypeName));
+		writer.write("class ");
+		writer.write(enumTypeName);
+		writer.write(" extends EnumPatternBase {\n");
 		preferences.increaseIndentation();
 		List<String> enumConstants = enumType.getValues();
 		if(preferences.isSort()) {
-			enumConstants = SortUtil.sort(enumConstants);
+			enumConstants = SortUtil.sortedIfNeeded(enumConstants);
 		}
 		for (String value : enumConstants) {
-			writer.write(String.format(preferences.getIndentation() + "static %s = new %s('%s');\n", value, enumTypeName, value));
+			writer.write(preferences.getIndentation());
+			writer.write("static ");
+			writer.write(value);
+			writer.write(" = new ");
+			writer.write(enumTypeName);
+			writer.write("('");
+			writer.write(value);
+			writer.write("');\n");
 		}
-		writer.write(preferences.getIndentation() + "constructor(name:string){super(name);}\n");
+		writer.write(preferences.getIndentation());
+		writer.write("constructor(name:string){super(name);}\n");
 		preferences.decreaseIndention();
-		writer.write(preferences.getIndentation() + "}");
+		writer.write(preferences.getIndentation());
+		writer.write("}");
 	}
 
 }
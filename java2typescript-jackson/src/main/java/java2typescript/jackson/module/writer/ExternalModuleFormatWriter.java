@@ -2,25 +2,41 @@ package java2typescript.jackson.module.writer;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import java2typescript.jackson.module.grammar.EnumType;
 import java2typescript.jackson.module.grammar.Module;
 import java2typescript.jackson.module.grammar.base.AbstractNamedType;
 import java2typescript.jackson.module.grammar.base.AbstractType;
+import java2typescript.jackson.module.metrics.GenerationPhase;
+import java2typescript.jackson.module.metrics.PhaseTimer;
 
 /**
  * Generates TypeScript type definitions for given module in external module format
  */
 public class ExternalModuleFormatWriter implements ModuleWriter {
 
+	/** number of rendering tasks per thread of the rendering pool, to balance types of different sizes */
+	private static final int TASKS_PER_THREAD = 4;
+
+	/** maximum number of types rendered by a task, to keep buffers small */
+	private static final int MAX_TYPES_PER_TASK = 256;
+
 	public WriterPreferences preferences = new WriterPreferences();
 
 	@Override
 	public void write(Module module, Writer writer) throws IOException {
+		PhaseTimer timer = PhaseTimer.start();
 		writeModuleContent(module, writer);
 		writer.flush();
+		timer.report(preferences.getGenerationListener(), GenerationPhase.WRITE);
 	}
 
 	protected void writeModuleContent(Module module, Writer writer) throws IOException {
@@ -29,23 +45,140 @@ public class ExternalModuleFormatWriter implements ModuleWriter {
 		writeEnumPatternBaseClassIfNeeded(namedTypes, writer);
 
 		if (preferences.isSort()) {
-			namedTypes = SortUtil.sortByTypeName(namedTypes);
+			namedTypes = SortUtil.valuesSortedByKey(module.getNamedTypes());
 		}
-		for (AbstractNamedType type : namedTypes) {
-			writer.write(preferences.getIndentation() + "export ");
-			type.writeDef(writer, preferences);
-			writer.write("\n\n");
+		ForkJoinPool renderingPool = preferences.getRenderingPool();
+		if (renderingPool != null && renderingPool.getParallelism() > 1) {
+			writeNamedTypesInParallel(namedTypes, writer);
+		} else {
+			for (AbstractNamedType type : namedTypes) {
+				writeNamedType(type, writer);
+			}
 		}
 
-		if (preferences.isSort()) {
-			namedTypes = SortUtil.sortByTypeName(namedTypes);
+		writeVars(module, writer);
+	}
+
+	protected void writeNamedType(AbstractNamedType type, Writer writer) throws IOException {
+		writeNamedType(type, writer, preferences);
+	}
+
+	protected void writeNamedType(AbstractNamedType type, Writer writer, WriterPreferences preferences)
+			throws IOException {
+		writer.write(preferences.getIndentation());
+		writer.write("export ");
+		type.writeDef(writer, preferences);
+		writer.write("\n\n");
+	}
+
+	/**
+	 * Render consecutive types into separate buffers concurrently, each with its own indentation state, and write the
+	 * buffers in order as soon as they are complete
+	 */
+	private void writeNamedTypesInParallel(Collection<AbstractNamedType> namedTypes, Writer writer) throws IOException {
+		ForkJoinPool pool = preferences.getRenderingPool();
+		final List<AbstractNamedType> types = new ArrayList<AbstractNamedType>(namedTypes);
+		int chunkSize = Math.max(1,
+				Math.min(MAX_TYPES_PER_TASK, types.size() / (pool.getParallelism() * TASKS_PER_THREAD)));
+
+		List<Future<RenderBuffer>> rendered = new ArrayList<Future<RenderBuffer>>();
+		for (int start = 0; start < types.size(); start += chunkSize) {
+			final List<AbstractNamedType> chunk = types.subList(start, Math.min(types.size(), start + chunkSize));
+			final WriterPreferences taskPreferences = preferences.copy();
+			rendered.add(pool.submit(new Callable<RenderBuffer>() {
+				@Override
+				public RenderBuffer call() throws IOException {
+					RenderBuffer buffer = new RenderBuffer();
+					for (AbstractNamedType type : chunk) {
+						writeNamedType(type, buffer, taskPreferences);
+					}
+					return buffer;
+				}
+			}));
+		}
+		try {
+			char[] copyBuffer = new char[8192];
+			for (Future<RenderBuffer> chunk : rendered) {
+				getResult(chunk).writeTo(writer, copyBuffer);
+			}
+		} finally {
+			for (Future<RenderBuffer> chunk : rendered) {
+				chunk.cancel(false);
+			}
+		}
+	}
+
+	/** Unlike {@link java.io.StringWriter}, not synchronized as only used by one rendering task */
+	private static class RenderBuffer extends Writer {
+
+		private final StringBuilder buffer = new StringBuilder();
+
+		@Override
+		public void write(char[] cbuf, int off, int len) {
+			buffer.append(cbuf, off, len);
 		}
+
+		@Override
+		public void write(String str) {
+			buffer.append(str);
+		}
+
+		@Override
+		public void write(String str, int off, int len) {
+			buffer.append(str, off, off + len);
+		}
+
+		@Override
+		public void write(int c) {
+			buffer.append((char) c);
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+
+		/** Write the content of this buffer through given array, instead of copying it to a string */
+		void writeTo(Writer writer, char[] copyBuffer) throws IOException {
+			for (int start = 0; start < buffer.length(); start += copyBuffer.length) {
+				int end = Math.min(buffer.length(), start + copyBuffer.length);
+				buffer.getChars(start, end, copyBuffer, 0);
+				writer.write(copyBuffer, 0, end - start);
+			}
+		}
+	}
+
+	private static <T> T getResult(Future<T> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new RuntimeException(cause);
+		}
+	}
+
+	protected void writeVars(Module module, Writer writer) throws IOException {
 		Collection<Entry<String, AbstractType>> entrySet = module.getVars().entrySet();
 		if (preferences.isSort()) {
-			entrySet = SortUtil.sortEntriesByKey(entrySet);
+			entrySet = SortUtil.entriesSortedByKey(module.getVars());
 		}
 		for (Entry<String, AbstractType> entry : entrySet) {
-			writer.write(preferences.getIndentation() + "export var " + entry.getKey() + ": ");
+			writer.write(preferences.getIndentation());
+			writer.write("export var ");
+			writer.write(entry.getKey());
+			writer.write(": ");
 			entry.getValue().write(writer);
 			writer.write(";\n");
 		}
@@ -67,7 +200,7 @@ public class ExternalModuleFormatWriter implements ModuleWriter {
 		return false;
 	}
 
-	private void writeBaseEnum(Writer writer) throws IOException {
+	protected void writeBaseEnum(Writer writer) throws IOException {
 		writer.write(preferences.getIndentation() + "/** base class for implementing enums with Typesafe Enum Pattern " +
 			"(to be able to use enum names, instead of ordinal values, in a type-safe manner) */\n");
 		writer.write(preferences.getIndentation() + "export class EnumPatternBase {\n");
@@ -6,6 +6,8 @@ import java.io.IOException;
 import java.io.Writer;
 
 import java2typescript.jackson.module.grammar.Module;
+import java2typescript.jackson.module.metrics.GenerationPhase;
+import java2typescript.jackson.module.metrics.PhaseTimer;
 
 /**
  * Generates TypeScript type definitions for given module in internal module format
@@ -14,12 +16,14 @@ public class InternalModuleFormatWriter extends ExternalModuleFormatWriter {
 
 	@Override
 	public void write(Module module, Writer writer) throws IOException {
+		PhaseTimer timer = PhaseTimer.start();
 		writer.write(format("export module %s {\n\n", module.getName()));
 		preferences.increaseIndentation();
 		writeModuleContent(module, writer);
 		preferences.decreaseIndention();
 		writer.write("}\n");
 		writer.flush();
+		timer.report(preferences.getGenerationListener(), GenerationPhase.WRITE);
 	}
 
 }
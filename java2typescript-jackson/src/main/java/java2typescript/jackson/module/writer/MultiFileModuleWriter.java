@@ -0,0 +1,268 @@
+package java2typescript.jackson.module.writer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import java2typescript.jackson.module.grammar.EnumType;
+import java2typescript.jackson.module.grammar.Module;
+import java2typescript.jackson.module.grammar.base.AbstractNamedType;
+import java2typescript.jackson.module.grammar.base.AbstractType;
+import java2typescript.jackson.module.metrics.GenerationPhase;
+import java2typescript.jackson.module.metrics.PhaseTimer;
+
+/**
+ * Writes TypeScript type definitions of given module in external module format, split in one file per group of types
+ * (by default per Java package) importing the types they reference from the other files, plus an index file
+ * re-exporting all of them. Files whose content did not change are not rewritten, so that tools watching the output
+ * only see the files actually affected by a change.
+ */
+public class MultiFileModuleWriter {
+
+	public static final String EXTENSION = ".d.ts";
+
+	public static final String INDEX_FILE = "index" + EXTENSION;
+
+	public static final String ENUM_PATTERN_BASE_GROUP = "EnumPatternBase";
+
+	private final ExternalModuleFormatWriter format;
+
+	private TypeGrouping grouping = new PackageTypeGrouping();
+
+	private String fileHeader = "";
+
+	public MultiFileModuleWriter() {
+		this(new ExternalModuleFormatWriter());
+	}
+
+	/**
+	 * @param format
+	 *            writer of the definitions of each file, its preferences are used for all files
+	 */
+	public MultiFileModuleWriter(ExternalModuleFormatWriter format) {
+		this.format = format;
+	}
+
+	public WriterPreferences getPreferences() {
+		return format.preferences;
+	}
+
+	public void setGrouping(TypeGrouping grouping) {
+		this.grouping = grouping;
+	}
+
+	/** @param fileHeader text written at the beginning of each file, for example imports of external libraries */
+	public void setFileHeader(String fileHeader) {
+		this.fileHeader = fileHeader;
+	}
+
+	/**
+	 * Write the files of given module to given directory, leaving files whose content did not change untouched.
+	 * Files written by previous runs for groups that no longer exist are not deleted.
+	 * 
+	 * @return files that were (re)written
+	 */
+	public List<File> write(Module module, File directory) throws IOException {
+		return write(module, directory, null);
+	}
+
+	/**
+	 * Write the files of given module as {@link #write(Module, File)} does, once the module has been generated again
+	 * out of given previous module, written to the same directory: the files of the groups whose types are all the same
+	 * instances as in the previous module are neither rendered nor written again.
+	 * 
+	 * @param previous
+	 *            module previously written to given directory, or null to write all files
+	 * @return files that were (re)written
+	 */
+	public List<File> write(Module module, File directory, Module previous) throws IOException {
+		Map<String, String> files = render(module, previous);
+		PhaseTimer timer = PhaseTimer.start();
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Could not create directory " + directory);
+		}
+		List<File> written = new ArrayList<File>();
+		ByteBuffer buffer = ByteBuffer.allocateDirect(AtomicFileWriter.DEFAULT_BUFFER_SIZE);
+		for (Entry<String, String> entry : files.entrySet()) {
+			AtomicFileWriter out = new AtomicFileWriter(new File(directory, entry.getKey()), buffer);
+			try {
+				out.write(entry.getValue());
+				if (out.commit()) {
+					written.add(out.getTarget());
+				}
+			} finally {
+				out.close();
+			}
+		}
+		timer.report(getPreferences().getGenerationListener(), GenerationPhase.WRITE);
+		return written;
+	}
+
+	/** @return content of each file by file name, the index file last */
+	public Map<String, String> render(Module module) throws IOException {
+		return render(module, null);
+	}
+
+	/** @return content of each file by file name, the index file last, without the unchanged groups */
+	private Map<String, String> render(Module module, Module previous) throws IOException {
+		PhaseTimer timer = PhaseTimer.start();
+		Map<String, AbstractNamedType> namedTypes = module.getNamedTypes();
+		ReferencedTypes referencedTypes = new ReferencedTypes(namedTypes);
+
+		Map<String, String> groupByType = new LinkedHashMap<String, String>();
+		Map<String, Collection<AbstractNamedType>> typesByGroup = groupTypes(module, groupByType);
+		boolean hasEnum = false;
+		for (AbstractNamedType type : namedTypes.values()) {
+			hasEnum |= type instanceof EnumType;
+		}
+		boolean writeEnumPatternBase = hasEnum && getPreferences().isUseEnumPattern();
+		Map<String, Collection<AbstractNamedType>> previousTypesByGroup = previous == null ? null
+				: groupTypes(previous, new LinkedHashMap<String, String>());
+
+		Map<String, String> files = new LinkedHashMap<String, String>();
+		List<String> fileNames = new ArrayList<String>();
+		if (writeEnumPatternBase) {
+			StringWriter writer = startFile();
+			format.writeBaseEnum(writer);
+			files.put(ENUM_PATTERN_BASE_GROUP + EXTENSION, writer.toString());
+			fileNames.add(ENUM_PATTERN_BASE_GROUP + EXTENSION);
+			groupByType.put(ENUM_PATTERN_BASE_GROUP, ENUM_PATTERN_BASE_GROUP);
+		}
+		for (Entry<String, Collection<AbstractNamedType>> group : typesByGroup.entrySet()) {
+			fileNames.add(group.getKey() + EXTENSION);
+			Collection<AbstractNamedType> groupTypes = group.getValue();
+			if (previousTypesByGroup != null && sameTypes(groupTypes, previousTypesByGroup.get(group.getKey()))) {
+				continue;
+			}
+			if (getPreferences().isSort() && !SortUtil.isSortedByKey(namedTypes)) {
+				groupTypes = SortUtil.sortByTypeName(groupTypes);
+			}
+			Set<String> referenced = new TreeSet<String>();
+			for (AbstractNamedType type : groupTypes) {
+				referencedTypes.collectFromDefinition(type, referenced);
+				if (writeEnumPatternBase && type instanceof EnumType) {
+					referenced.add(ENUM_PATTERN_BASE_GROUP);
+				}
+			}
+			StringWriter writer = startFile();
+			writeImports(writer, referenced, groupByType, group.getKey());
+			for (AbstractNamedType type : groupTypes) {
+				format.writeNamedType(type, writer);
+			}
+			files.put(group.getKey() + EXTENSION, writer.toString());
+		}
+		files.put(INDEX_FILE, renderIndex(module, fileNames, referencedTypes, groupByType));
+		timer.report(getPreferences().getGenerationListener(), GenerationPhase.WRITE);
+		return files;
+	}
+
+	/**
+	 * @param groupByType
+	 *            filled with the group of each type, by type name
+	 * @return types of given module by group, sorted by group
+	 */
+	private Map<String, Collection<AbstractNamedType>> groupTypes(Module module, Map<String, String> groupByType) {
+		Map<String, Collection<AbstractNamedType>> typesByGroup = new TreeMap<String, Collection<AbstractNamedType>>();
+		for (AbstractNamedType type : module.getNamedTypes().values()) {
+			String group = getGroup(module, type);
+			groupByType.put(type.getName(), group);
+			Collection<AbstractNamedType> groupTypes = typesByGroup.get(group);
+			if (groupTypes == null) {
+				groupTypes = new ArrayList<AbstractNamedType>();
+				typesByGroup.put(group, groupTypes);
+			}
+			groupTypes.add(type);
+		}
+		return typesByGroup;
+	}
+
+	/** @return true if both groups have the same type instances, in any order */
+	private static boolean sameTypes(Collection<AbstractNamedType> types, Collection<AbstractNamedType> previousTypes) {
+		if (previousTypes == null || previousTypes.size() != types.size()) {
+			return false;
+		}
+		Set<AbstractNamedType> previousSet = Collections
+				.newSetFromMap(new IdentityHashMap<AbstractNamedType, Boolean>());
+		previousSet.addAll(previousTypes);
+		return previousSet.containsAll(types);
+	}
+
+	private String renderIndex(Module module, Collection<String> fileNames, ReferencedTypes referencedTypes,
+			Map<String, String> groupByType) throws IOException {
+		StringWriter writer = startFile();
+		for (String fileName : fileNames) {
+			writer.write("export * from './");
+			writer.write(fileName.substring(0, fileName.length() - EXTENSION.length()));
+			writer.write("';\n");
+		}
+		if (!module.getVars().isEmpty()) {
+			Set<String> referenced = new TreeSet<String>();
+			for (AbstractType varType : module.getVars().values()) {
+				referencedTypes.collect(varType, referenced);
+			}
+			writer.write("\n");
+			writeImports(writer, referenced, groupByType, null);
+			format.writeVars(module, writer);
+		}
+		return writer.toString();
+	}
+
+	private String getGroup(Module module, AbstractNamedType type) {
+		String group = grouping.getGroup(type);
+		return group == null || group.isEmpty() ? module.getName() : group;
+	}
+
+	private StringWriter startFile() {
+		StringWriter writer = new StringWriter();
+		writer.write(fileHeader);
+		return writer;
+	}
+
+	/** Write imports of the referenced types defined in other groups than the given one */
+	private void writeImports(Writer writer, Set<String> referenced, Map<String, String> groupByType, String group)
+			throws IOException {
+		Map<String, List<String>> importsByGroup = new TreeMap<String, List<String>>();
+		for (String typeName : referenced) {
+			String typeGroup = groupByType.get(typeName);
+			if (typeGroup == null || typeGroup.equals(group)) {
+				continue;
+			}
+			List<String> imports = importsByGroup.get(typeGroup);
+			if (imports == null) {
+				imports = new ArrayList<String>();
+				importsByGroup.put(typeGroup, imports);
+			}
+			imports.add(typeName);
+		}
+		for (Entry<String, List<String>> imports : importsByGroup.entrySet()) {
+			writer.write("import { ");
+			boolean first = true;
+			for (String typeName : imports.getValue()) {
+				if (!first) {
+					writer.write(", ");
+				}
+				writer.write(typeName);
+				first = false;
+			}
+			writer.write(" } from './");
+			writer.write(imports.getKey());
+			writer.write("';\n");
+		}
+		if (!importsByGroup.isEmpty()) {
+			writer.write("\n");
+		}
+	}
+}
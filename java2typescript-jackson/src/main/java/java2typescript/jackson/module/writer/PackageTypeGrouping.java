@@ -0,0 +1,21 @@
+package java2typescript.jackson.module.writer;
+
+import java2typescript.jackson.module.grammar.base.AbstractNamedType;
+
+/** Groups types by the package of their Java class */
+public class PackageTypeGrouping implements TypeGrouping {
+
+	@Override
+	public String getGroup(AbstractNamedType type) {
+		Class<?> javaClass = type.getJavaClass();
+		if (javaClass == null) {
+			return null;
+		}
+		while (javaClass.isArray()) {
+			javaClass = javaClass.getComponentType();
+		}
+		String className = javaClass.getName();
+		int lastDot = className.lastIndexOf('.');
+		return lastDot < 0 ? null : className.substring(0, lastDot);
+	}
+}
@@ -0,0 +1,79 @@
+package java2typescript.jackson.module.writer;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collection;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import java2typescript.jackson.module.grammar.ArrayType;
+import java2typescript.jackson.module.grammar.ClassType;
+import java2typescript.jackson.module.grammar.FunctionType;
+import java2typescript.jackson.module.grammar.MapType;
+import java2typescript.jackson.module.grammar.StaticClassType;
+import java2typescript.jackson.module.grammar.base.AbstractNamedType;
+import java2typescript.jackson.module.grammar.base.AbstractPrimitiveType;
+import java2typescript.jackson.module.grammar.base.AbstractType;
+import java2typescript.jackson.module.grammar.base.Value;
+
+/** Finds the named types referenced by definitions, to import them from other files */
+class ReferencedTypes {
+
+	private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_$][A-Za-z0-9_$]*");
+
+	private final Map<String, AbstractNamedType> namedTypes;
+
+	/**
+	 * @param namedTypes
+	 *            types that can be referenced, by name
+	 */
+	ReferencedTypes(Map<String, AbstractNamedType> namedTypes) {
+		this.namedTypes = namedTypes;
+	}
+
+	/** Add names of the types referenced by the definition of given type */
+	void collectFromDefinition(AbstractNamedType type, Collection<String> names) throws IOException {
+		if (type instanceof ClassType) {
+			ClassType classType = (ClassType) type;
+			for (AbstractType fieldType : classType.getFields().values()) {
+				collect(fieldType, names);
+			}
+			for (FunctionType method : classType.getMethods().values()) {
+				collect(method, names);
+			}
+		} else if (type instanceof StaticClassType) {
+			for (Value value : ((StaticClassType) type).getStaticFields().values()) {
+				collect(value.getType(), names);
+			}
+		}
+	}
+
+	/** Add names of the types referenced by given type */
+	void collect(AbstractType type, Collection<String> names) throws IOException {
+		if (type instanceof AbstractNamedType) {
+			names.add(((AbstractNamedType) type).getName());
+		} else if (type instanceof ArrayType) {
+			collect(((ArrayType) type).getItemType(), names);
+		} else if (type instanceof MapType) {
+			collect(((MapType) type).getKeyType(), names);
+			collect(((MapType) type).getValueType(), names);
+		} else if (type instanceof FunctionType) {
+			FunctionType function = (FunctionType) type;
+			for (AbstractType parameter : function.getParameters().values()) {
+				collect(parameter, names);
+			}
+			collect(function.getResultType(), names);
+		} else if (type != null && !(type instanceof AbstractPrimitiveType)) {
+			// custom type: only its written form is known
+			StringWriter written = new StringWriter();
+			type.write(written);
+			Matcher identifiers = IDENTIFIER.matcher(written.toString());
+			while (identifiers.find()) {
+				if (namedTypes.containsKey(identifiers.group())) {
+					names.add(identifiers.group());
+				}
+			}
+		}
+	}
+}
@@ -5,7 +5,9 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.SortedMap;
 
 import java2typescript.jackson.module.grammar.base.AbstractNamedType;
 
@@ -38,4 +40,42 @@ public class SortUtil {
 		Collections.sort(list);
 		return list;
 	}
+
+	/** @return true if given map already iterates in the natural order of its keys, as in a sorted module */
+	public static boolean isSortedByKey(Map<String, ?> map) {
+		return map instanceof SortedMap && ((SortedMap<String, ?>) map).comparator() == null;
+	}
+
+	/** @return values of given map ordered by key, without copying them if the map is already sorted */
+	public static <V> Collection<V> valuesSortedByKey(Map<String, V> map) {
+		if (isSortedByKey(map)) {
+			return map.values();
+		}
+		List<Entry<String, V>> entries = sortEntriesByKey(map.entrySet());
+		List<V> values = new ArrayList<V>(entries.size());
+		for (Entry<String, V> entry : entries) {
+			values.add(entry.getValue());
+		}
+		return values;
+	}
+
+	/** @return entries of given map ordered by key, without copying them if the map is already sorted */
+	public static <V> Collection<Entry<String, V>> entriesSortedByKey(Map<String, V> map) {
+		return isSortedByKey(map) ? map.entrySet() : sortEntriesByKey(map.entrySet());
+	}
+
+	/** @return keys of given map in order, without copying them if the map is already sorted */
+	public static Collection<String> keysSorted(Map<String, ?> map) {
+		return isSortedByKey(map) ? map.keySet() : sort(map.keySet());
+	}
+
+	/** @return given list if it is already in order (checked in linear time), a sorted copy otherwise */
+	public static List<String> sortedIfNeeded(List<String> list) {
+		for (int i = 1; i < list.size(); i++) {
+			if (list.get(i - 1).compareTo(list.get(i)) > 0) {
+				return sort(list);
+			}
+		}
+		return list;
+	}
 }
@@ -0,0 +1,86 @@
+package java2typescript.jackson.module.writer;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.Set;
+
+import java2typescript.jackson.module.Configuration;
+import java2typescript.jackson.module.grammar.ClassType;
+import java2typescript.jackson.module.grammar.EnumType;
+import java2typescript.jackson.module.grammar.Module;
+import java2typescript.jackson.module.grammar.base.AbstractNamedType;
+import java2typescript.jackson.module.visitors.TypeDefinitionListener;
+
+/**
+ * Writes named types in external module format as soon as their definition is complete, instead of once the whole
+ * module is generated, then drops their fields, methods and enum values: the module only keeps the names needed by the
+ * types referencing them. Peak memory is then bounded by the types being visited rather than by the whole model.
+ * <p>
+ * Usage: register it with {@link Configuration#setDefinitionListener}, generate the module, then call
+ * {@link #finish(Module)}. Types are written in the order their definitions complete, so sorting is not supported.
+ */
+public class StreamingModuleWriter implements TypeDefinitionListener {
+
+	private final ExternalModuleFormatWriter format = new ExternalModuleFormatWriter();
+
+	private final Writer writer;
+
+	private boolean enumPatternBaseWritten;
+
+	private final Set<String> writtenTypes = new HashSet<String>();
+
+	public StreamingModuleWriter(Writer writer) {
+		this.writer = writer;
+	}
+
+	public WriterPreferences getPreferences() {
+		return format.preferences;
+	}
+
+	@Override
+	public synchronized void typeDefined(AbstractNamedType type) {
+		if (format.preferences.isSort()) {
+			throw new IllegalStateException("Sorted output is not supported when streaming types");
+		}
+		try {
+			if (type instanceof EnumType && format.preferences.isUseEnumPattern() && !enumPatternBaseWritten) {
+				format.writeBaseEnum(writer);
+				writer.write("\n");
+				enumPatternBaseWritten = true;
+			}
+			format.writeNamedType(type, writer);
+		} catch (IOException e) {
+			throw new RuntimeException("Failed to write definition of " + type.getName(), e);
+		}
+		release(type);
+		writtenTypes.add(type.getName());
+	}
+
+	/**
+	 * Write the types added to the module without being reported to this listener (such as the ones of
+	 * {@link java2typescript.jackson.module.StaticFieldExporter}), then the variables of the module
+	 */
+	public synchronized void finish(Module module) throws IOException {
+		for (AbstractNamedType type : module.getNamedTypes().values()) {
+			if (!writtenTypes.contains(type.getName())) {
+				typeDefined(type);
+			}
+		}
+		format.writeVars(module, writer);
+		writer.flush();
+	}
+
+	public synchronized int getWrittenTypes() {
+		return writtenTypes.size();
+	}
+
+	private static void release(AbstractNamedType type) {
+		if (type instanceof ClassType) {
+			((ClassType) type).getFields().clear();
+			((ClassType) type).getMethods().clear();
+		} else if (type instanceof EnumType) {
+			((EnumType) type).getValues().clear();
+		}
+	}
+}
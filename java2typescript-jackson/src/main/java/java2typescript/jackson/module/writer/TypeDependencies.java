@@ -0,0 +1,97 @@
+package java2typescript.jackson.module.writer;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import java2typescript.jackson.module.grammar.Module;
+import java2typescript.jackson.module.grammar.base.AbstractNamedType;
+
+/**
+ * Dependency graph of the named types of a module, by type name: the types referenced by the definition of each type
+ * (its fields, methods and static fields), and the other way round, the types referencing it. Used by
+ * {@link java2typescript.jackson.module.DefinitionGenerator#regenerateTypeScript} to find the types to generate again
+ * when some of them changed.
+ * <p>
+ * The graph is a snapshot of the module when it was created, it must be created again once the module changed.
+ */
+public class TypeDependencies {
+
+	private static final Set<String> NONE = Collections.emptySet();
+
+	private final Map<String, Set<String>> referenced = new HashMap<String, Set<String>>();
+
+	private final Map<String, Set<String>> referencing = new HashMap<String, Set<String>>();
+
+	public TypeDependencies(Module module) throws IOException {
+		Map<String, AbstractNamedType> namedTypes = module.getNamedTypes();
+		ReferencedTypes referencedTypes = new ReferencedTypes(namedTypes);
+		for (AbstractNamedType type : namedTypes.values()) {
+			String name = type.getName();
+			Set<String> names = new TreeSet<String>();
+			referencedTypes.collectFromDefinition(type, names);
+			names.remove(name);
+			referenced.put(name, names);
+			for (String referencedName : names) {
+				Set<String> referencingNames = referencing.get(referencedName);
+				if (referencingNames == null) {
+					referencingNames = new TreeSet<String>();
+					referencing.put(referencedName, referencingNames);
+				}
+				referencingNames.add(name);
+			}
+		}
+	}
+
+	/** @return names of the types referenced by the definition of given type, sorted */
+	public Set<String> getReferencedTypes(String typeName) {
+		return unmodifiable(referenced.get(typeName));
+	}
+
+	/** @return names of the types whose definitions reference given type, sorted */
+	public Set<String> getReferencingTypes(String typeName) {
+		return unmodifiable(referencing.get(typeName));
+	}
+
+	/**
+	 * @return names of given types and of all the types referencing them, directly or not, sorted: the types that may
+	 *         be affected by a change of given types
+	 */
+	public Set<String> getDependentTypes(Collection<String> typeNames) {
+		return closure(typeNames, referencing);
+	}
+
+	/**
+	 * @return names of given types and of all the types they reference, directly or not, sorted: the types reached by
+	 *         the generation of given types
+	 */
+	public Set<String> getReachableTypes(Collection<String> typeNames) {
+		return closure(typeNames, referenced);
+	}
+
+	private static Set<String> closure(Collection<String> typeNames, Map<String, Set<String>> edges) {
+		Set<String> closure = new TreeSet<String>(typeNames);
+		Deque<String> pending = new ArrayDeque<String>(typeNames);
+		while (!pending.isEmpty()) {
+			Set<String> names = edges.get(pending.pop());
+			if (names != null) {
+				for (String name : names) {
+					if (closure.add(name)) {
+						pending.push(name);
+					}
+				}
+			}
+		}
+		return closure;
+	}
+
+	private static Set<String> unmodifiable(Set<String> names) {
+		return names == null ? NONE : Collections.unmodifiableSet(names);
+	}
+}
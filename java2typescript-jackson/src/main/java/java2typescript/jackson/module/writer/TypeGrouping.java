@@ -0,0 +1,14 @@
+package java2typescript.jackson.module.writer;
+
+import java2typescript.jackson.module.grammar.base.AbstractNamedType;
+
+/** Decides in which file {@link MultiFileModuleWriter} writes each named type */
+public interface TypeGrouping {
+
+	/**
+	 * @return name of the group (and file, without extension) of given type, or null to write it in the file named
+	 *         after the module
+	 */
+	String getGroup(AbstractNamedType type);
+
+}
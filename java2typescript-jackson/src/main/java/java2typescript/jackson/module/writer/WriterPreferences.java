@@ -3,18 +3,47 @@ package java2typescript.jackson.module.writer;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import java2typescript.jackson.module.grammar.base.AbstractNamedType;
+import java2typescript.jackson.module.metrics.GenerationListener;
 
 public class WriterPreferences {
 	private String indentationStep = "    ";
 	private int indentationLevel = 0;
+	/** indentation of each level used so far, to avoid building it for every written line */
+	private String[] indentations = { "" };
 
 	private List<CustomAbstractTypeWriter> customWriters = new ArrayList<CustomAbstractTypeWriter>();
 	private boolean useEnumPattern;
 	/** sort types and vars in output */
 	private boolean sort;
+	/** if not null, notified of the time spent writing */
+	private GenerationListener generationListener;
+	/** if not null, definitions of named types are rendered in parallel using this pool */
+	private ForkJoinPool renderingPool;
+
+	public WriterPreferences() {
+	}
+
+	/** Copy sharing everything but the indentation level, which each rendering task changes on its own */
+	private WriterPreferences(WriterPreferences preferences) {
+		this.indentationStep = preferences.indentationStep;
+		this.indentationLevel = preferences.indentationLevel;
+		// never modified in place, only replaced when grown
+		this.indentations = preferences.indentations;
+		this.customWriters = preferences.customWriters;
+		this.useEnumPattern = preferences.useEnumPattern;
+		this.sort = preferences.sort;
+		this.generationListener = preferences.generationListener;
+	}
+
+	/** @return preferences with the same settings and current indentation, to be used by another thread */
+	public WriterPreferences copy() {
+		return new WriterPreferences(this);
+	}
 	
 	public void useEnumPattern() {
 		addWriter(new EnumTypeToEnumPatternWriter());
@@ -33,6 +62,26 @@ public class WriterPreferences {
 		return sort;
 	}
 
+	public GenerationListener getGenerationListener() {
+		return generationListener;
+	}
+
+	public void setGenerationListener(GenerationListener generationListener) {
+		this.generationListener = generationListener;
+	}
+
+	public ForkJoinPool getRenderingPool() {
+		return renderingPool;
+	}
+
+	/**
+	 * Render definitions of named types in parallel using given pool (for example {@link ForkJoinPool#commonPool()}),
+	 * or sequentially if null. Output is the same in both modes, but custom writers must then be thread safe.
+	 */
+	public void setRenderingPool(ForkJoinPool renderingPool) {
+		this.renderingPool = renderingPool;
+	}
+
 	public void addWriter(CustomAbstractTypeWriter writer) {
 		this.customWriters.add(writer);
 	}
@@ -59,16 +108,22 @@ public class WriterPreferences {
 	}
 
 	public String getIndentation() {
-		StringBuilder sb = new StringBuilder();
-		int i = 0;
-		while (i++ < indentationLevel) {
-			sb.append(indentationStep);
+		if (indentationLevel <= 0) {
+			return "";
+		}
+		if (indentationLevel >= indentations.length) {
+			String[] grown = Arrays.copyOf(indentations, indentationLevel + 1);
+			for (int i = indentations.length; i < grown.length; i++) {
+				grown[i] = grown[i - 1] + indentationStep;
+			}
+			indentations = grown;
 		}
-		return sb.toString();
+		return indentations[indentationLevel];
 	}
 
 	public void setIndentationStep(String indentation) {
 		this.indentationStep = indentation;
+		this.indentations = new String[] { "" };
 	}
 
 	public void increaseIndentation() {
@@ -0,0 +1,84 @@
+package java2typescript.jackson.module;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java2typescript.jackson.module.grammar.Module;
+import java2typescript.jackson.module.util.TestUtil;
+import java2typescript.jackson.module.writer.AtomicFileWriter;
+
+public class AtomicFileWriterTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	static class Person {
+		public String name;
+	}
+
+	@Test
+	public void writesUtf8AcrossBufferBoundaries() throws IOException {
+		StringBuilder content = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			// 1, 2, 3 and 4 (surrogate pair) bytes per code point
+			content.append("a\u00e9\u20ac\ud83d\ude00");
+		}
+		File file = new File(folder.getRoot(), "out/content.d.ts");
+
+		// small buffers, so that characters and surrogate pairs are split between encodings
+		AtomicFileWriter out = new AtomicFileWriter(file, ByteBuffer.allocateDirect(17));
+		try {
+			for (int i = 0; i < content.length(); i += 7) {
+				out.write(content.toString(), i, Math.min(7, content.length() - i));
+			}
+			assertFalse(file.exists());
+			assertTrue(out.commit());
+		} finally {
+			out.close();
+		}
+
+		assertArrayEquals(content.toString().getBytes(StandardCharsets.UTF_8), Files.readAllBytes(file.toPath()));
+		assertEquals(1, file.getParentFile().list().length);
+	}
+
+	@Test
+	public void unchangedFileNotReplaced() throws IOException {
+		File file = new File(folder.getRoot(), "modName.d.ts");
+		Module module = TestUtil.createTestModule(null, Person.class);
+		assertTrue(module.write(file));
+		file.setLastModified(1000);
+
+		assertFalse(module.write(file));
+		assertEquals(1000, file.lastModified());
+		assertEquals(1, folder.getRoot().list().length);
+	}
+
+	@Test
+	public void uncommittedContentDiscarded() throws IOException {
+		File file = folder.newFile("modName.d.ts");
+		Files.write(file.toPath(), "previous".getBytes(StandardCharsets.UTF_8));
+
+		AtomicFileWriter out = new AtomicFileWriter(file);
+		try {
+			out.write("partial");
+			out.flush();
+		} finally {
+			out.close();
+		}
+
+		assertEquals("previous", new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+		assertEquals(1, folder.getRoot().list().length);
+	}
+}
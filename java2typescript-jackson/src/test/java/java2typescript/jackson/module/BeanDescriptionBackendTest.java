@@ -0,0 +1,112 @@
+package java2typescript.jackson.module;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonIgnoreType;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonTypeName;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java2typescript.jackson.module.conf.IntrospectionBackend;
+import java2typescript.jackson.module.grammar.Module;
+import java2typescript.jackson.module.util.ExpectedOutputChecker;
+import java2typescript.jackson.module.util.TestUtil;
+import java2typescript.jackson.module.writer.ExternalModuleFormatWriter;
+
+public class BeanDescriptionBackendTest {
+
+	@JsonTypeName("RenamedEnum")
+	static enum Enum {
+		VAL1, VAL2
+	}
+
+	@JsonIgnoreType
+	static class Internal {
+		public String secret;
+	}
+
+	static class Position {
+		public double lat;
+		public double lng;
+	}
+
+	@JsonIgnoreProperties("ignoredByClass")
+	static class Address {
+		public String street;
+		@JsonUnwrapped(prefix = "pos_")
+		public Position position;
+		@JsonBackReference
+		public Person owner;
+		public String ignoredByClass;
+	}
+
+	static class Person {
+		@JsonProperty("fullName")
+		public String name;
+		@JsonIgnore
+		public String password;
+		public Internal internal;
+		public Address[] addresses;
+		public Map<String, List<Person>> friends;
+		public Map<Enum, Set<Integer>> scores;
+		public Collection<Date> dates;
+		public byte[] picture;
+		public Enum _enum;
+
+		public boolean isActive() {
+			return true;
+		}
+
+		public Address findAddress(String street, int number) {
+			return null;
+		}
+	}
+
+	static class Id {
+		@JsonValue
+		public long value() {
+			return 0;
+		}
+	}
+
+	static class WithValue {
+		public Id id;
+		public Map<Long, String> byId;
+	}
+
+	@Test
+	public void sameOutputAsSerializers() throws IOException {
+		Configuration conf = new Configuration();
+		conf.setIntrospectionBackend(IntrospectionBackend.BEAN_DESCRIPTIONS);
+
+		assertEquals(TestUtil.write(TestUtil.createTestModule(null, Person.class)),
+				TestUtil.write(TestUtil.createTestModule(conf, Person.class)));
+	}
+
+	@Test
+	public void jsonValueAndMapKeys() throws IOException {
+		Configuration conf = new Configuration();
+		conf.setIntrospectionBackend(IntrospectionBackend.BEAN_DESCRIPTIONS);
+
+		Module module = TestUtil.createTestModule(conf, WithValue.class);
+		Writer out = new StringWriter();
+		new ExternalModuleFormatWriter().write(module, out);
+		out.close();
+		ExpectedOutputChecker.checkOutputFromFile(out);
+	}
+}
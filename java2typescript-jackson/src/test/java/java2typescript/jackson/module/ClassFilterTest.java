@@ -0,0 +1,109 @@
+package java2typescript.jackson.module;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+
+import org.junit.Test;
+
+import java2typescript.jackson.module.conf.IntrospectionBackend;
+import java2typescript.jackson.module.grammar.Module;
+import java2typescript.jackson.module.util.TestUtil;
+
+public class ClassFilterTest {
+
+	static enum Status {
+		ON, OFF
+	}
+
+	static class Country {
+		public String name;
+	}
+
+	/** excluded, as well as the types only it references */
+	static class Address {
+		public String street;
+		public Country country;
+	}
+
+	static class Person {
+		public String name;
+		public Address[] addresses;
+		public Map<Status, Address> addressesByStatus;
+		public Status status;
+	}
+
+	private static final Predicate<Class<?>> NO_ADDRESS_NOR_STATUS = new Predicate<Class<?>>() {
+		@Override
+		public boolean test(Class<?> clazz) {
+			return clazz != Address.class && clazz != Status.class;
+		}
+	};
+
+	@Test
+	public void excludedClassesOnlyReferenced() throws IOException {
+		Configuration conf = new Configuration();
+		conf.setClassFilter(NO_ADDRESS_NOR_STATUS);
+		Module module = TestUtil.createTestModule(conf, Person.class);
+
+		assertEquals(Arrays.asList("Person"), new ArrayList<String>(module.getNamedTypes().keySet()));
+		StringWriter out = new StringWriter();
+		module.write(out);
+		String generated = out.toString();
+		assertTrue(generated.contains("addresses: Address[];"));
+		assertTrue(generated.contains("addressesByStatus: { [key: Status ]: Address;};"));
+		assertTrue(generated.contains("status: Status;"));
+	}
+
+	@Test
+	public void sameModulesWithAllBackendsAndInParallel() throws IOException {
+		List<String> generated = new ArrayList<String>();
+		for (IntrospectionBackend backend : IntrospectionBackend.values()) {
+			for (ForkJoinPool pool : Arrays.asList(null, new ForkJoinPool(2))) {
+				Configuration conf = new Configuration();
+				conf.setClassFilter(NO_ADDRESS_NOR_STATUS);
+				conf.setIntrospectionBackend(backend);
+				conf.setGenerationPool(pool);
+				StringWriter out = new StringWriter();
+				TestUtil.createTestModule(conf, Person.class, Country.class).write(out);
+				generated.add(out.toString());
+			}
+		}
+		for (String module : generated) {
+			assertEquals(generated.get(0), module);
+		}
+		// still described when reached otherwise
+		assertTrue(generated.get(0).contains("export interface Country {"));
+		assertFalse(generated.get(0).contains("export interface Address {"));
+	}
+
+	@Test
+	public void rootClassesDescribedOutOfTheFilter() throws IOException {
+		for (ForkJoinPool pool : Arrays.asList(null, new ForkJoinPool(2))) {
+			Configuration conf = new Configuration();
+			conf.setClassFilter(new Predicate<Class<?>>() {
+				@Override
+				public boolean test(Class<?> clazz) {
+					return clazz == Country.class;
+				}
+			});
+			conf.setGenerationPool(pool);
+			Module module = TestUtil.createTestModule(conf, Person.class);
+
+			// only reached types are filtered
+			assertEquals(Arrays.asList("Person"), new ArrayList<String>(module.getNamedTypes().keySet()));
+			StringWriter out = new StringWriter();
+			module.write(out);
+			assertTrue(out.toString().contains("addresses: Address[];"));
+		}
+	}
+}
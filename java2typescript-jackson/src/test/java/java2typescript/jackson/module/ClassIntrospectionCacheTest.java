@@ -0,0 +1,102 @@
+package java2typescript.jackson.module;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+
+import java2typescript.jackson.module.cache.ClassIntrospectionCache;
+import java2typescript.jackson.module.cache.ClassIntrospectionCache.ClassInfo;
+import java2typescript.jackson.module.grammar.ClassType;
+import java2typescript.jackson.module.grammar.Module;
+import java2typescript.jackson.module.util.TestUtil;
+
+public class ClassIntrospectionCacheTest {
+
+	static class Bean {
+		public static final String CONSTANT = "constant";
+
+		private String name;
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public String describe(int depth) {
+			return name;
+		}
+	}
+
+	static class Other {
+	}
+
+	@Test
+	public void introspectsOncePerClass() throws NoSuchMethodException {
+		ClassIntrospectionCache cache = new ClassIntrospectionCache();
+		ClassInfo info = cache.get(Bean.class);
+
+		assertTrue(info.isAccessor(Bean.class.getMethod("getName")));
+		assertTrue(info.isAccessor(Bean.class.getMethod("setName", String.class)));
+		assertFalse(info.isAccessor(Bean.class.getMethod("describe", int.class)));
+		assertEquals(3, info.getPublicDeclaredMethods().size());
+		assertEquals(1, info.getPublicStaticFinalFields().size());
+
+		assertSame(info, cache.get(Bean.class));
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
+	@Test
+	public void releasesClassesOfDroppedLoaders() throws Exception {
+		ClassIntrospectionCache cache = new ClassIntrospectionCache();
+		WeakReference<ClassLoader> loader = introspectInDroppedLoader(cache);
+
+		for (int i = 0; i < 100 && loader.get() != null; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+		assertNull(loader.get());
+		assertEquals(1, cache.getMisses());
+	}
+
+	/** Introspect a copy of {@link Other} loaded by a class loader that is then dropped */
+	private static WeakReference<ClassLoader> introspectInDroppedLoader(ClassIntrospectionCache cache)
+			throws Exception {
+		URL classes = Other.class.getProtectionDomain().getCodeSource().getLocation();
+		URLClassLoader loader = new URLClassLoader(new URL[] { classes }, null);
+		Class<?> copy = loader.loadClass(Other.class.getName());
+		assertTrue(copy != Other.class);
+		assertSame(cache.get(copy), cache.get(copy));
+		loader.close();
+		return new WeakReference<ClassLoader>(loader);
+	}
+
+	@Test
+	public void sharedBetweenGenerators() throws JsonMappingException {
+		Configuration conf = new Configuration();
+		Module module = TestUtil.createTestModule(conf, Bean.class);
+		long misses = conf.getIntrospectionCache().getMisses();
+
+		// accessors are exposed as fields, not methods
+		ClassType bean = (ClassType) module.getNamedTypes().get("Bean");
+		assertEquals(Collections.singleton("describe"), bean.getMethods().keySet());
+
+		TestUtil.createTestModule(conf, Bean.class);
+		assertEquals(misses, conf.getIntrospectionCache().getMisses());
+		assertTrue(conf.getIntrospectionCache().getHits() > 0);
+	}
+}
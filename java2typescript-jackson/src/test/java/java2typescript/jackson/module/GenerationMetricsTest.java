@@ -0,0 +1,91 @@
+package java2typescript.jackson.module;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java2typescript.jackson.module.grammar.Module;
+import java2typescript.jackson.module.metrics.GenerationMetrics;
+import java2typescript.jackson.module.metrics.GenerationPhase;
+import java2typescript.jackson.module.util.TestUtil;
+import java2typescript.jackson.module.writer.ExternalModuleFormatWriter;
+
+public class GenerationMetricsTest {
+
+	static enum Status {
+		ON, OFF
+	}
+
+	static class Address {
+		public String street;
+		public Person owner;
+		public Status status;
+	}
+
+	static class Person {
+		public String name;
+		public Address[] addresses;
+		public Map<String, List<Person>> friends;
+		public Status status;
+	}
+
+	@Test
+	public void countsVisitedTypesAndHits() throws IOException {
+		GenerationMetrics metrics = new GenerationMetrics();
+		Configuration conf = new Configuration();
+		conf.setGenerationListener(metrics);
+		Module module = TestUtil.createTestModule(conf, Person.class, Address.class);
+
+		assertEquals(2, metrics.getRootClasses());
+		assertEquals(module.getNamedTypes().size(), metrics.getNamedTypesVisited());
+		// Person referenced by Address and by the list of friends, Address as root class, Status twice
+		assertTrue(metrics.getNamedTypeHits() > 0);
+		assertTrue(metrics.getComputedTypeHits() > 0);
+		assertEquals(Person.class.getName(), metrics.getSlowestClasses().get(0).getClassName());
+		assertTrue(metrics.getWallNanos(GenerationPhase.VISIT) > 0);
+		assertTrue(metrics.getWallNanos(GenerationPhase.INTROSPECT) > 0);
+		assertTrue(metrics.getCacheStatistics().containsKey("introspection"));
+
+		ExternalModuleFormatWriter writer = new ExternalModuleFormatWriter();
+		writer.preferences.setGenerationListener(metrics);
+		writer.write(module, new StringWriter());
+		assertTrue(metrics.getWallNanos(GenerationPhase.WRITE) > 0);
+
+		StringWriter json = new StringWriter();
+		metrics.writeJson(json);
+		JsonNode report = new ObjectMapper().readTree(json.toString());
+		assertEquals(metrics.getNamedTypesVisited(), report.get("namedTypesVisited").asLong());
+		assertEquals(metrics.getWallNanos(GenerationPhase.WRITE), report.get("phases").get("WRITE").get("wallNanos")
+				.asLong());
+		assertEquals(2, report.get("slowestClasses").size());
+		assertTrue(metrics.getSummary().contains("named types visited"));
+	}
+
+	@Test
+	public void sameCountsInParallel() throws IOException {
+		GenerationMetrics metrics = new GenerationMetrics(1);
+		Configuration conf = new Configuration();
+		conf.setGenerationListener(metrics);
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			conf.setGenerationPool(pool);
+			Module module = TestUtil.createTestModule(conf, Person.class, Address.class, Status.class);
+
+			assertEquals(3, metrics.getRootClasses());
+			assertEquals(module.getNamedTypes().size(), metrics.getNamedTypesVisited());
+			assertEquals(1, metrics.getSlowestClasses().size());
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
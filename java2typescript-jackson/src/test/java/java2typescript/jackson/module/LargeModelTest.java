@@ -0,0 +1,104 @@
+package java2typescript.jackson.module;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java2typescript.jackson.module.conf.IntrospectionBackend;
+import java2typescript.jackson.module.grammar.ClassType;
+import java2typescript.jackson.module.grammar.Module;
+import java2typescript.jackson.module.util.TestUtil;
+import java2typescript.jackson.module.writer.ExternalModuleFormatWriter;
+import java2typescript.jackson.module.writer.InternalModuleFormatWriter;
+import java2typescript.testsupport.SyntheticModel;
+import java2typescript.testsupport.SyntheticModelGenerator;
+
+public class LargeModelTest {
+
+	private static final int DTO_COUNT = 3000;
+
+	private static final int ENUM_COUNT = 100;
+
+	private static SyntheticModel model;
+
+	private static String expected;
+
+	@BeforeClass
+	public static void generateModel() throws IOException {
+		SyntheticModelGenerator generator = new SyntheticModelGenerator();
+		generator.setDtoCount(DTO_COUNT);
+		generator.setEnumCount(ENUM_COUNT);
+		generator.setContainerFieldsPerClass(4);
+		generator.setWideFields(30);
+		generator.setResourceCount(0);
+		model = generator.generate();
+		expected = write(TestUtil.createTestModule(null, model.getClasses().toArray(new Class<?>[0])));
+	}
+
+	@Test
+	public void allClassesAreDefined() throws IOException {
+		Module module = TestUtil.createTestModule(null, model.getClasses().toArray(new Class<?>[0]));
+
+		assertEquals(DTO_COUNT + ENUM_COUNT, module.getNamedTypes().size());
+		ClassType dto = (ClassType) module.getNamedTypes().get("Dto21");
+		// simple fields, next, previous, containers and status
+		assertEquals(1 + 5 + 1 + 1 + 4 + 1, dto.getFields().size());
+		assertTrue(expected.contains("    next: Dto22;\n    previous: Dto20;\n"));
+		assertTrue(expected.contains("    mapOfLists1: { [key: string ]: Dto22[];};\n"));
+	}
+
+	@Test
+	public void sameOutputInParallel() throws IOException {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			Configuration conf = new Configuration();
+			conf.setGenerationPool(pool);
+			assertEquals(expected, write(TestUtil.createTestModule(conf, model.getClasses().toArray(new Class<?>[0]))));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void sameOutputWithoutSerializers() throws IOException {
+		Configuration conf = new Configuration();
+		conf.setIntrospectionBackend(IntrospectionBackend.BEAN_DESCRIPTIONS);
+		assertEquals(expected, write(TestUtil.createTestModule(conf, model.getClasses().toArray(new Class<?>[0]))));
+	}
+
+	@Test
+	public void sameOutputRenderedInParallel() throws IOException {
+		Module module = TestUtil.createTestModule(null, model.getClasses().toArray(new Class<?>[0]));
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			// internal format and enum pattern, to render at an indentation level and with a custom writer
+			InternalModuleFormatWriter sequentialWriter = new InternalModuleFormatWriter();
+			sequentialWriter.preferences.useEnumPattern();
+			StringWriter sequential = new StringWriter();
+			sequentialWriter.write(module, sequential);
+
+			InternalModuleFormatWriter parallelWriter = new InternalModuleFormatWriter();
+			parallelWriter.preferences.useEnumPattern();
+			parallelWriter.preferences.setRenderingPool(pool);
+			StringWriter parallel = new StringWriter();
+			parallelWriter.write(module, parallel);
+
+			assertEquals(sequential.toString(), parallel.toString());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static String write(Module module) throws IOException {
+		Writer out = new StringWriter();
+		new ExternalModuleFormatWriter().write(module, out);
+		return out.toString();
+	}
+}
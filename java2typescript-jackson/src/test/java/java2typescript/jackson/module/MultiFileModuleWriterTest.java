@@ -0,0 +1,123 @@
+package java2typescript.jackson.module;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java2typescript.jackson.module.grammar.EnumType;
+import java2typescript.jackson.module.grammar.Module;
+import java2typescript.jackson.module.grammar.base.AbstractNamedType;
+import java2typescript.jackson.module.util.TestUtil;
+import java2typescript.jackson.module.writer.MultiFileModuleWriter;
+import java2typescript.jackson.module.writer.TypeGrouping;
+
+public class MultiFileModuleWriterTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	static enum Status {
+		ON, OFF
+	}
+
+	static class Address {
+		public String street;
+		public Status status;
+	}
+
+	static class Person {
+		public String name;
+		public Address[] addresses;
+		public Map<String, List<Status>> statuses;
+	}
+
+	/** enums in their own file, other types in the file named after the module */
+	private static final TypeGrouping ENUMS_APART = new TypeGrouping() {
+		@Override
+		public String getGroup(AbstractNamedType type) {
+			return type instanceof EnumType ? "enums" : null;
+		}
+	};
+
+	@Test
+	public void typesGroupedByPackage() throws IOException {
+		Module module = TestUtil.createTestModule(null, Person.class);
+		Map<String, String> files = new MultiFileModuleWriter().render(module);
+
+		assertEquals(Arrays.asList("java2typescript.jackson.module.d.ts", "index.d.ts"),
+				Arrays.asList(files.keySet().toArray()));
+		assertEquals("export * from './java2typescript.jackson.module';\n", files.get("index.d.ts"));
+	}
+
+	@Test
+	public void referencedTypesImportedFromOtherFiles() throws IOException {
+		Module module = TestUtil.createTestModule(null, Person.class);
+		module.getVars().put("status", module.getNamedTypes().get("Status"));
+		MultiFileModuleWriter writer = new MultiFileModuleWriter();
+		writer.setGrouping(ENUMS_APART);
+		writer.getPreferences().sort();
+		writer.getPreferences().useEnumPattern();
+		Map<String, String> files = writer.render(module);
+
+		assertEquals(Arrays.asList("EnumPatternBase.d.ts", "enums.d.ts", "modName.d.ts", "index.d.ts"),
+				Arrays.asList(files.keySet().toArray()));
+		assertTrue(files.get("modName.d.ts").startsWith("import { Status } from './enums';\n\n"
+				+ "export interface Address {\n"));
+		assertTrue(files.get("enums.d.ts").startsWith("import { EnumPatternBase } from './EnumPatternBase';\n\n"
+				+ "export class Status extends EnumPatternBase {\n"));
+		assertEquals("export * from './EnumPatternBase';\n"
+				+ "export * from './enums';\n"
+				+ "export * from './modName';\n"
+				+ "\n"
+				+ "import { Status } from './enums';\n"
+				+ "\n"
+				+ "export var status: Status;\n", files.get("index.d.ts"));
+	}
+
+	@Test
+	public void unchangedFilesNotRewritten() throws IOException {
+		MultiFileModuleWriter writer = new MultiFileModuleWriter();
+		writer.setGrouping(ENUMS_APART);
+		File directory = new File(folder.getRoot(), "typings");
+		assertEquals(3, writer.write(TestUtil.createTestModule(null, Person.class), directory).size());
+		assertEquals(Collections.emptyList(), writer.write(TestUtil.createTestModule(null, Person.class), directory));
+
+		// only the file of the classes changes when enums are referenced by one class less
+		assertEquals(Arrays.asList(new File(directory, "modName.d.ts")),
+				writer.write(TestUtil.createTestModule(null, Address.class), directory));
+	}
+
+	@Test
+	public void groupsOfReusedTypesNotRenderedAgain() throws IOException {
+		MultiFileModuleWriter writer = new MultiFileModuleWriter();
+		writer.setGrouping(ENUMS_APART);
+		File directory = new File(folder.getRoot(), "typings");
+		Module previous = TestUtil.createTestModule(null, Person.class);
+		writer.write(previous, directory);
+		File enums = new File(directory, "enums.d.ts");
+		Files.write(enums.toPath(), "stale".getBytes("UTF-8"));
+
+		// Status is reused, Address and Person are generated again
+		Module module = new DefinitionGenerator(new ObjectMapper()).regenerateTypeScript(previous,
+				Collections.singleton("Address"), Arrays.asList(Person.class), null);
+		assertEquals(Collections.emptyList(), writer.write(module, directory, previous));
+		assertEquals("stale", new String(Files.readAllBytes(enums.toPath()), "UTF-8"));
+		assertTrue(new String(Files.readAllBytes(new File(directory, "index.d.ts").toPath()), "UTF-8")
+				.contains("export * from './enums';\n"));
+
+		assertEquals(Arrays.asList(enums), writer.write(module, directory));
+	}
+}
@@ -0,0 +1,80 @@
+package java2typescript.jackson.module;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.annotation.JsonTypeName;
+
+import java2typescript.jackson.module.util.TestUtil;
+
+public class ParallelGenerationTest {
+
+	@JsonTypeName("RenamedEnum")
+	static enum Enum {
+		VAL1, VAL2
+	}
+
+	static enum Status {
+		ON, OFF
+	}
+
+	static class Address {
+		public String street;
+		public Country country;
+		public Person owner;
+	}
+
+	static class Country {
+		public String name;
+		public Status status;
+	}
+
+	static class Person {
+		public String name;
+		public Address[] addresses;
+		public Map<String, List<Person>> friends;
+		public Enum _enum;
+
+		public Country findCountry(Address address) {
+			return null;
+		}
+	}
+
+	static class Company {
+		public Person boss;
+		public List<Department> departments;
+	}
+
+	static class Department {
+		public Company company;
+		public Map<Status, Person> people;
+		public Empty empty;
+	}
+
+	static class Empty {
+	}
+
+	@Test
+	public void sameOutputAsSequentialGeneration() throws IOException {
+		Class<?>[] classes = new Class<?>[] { Person.class, Company.class, Country.class, Department.class,
+				Address.class, Enum.class };
+		String expected = TestUtil.write(TestUtil.createTestModule(null, classes));
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			for (int i = 0; i < 20; i++) {
+				Configuration conf = new Configuration();
+				conf.setGenerationPool(pool);
+				assertEquals(expected, TestUtil.write(TestUtil.createTestModule(conf, classes)));
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package java2typescript.jackson.module;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java2typescript.jackson.module.grammar.Module;
+import java2typescript.jackson.module.util.TestUtil;
+
+public class RegenerationTest {
+
+	static enum Status {
+		ON, OFF
+	}
+
+	static class Address {
+		public String street;
+		public Status status;
+	}
+
+	static class Person {
+		public String name;
+		public Address address;
+	}
+
+	static class Tag {
+		public String label;
+	}
+
+	static class Team {
+		public List<Person> members;
+		public Tag tag;
+	}
+
+	static class Standalone {
+		public String value;
+	}
+
+	@Test
+	public void typesNotDependingOnChangedTypesAreReused() throws IOException {
+		Configuration conf = sortedConfiguration();
+		Module previous = TestUtil.createTestModule(conf, Team.class);
+
+		Module module = regenerate(previous, Collections.singleton("Address"), conf, Team.class);
+
+		assertSame(previous.getNamedTypes().get("Status"), module.getNamedTypes().get("Status"));
+		assertSame(previous.getNamedTypes().get("Tag"), module.getNamedTypes().get("Tag"));
+		// changed type and the types referencing it
+		assertNotSame(previous.getNamedTypes().get("Address"), module.getNamedTypes().get("Address"));
+		assertNotSame(previous.getNamedTypes().get("Person"), module.getNamedTypes().get("Person"));
+		// root classes are always visited again
+		assertNotSame(previous.getNamedTypes().get("Team"), module.getNamedTypes().get("Team"));
+
+		assertEquals(TestUtil.write(TestUtil.createTestModule(sortedConfiguration(), Team.class)),
+				TestUtil.write(module));
+	}
+
+	@Test
+	public void typesNotReferencedAnymoreAreLeftOut() throws IOException {
+		Module previous = TestUtil.createTestModule(sortedConfiguration(), Team.class, Standalone.class);
+
+		Module module = regenerate(previous, Collections.<String> emptySet(), sortedConfiguration(), Team.class);
+
+		assertFalse(module.getNamedTypes().containsKey("Standalone"));
+		assertEquals(TestUtil.write(TestUtil.createTestModule(sortedConfiguration(), Team.class)),
+				TestUtil.write(module));
+		// previous module left unchanged
+		assertTrue(previous.getNamedTypes().containsKey("Standalone"));
+		assertEquals(6, previous.getNamedTypes().size());
+	}
+
+	@Test
+	public void sameOutputInParallel() throws IOException {
+		Module previous = TestUtil.createTestModule(sortedConfiguration(), Team.class, Standalone.class);
+		String expected = TestUtil.write(TestUtil.createTestModule(sortedConfiguration(), Team.class));
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			Configuration conf = sortedConfiguration();
+			conf.setGenerationPool(pool);
+			Module module = regenerate(previous, Collections.singleton("Address"), conf, Team.class);
+			assertSame(previous.getNamedTypes().get("Tag"), module.getNamedTypes().get("Tag"));
+			assertEquals(expected, TestUtil.write(module));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static Configuration sortedConfiguration() {
+		Configuration conf = new Configuration();
+		conf.setSorted(true);
+		return conf;
+	}
+
+	private static Module regenerate(Module previous, Collection<String> changedTypeNames, Configuration conf,
+			Class<?>... classes) throws IOException {
+		return new DefinitionGenerator(new ObjectMapper()).regenerateTypeScript(previous, changedTypeNames,
+				Arrays.asList(classes), conf);
+	}
+}
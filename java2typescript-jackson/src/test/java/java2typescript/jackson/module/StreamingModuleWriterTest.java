@@ -0,0 +1,116 @@
+package java2typescript.jackson.module;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java2typescript.jackson.module.cache.TypeCache;
+import java2typescript.jackson.module.grammar.ClassType;
+import java2typescript.jackson.module.grammar.EnumType;
+import java2typescript.jackson.module.grammar.Module;
+import java2typescript.jackson.module.grammar.base.AbstractNamedType;
+import java2typescript.jackson.module.util.TestUtil;
+import java2typescript.jackson.module.writer.ExternalModuleFormatWriter;
+import java2typescript.jackson.module.writer.StreamingModuleWriter;
+
+public class StreamingModuleWriterTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	static enum Status {
+		ON, OFF
+	}
+
+	static class Address {
+		public String street;
+		public Person owner;
+		public Status status;
+	}
+
+	static class Person {
+		public static final String KIND = "person";
+
+		public String name;
+		public Address[] addresses;
+		public Map<String, List<Person>> friends;
+
+		public Address findAddress(String street, boolean exact) {
+			return null;
+		}
+	}
+
+	@Test
+	public void writesSameDefinitionsAsModuleWriter() throws IOException {
+		Module module = TestUtil.createTestModule(null, Person.class);
+		new StaticFieldExporter(module, null).export(Arrays.<Class<?>> asList(Person.class));
+		StringWriter expected = new StringWriter();
+		new ExternalModuleFormatWriter().write(module, expected);
+
+		StringWriter out = new StringWriter();
+		StreamingModuleWriter streamingWriter = new StreamingModuleWriter(out);
+		Configuration conf = new Configuration();
+		conf.setDefinitionListener(streamingWriter);
+		Module streamedModule = TestUtil.createTestModule(conf, Person.class);
+		// Person, Address and Status are written while generating
+		assertEquals(3, streamingWriter.getWrittenTypes());
+		new StaticFieldExporter(streamedModule, conf).export(Arrays.<Class<?>> asList(Person.class));
+		streamingWriter.finish(streamedModule);
+
+		// only the order of definitions differs
+		assertEquals(definitions(expected.toString()), definitions(out.toString()));
+
+		for (AbstractNamedType type : streamedModule.getNamedTypes().values()) {
+			if (type instanceof ClassType) {
+				assertTrue(((ClassType) type).getFields().isEmpty());
+				assertTrue(((ClassType) type).getMethods().isEmpty());
+			} else if (type instanceof EnumType) {
+				assertTrue(((EnumType) type).getValues().isEmpty());
+			}
+		}
+	}
+
+	@Test
+	public void streamedDefinitionsAreCached() throws IOException {
+		File cacheFile = new File(folder.getRoot(), "types.cache");
+		String expected = streamWithCache(new TypeCache(cacheFile));
+
+		TypeCache cache = new TypeCache(cacheFile);
+		assertEquals(expected, streamWithCache(cache));
+		// both Person and Address
+		assertEquals(2, cache.getHits());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void sortingIsNotSupported() throws IOException {
+		StreamingModuleWriter streamingWriter = new StreamingModuleWriter(new StringWriter());
+		streamingWriter.getPreferences().sort();
+		streamingWriter.finish(TestUtil.createTestModule(null, Person.class));
+	}
+
+	private String streamWithCache(TypeCache cache) throws IOException {
+		StringWriter out = new StringWriter();
+		StreamingModuleWriter streamingWriter = new StreamingModuleWriter(out);
+		Configuration conf = new Configuration();
+		conf.setTypeCache(cache);
+		conf.setDefinitionListener(streamingWriter);
+		streamingWriter.finish(TestUtil.createTestModule(conf, Person.class));
+		return out.toString();
+	}
+
+	private static Set<String> definitions(String output) {
+		return new HashSet<String>(Arrays.asList(output.split("\n\n")));
+	}
+}
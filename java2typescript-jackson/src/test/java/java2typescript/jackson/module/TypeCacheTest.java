@@ -0,0 +1,184 @@
+package java2typescript.jackson.module;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategy;
+
+import java2typescript.jackson.module.cache.TypeCache;
+import java2typescript.jackson.module.grammar.Module;
+import java2typescript.jackson.module.util.TestUtil;
+
+public class TypeCacheTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	static enum Status {
+		ON, OFF
+	}
+
+	static class Address {
+		public String street;
+		public Person owner;
+		public Status status;
+	}
+
+	static class Person {
+		public String firstName;
+		public Address[] addresses;
+		public Map<String, List<Person>> friends;
+
+		public Address findAddress(String street, boolean exact) {
+			return null;
+		}
+	}
+
+	@Test
+	public void unchangedClassesAreRestoredFromCache() throws IOException {
+		File cacheFile = new File(folder.getRoot(), "types.cache");
+		String expected = TestUtil.write(TestUtil.createTestModule(null, Person.class));
+
+		TypeCache firstCache = new TypeCache(cacheFile);
+		assertEquals(expected, TestUtil.write(TestUtil.createTestModule(createConf(firstCache), Person.class)));
+		assertEquals(0, firstCache.getHits());
+		assertTrue(cacheFile.isFile());
+
+		TypeCache secondCache = new TypeCache(cacheFile);
+		assertEquals(expected, TestUtil.write(TestUtil.createTestModule(createConf(secondCache), Person.class)));
+		// both Person and Address
+		assertEquals(2, secondCache.getHits());
+		assertEquals(0, secondCache.getMisses());
+	}
+
+	@Test
+	public void cacheIsIgnoredWhenConfigurationChanges() throws IOException {
+		File cacheFile = new File(folder.getRoot(), "types.cache");
+		TestUtil.createTestModule(createConf(new TypeCache(cacheFile)), Person.class);
+
+		TypeCache cache = new TypeCache(cacheFile);
+		Configuration conf = createConf(cache);
+		conf.addIngoredMethod("findAddress");
+		String output = TestUtil.write(TestUtil.createTestModule(conf, Person.class));
+		assertEquals(0, cache.getHits());
+		assertTrue(!output.contains("findAddress"));
+	}
+
+	static abstract class RenamedStreet {
+		@JsonProperty("streetName")
+		public String street;
+	}
+
+	@Test
+	public void cacheIsIgnoredWhenMapperChanges() throws IOException {
+		File cacheFile = new File(folder.getRoot(), "types.cache");
+		generate(new ObjectMapper(), new TypeCache(cacheFile));
+
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.setPropertyNamingStrategy(PropertyNamingStrategy.CAMEL_CASE_TO_LOWER_CASE_WITH_UNDERSCORES);
+		TypeCache cache = new TypeCache(cacheFile);
+		assertTrue(generate(mapper, cache).contains("first_name: string;"));
+		assertEquals(0, cache.getHits());
+
+		cache = new TypeCache(cacheFile, "2");
+		generate(mapper, cache);
+		assertEquals(0, cache.getHits());
+	}
+
+	@Test
+	public void mixInsAreHashedWithTheirClasses() throws IOException {
+		File cacheFile = new File(folder.getRoot(), "types.cache");
+		generate(new ObjectMapper(), new TypeCache(cacheFile));
+
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.addMixIn(Address.class, RenamedStreet.class);
+		TypeCache cache = new TypeCache(cacheFile);
+		assertTrue(generate(mapper, cache).contains("streetName: string;"));
+		// Person depends on the classes of its properties too
+		assertEquals(0, cache.getHits());
+		assertEquals(2, cache.getMisses());
+	}
+
+	static class Tagged {
+		@JsonFormat(shape = JsonFormat.Shape.STRING)
+		public Date since;
+		public Address address;
+	}
+
+	@Test
+	public void typesWithAnnotatedPropertiesAreNotCached() throws IOException {
+		File cacheFile = new File(folder.getRoot(), "types.cache");
+		String expected = TestUtil.write(TestUtil.createTestModule(null, Tagged.class));
+		TestUtil.createTestModule(createConf(new TypeCache(cacheFile)), Tagged.class);
+
+		TypeCache cache = new TypeCache(cacheFile);
+		assertEquals(expected, TestUtil.write(TestUtil.createTestModule(createConf(cache), Tagged.class)));
+		// Person and Address
+		assertEquals(2, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
+	@Test
+	public void generationSucceedsWhenCacheCannotBeSaved() throws IOException {
+		// a file instead of the folder of the cache
+		File cacheFile = new File(folder.newFile("build"), "types.cache");
+		TypeCache cache = new TypeCache(cacheFile);
+
+		String output = TestUtil.write(TestUtil.createTestModule(createConf(cache), Person.class));
+		assertEquals(TestUtil.write(TestUtil.createTestModule(null, Person.class)), output);
+		assertFalse(cacheFile.exists());
+	}
+
+	static class Desk {
+		public String label;
+	}
+
+	static class Office {
+		public Desk desk;
+		public Person manager;
+	}
+
+	@Test
+	public void reusedTypesStayCached() throws IOException {
+		File cacheFile = new File(folder.getRoot(), "types.cache");
+		Module previous = TestUtil.createTestModule(createConf(new TypeCache(cacheFile)), Office.class);
+
+		TypeCache cache = new TypeCache(cacheFile);
+		new DefinitionGenerator(new ObjectMapper()).regenerateTypeScript(previous, Collections.singleton("Person"),
+				Arrays.asList(Office.class), createConf(cache));
+		// Desk is reused, not looked up
+		assertEquals(3, cache.getHits());
+
+		cache = new TypeCache(cacheFile);
+		TestUtil.createTestModule(createConf(cache), Office.class);
+		assertEquals(4, cache.getHits());
+		assertEquals(0, cache.getMisses());
+	}
+
+	private String generate(ObjectMapper mapper, TypeCache cache) throws IOException {
+		DefinitionGenerator generator = new DefinitionGenerator(mapper);
+		return TestUtil.write(generator.generateTypeScript("modName", Arrays.asList(Person.class), createConf(cache)));
+	}
+
+	private Configuration createConf(TypeCache cache) {
+		Configuration conf = new Configuration();
+		conf.setTypeCache(cache);
+		return conf;
+	}
+}
@@ -0,0 +1,89 @@
+package java2typescript.jackson.module;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import java2typescript.jackson.module.grammar.Module;
+import java2typescript.jackson.module.util.TestUtil;
+import java2typescript.jackson.module.writer.TypeDependencies;
+
+public class TypeDependenciesTest {
+
+	static enum Status {
+		ON, OFF
+	}
+
+	static class Address {
+		public String street;
+		public Status status;
+		public Person owner;
+	}
+
+	static class Person {
+		public String name;
+		public Address[] addresses;
+		public Person parent;
+	}
+
+	static class Team {
+		public Map<String, List<Person>> members;
+
+		public Status check(Address address) {
+			return null;
+		}
+	}
+
+	static class Standalone {
+		public String value;
+	}
+
+	@Test
+	public void directReferences() throws IOException {
+		Module module = TestUtil.createTestModule(null, Team.class, Standalone.class);
+		TypeDependencies dependencies = new TypeDependencies(module);
+
+		assertEquals(new TreeSet<String>(Arrays.asList("Address", "Person", "Status")),
+				dependencies.getReferencedTypes("Team"));
+		// self references are left out
+		assertEquals(Collections.singleton("Address"), dependencies.getReferencedTypes("Person"));
+		assertEquals(new TreeSet<String>(Arrays.asList("Address", "Team")), dependencies.getReferencingTypes("Status"));
+		assertEquals(new TreeSet<String>(Arrays.asList("Address", "Team")), dependencies.getReferencingTypes("Person"));
+		assertTrue(dependencies.getReferencedTypes("Standalone").isEmpty());
+		assertTrue(dependencies.getReferencingTypes("Standalone").isEmpty());
+		assertTrue(dependencies.getReferencingTypes("Unknown").isEmpty());
+	}
+
+	@Test
+	public void transitiveDependents() throws IOException {
+		Module module = TestUtil.createTestModule(null, Team.class, Standalone.class);
+		TypeDependencies dependencies = new TypeDependencies(module);
+
+		assertEquals(new TreeSet<String>(Arrays.asList("Address", "Person", "Status", "Team")),
+				dependencies.getDependentTypes(Collections.singleton("Status")));
+		assertEquals(new TreeSet<String>(Arrays.asList("Address", "Person", "Team")),
+				dependencies.getDependentTypes(Collections.singleton("Address")));
+		assertEquals(new TreeSet<String>(Arrays.asList("Standalone", "Team")),
+				dependencies.getDependentTypes(Arrays.asList("Team", "Standalone")));
+	}
+
+	@Test
+	public void transitiveReferences() throws IOException {
+		Module module = TestUtil.createTestModule(null, Team.class, Standalone.class);
+		TypeDependencies dependencies = new TypeDependencies(module);
+
+		assertEquals(new TreeSet<String>(Arrays.asList("Address", "Person", "Status")),
+				dependencies.getReachableTypes(Collections.singleton("Address")));
+		assertEquals(new TreeSet<String>(Arrays.asList("Address", "Person", "Standalone", "Status", "Team")),
+				dependencies.getReachableTypes(Arrays.asList("Team", "Standalone")));
+		assertEquals(Collections.singleton("Status"), dependencies.getReachableTypes(Collections.singleton("Status")));
+	}
+}
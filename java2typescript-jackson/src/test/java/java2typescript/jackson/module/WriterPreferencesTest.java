@@ -1,18 +1,23 @@
 package java2typescript.jackson.module;
 
+import static org.junit.Assert.assertEquals;
+
 import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Test;
 
+import java2typescript.jackson.module.grammar.EnumType;
 import java2typescript.jackson.module.grammar.Module;
 import java2typescript.jackson.module.util.ExpectedOutputChecker;
 import java2typescript.jackson.module.util.TestUtil;
 import java2typescript.jackson.module.writer.ExternalModuleFormatWriter;
 import java2typescript.jackson.module.writer.InternalModuleFormatWriter;
+import java2typescript.jackson.module.writer.WriterPreferences;
 
 /**
  * @author Ats Uiboupin
@@ -77,6 +82,21 @@ public class WriterPreferencesTest {
 		ExpectedOutputChecker.checkOutputFromFile(out);
 	}
 
+	@Test
+	public void indentationFollowsLevelAndStep() {
+		WriterPreferences preferences = new WriterPreferences();
+		preferences.increaseIndentation();
+		preferences.increaseIndentation();
+		assertEquals("        ", preferences.getIndentation());
+
+		preferences.setIndentationStep("\t");
+		assertEquals("\t\t", preferences.getIndentation());
+		preferences.decreaseIndention();
+		assertEquals("\t", preferences.getIndentation());
+		preferences.decreaseIndention();
+		assertEquals("", preferences.getIndentation());
+	}
+
 	@Test
 	public void indentWithTabs() throws IOException {
 		// Arrange
@@ -136,9 +156,59 @@ public class WriterPreferencesTest {
 		// Act
 		writer.write(module, out);
 		out.close();
-		System.out.println(out);
 
 		// Assert
 		ExpectedOutputChecker.checkOutputFromFileEquals(out);
 	}
+
+	@Test
+	public void sortedModuleWrittenInSameOrder() throws IOException {
+		// Arrange
+		ExternalModuleFormatWriter writer = new ExternalModuleFormatWriter();
+		writer.preferences.sort();
+		Configuration conf = new Configuration();
+		conf.setSorted(true);
+
+		@SuppressWarnings("unused")
+		class F{
+			public String B;
+			public String C;
+			public String A;
+			public void b() {};
+			public void c() {};
+			public void a() {};
+		}
+		class Z{}
+		class A{}
+
+		Class<?>[] classes = new Class[]{TestClass.class, Z.class, A.class, E.class, F.class};
+
+		Module unsortedModule = TestUtil.createTestModule(null, classes);
+		unsortedModule.getVars().put("z", unsortedModule.getNamedTypes().get(Z.class.getSimpleName()));
+		unsortedModule.getVars().put("a", unsortedModule.getNamedTypes().get(A.class.getSimpleName()));
+
+		Module sortedModule = TestUtil.createTestModule(conf, classes);
+		sortedModule.getVars().put("z", sortedModule.getNamedTypes().get(Z.class.getSimpleName()));
+		sortedModule.getVars().put("a", sortedModule.getNamedTypes().get(A.class.getSimpleName()));
+
+		// Act
+		Writer expected = new StringWriter();
+		writer.write(unsortedModule, expected);
+		Writer out = new StringWriter();
+		writer.write(sortedModule, out);
+
+		// Assert
+		assertEquals(expected.toString(), out.toString());
+	}
+
+	@Test
+	public void sortingOutputKeepsDeclarationOrder() throws IOException {
+		ExternalModuleFormatWriter writer = new ExternalModuleFormatWriter();
+		writer.preferences.sort();
+		Module module = TestUtil.createTestModule(null, E.class);
+
+		writer.write(module, new StringWriter());
+
+		assertEquals(Arrays.asList("B", "C", "A"), ((EnumType) module.getNamedTypes().get("E")).getValues());
+	}
 }
@@ -2,12 +2,17 @@ package java2typescript.jackson.module.util;
 
 import static com.google.common.collect.Lists.newArrayList;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java2typescript.jackson.module.Configuration;
 import java2typescript.jackson.module.DefinitionGenerator;
 import java2typescript.jackson.module.grammar.Module;
+import java2typescript.jackson.module.writer.ExternalModuleFormatWriter;
 
 public class TestUtil {
 
@@ -16,4 +21,12 @@ public class TestUtil {
 		DefinitionGenerator generator = new DefinitionGenerator(mapper);
 		return generator.generateTypeScript("modName", newArrayList(classes), conf);
 	}
+
+	/** @return given module written in external module format */
+	public static String write(Module module) throws IOException {
+		Writer out = new StringWriter();
+		new ExternalModuleFormatWriter().write(module, out);
+		out.close();
+		return out.toString();
+	}
 }
@@ -0,0 +1,4 @@
+export interface WithValue {
+    id: number;
+    byId: { [key: string ]: string;};
+}
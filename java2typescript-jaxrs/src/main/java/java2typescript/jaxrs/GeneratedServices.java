@@ -0,0 +1,46 @@
+package java2typescript.jaxrs;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Collections;
+
+import java2typescript.jackson.module.grammar.Module;
+import java2typescript.jaxrs.model.RestService;
+
+/**
+ * TypeScript module and JavaScript descriptor of REST services, both generated out of the same {@link RestService}
+ * descriptions, so that services are reflected once
+ */
+public class GeneratedServices {
+
+	private final ServiceDescriptorGenerator generator;
+
+	private final String moduleName;
+
+	private final Module module;
+
+	private final Collection<RestService> restServices;
+
+	GeneratedServices(ServiceDescriptorGenerator generator, String moduleName, Module module,
+			Collection<RestService> restServices) {
+		this.generator = generator;
+		this.moduleName = moduleName;
+		this.module = module;
+		this.restServices = restServices;
+	}
+
+	/** @return typescript definition of the services together with all required named types */
+	public Module getModule() {
+		return module;
+	}
+
+	public Collection<RestService> getRestServices() {
+		return Collections.unmodifiableCollection(restServices);
+	}
+
+	/** Write JS implementation of the services, out of the JS template of the generator */
+	public void writeJavascript(Writer writer) throws IOException {
+		generator.writeJavascript(moduleName, restServices, writer);
+	}
+}
@@ -0,0 +1,237 @@
+package java2typescript.jaxrs;
+
+import java.beans.Introspector;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java2typescript.jaxrs.model.Param;
+import java2typescript.jaxrs.model.ParamType;
+import java2typescript.jaxrs.model.RestMethod;
+import java2typescript.jaxrs.model.RestService;
+
+/**
+ * Writes the JS client of REST services as one function per REST method, whose URL is concatenated out of the path
+ * template and whose parameters are routed to the adapter as written, instead of interpreting the JSON descriptor of
+ * the service on each call. Services are exposed under the names of the vars of the typescript module.
+ * <p>
+ * As an ES module, functions and services are named exports, relying on the adapter and base URL of the module
+ * template, so that bundlers can leave out the services that are not imported.
+ */
+class PrecompiledClientWriter {
+
+	private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_$][A-Za-z0-9_$]*");
+
+	private static final Set<String> RESERVED_WORDS = new HashSet<String>(Arrays.asList("arguments", "await", "break",
+			"case", "catch", "class", "const", "continue", "debugger", "default", "delete", "do", "else", "enum", "eval",
+			"export", "extends", "false", "finally", "for", "function", "if", "implements", "import", "in",
+			"instanceof", "interface", "let", "new", "null", "package", "private", "protected", "public", "return",
+			"static", "super", "switch", "this", "throw", "true", "try", "typeof", "var", "void", "while", "with",
+			"yield",
+			// names of the generated code and of the module templates
+			"j2ts", "outModule", "rootUrl", "adapter", "adapters", "baseUrl", "setRootUrl", "setAdapter",
+			"jQueryAdapter"));
+
+	private final Writer writer;
+
+	private final boolean esModule;
+
+	private final String indentation;
+
+	PrecompiledClientWriter(Writer writer, boolean esModule) {
+		this.writer = writer;
+		this.esModule = esModule;
+		this.indentation = esModule ? "" : "  ";
+	}
+
+	/**
+	 * Write an expression evaluating to the module of the services, or the export declarations of the services for an
+	 * ES module
+	 */
+	void write(Collection<RestService> services) throws IOException {
+		if (esModule) {
+			Map<RestService, Map<String, String>> exportNames = exportNames(services);
+			for (RestService service : services) {
+				writeService(service, exportNames.get(service));
+			}
+			return;
+		}
+		writer.write("(function() {\n\n");
+		writer.write("  var outModule = {\n");
+		writer.write("    rootUrl : null,\n");
+		writer.write("    // JQuery by default\n");
+		writer.write("    adapter : j2ts.adapters.jQuery\n");
+		writer.write("  };\n\n");
+		writer.write("  function rootUrl() {\n");
+		writer.write("    if (outModule.rootUrl == null) {\n");
+		writer.write("      throw new Error(\"rootUrl is null, set it before calling rest methods\");\n");
+		writer.write("    }\n");
+		writer.write("    return outModule.rootUrl;\n");
+		writer.write("  }\n");
+		Map<RestService, Map<String, String>> exportNames = exportNames(services);
+		for (RestService service : services) {
+			writeService(service, exportNames.get(service));
+		}
+		writer.write("\n  return outModule;\n");
+		writer.write("})()");
+	}
+
+	private void writeService(RestService service, Map<String, String> exportNames) throws IOException {
+		String serviceVar = Introspector.decapitalize(service.getName());
+		// sorted for the output to be stable
+		Map<String, RestMethod> methods = new TreeMap<String, RestMethod>(service.getMethods());
+		for (RestMethod method : methods.values()) {
+			writer.write("\n");
+			writeFunction(exportNames.get(method.getName()), service.getPath() + method.getPath(), method);
+		}
+		writer.write("\n" + indentation + (esModule ? "export const " : "outModule.") + serviceVar + " = {\n");
+		String separator = "";
+		for (String methodName : methods.keySet()) {
+			writer.write(separator);
+			writer.write(indentation + "  " + jsString(methodName) + " : " + exportNames.get(methodName));
+			separator = ",\n";
+		}
+		writer.write("\n" + indentation + "};\n");
+	}
+
+	/**
+	 * @return names of the functions of the methods of given services, by service and method name, exported as such by
+	 *         ES modules: service var and method name joined by an underscore, followed by a number when the name is
+	 *         already used by a service or by a previous function (service foo with method bar_baz and service foo_bar
+	 *         with method baz)
+	 */
+	static Map<RestService, Map<String, String>> exportNames(Collection<RestService> services) {
+		Set<String> used = new HashSet<String>();
+		for (RestService service : services) {
+			used.add(Introspector.decapitalize(service.getName()));
+		}
+		Map<RestService, Map<String, String>> exportNames = new LinkedHashMap<RestService, Map<String, String>>();
+		for (RestService service : services) {
+			String serviceVar = Introspector.decapitalize(service.getName());
+			Map<String, String> names = new TreeMap<String, String>();
+			// sorted for the names to be stable
+			for (String methodName : new TreeSet<String>(service.getMethods().keySet())) {
+				String name = serviceVar + "_" + methodName;
+				for (int i = 2; !used.add(name); i++) {
+					name = serviceVar + "_" + methodName + i;
+				}
+				names.put(methodName, name);
+			}
+			exportNames.put(service, names);
+		}
+		return exportNames;
+	}
+
+	private void writeFunction(String functionName, String path, RestMethod method) throws IOException {
+		List<Param> params = new ArrayList<Param>();
+		for (Param param : method.getParams()) {
+			// technical parameters, not part of the client API
+			if (!param.isContext()) {
+				params.add(param);
+			}
+		}
+		List<String> args = arguments(params);
+
+		// path template split into literal parts (even indexes) and arguments (odd indexes)
+		List<String> urlParts = new ArrayList<String>();
+		urlParts.add(path);
+		List<String> getParams = new ArrayList<String>();
+		List<String> postParams = new ArrayList<String>();
+		String body = "null";
+		for (int i = 0; i < params.size(); i++) {
+			Param param = params.get(i);
+			String arg = args.get(i);
+			ParamType type = param.getType();
+			if (type == ParamType.PATH) {
+				replacePlaceholder(urlParts, "{" + param.getName() + "}", arg);
+			} else if (type == ParamType.QUERY) {
+				getParams.add(jsString(param.getName()) + " : " + arg);
+			} else if (type == ParamType.FORM) {
+				postParams.add(jsString(param.getName()) + " : " + arg);
+			} else if (type == ParamType.BODY) {
+				body = arg;
+			}
+		}
+
+		writer.write(indentation + (esModule ? "export function " : "function ") + functionName + "(" + join(args)
+				+ ") {\n");
+		writer.write(indentation + "  " + (esModule ? "adapter(" : "outModule.adapter(")
+				+ jsString(method.getHttpMethod().name()) + (esModule ? ", baseUrl()" : ", rootUrl()"));
+		for (int i = 0; i < urlParts.size(); i++) {
+			String part = urlParts.get(i);
+			if (i % 2 == 1) {
+				writer.write(" + " + part);
+			} else if (!part.isEmpty()) {
+				writer.write(" + " + jsString(part));
+			}
+		}
+		writer.write(", " + object(getParams) + ", " + object(postParams) + ", " + body + ");\n");
+		writer.write(indentation + "}\n");
+	}
+
+	/** Replace the first occurrence of given placeholder in the literal parts by given argument */
+	private static void replacePlaceholder(List<String> urlParts, String placeholder, String arg) {
+		for (int i = 0; i < urlParts.size(); i += 2) {
+			String literal = urlParts.get(i);
+			int index = literal.indexOf(placeholder);
+			if (index >= 0) {
+				urlParts.set(i, literal.substring(0, index));
+				urlParts.add(i + 1, arg);
+				urlParts.add(i + 2, literal.substring(index + placeholder.length()));
+				return;
+			}
+		}
+	}
+
+	/** @return names of the arguments of the function: names of the parameters when they are valid and unique */
+	private static List<String> arguments(List<Param> params) {
+		List<String> args = new ArrayList<String>();
+		Set<String> used = new HashSet<String>();
+		for (int i = 0; i < params.size(); i++) {
+			String name = params.get(i).getName();
+			if (name == null || !IDENTIFIER.matcher(name).matches() || RESERVED_WORDS.contains(name)
+					|| used.contains(name)) {
+				name = "arg" + i;
+				while (used.contains(name)) {
+					name += "_";
+				}
+			}
+			used.add(name);
+			args.add(name);
+		}
+		return args;
+	}
+
+	private static String object(List<String> entries) {
+		return entries.isEmpty() ? "null" : "{ " + join(entries) + " }";
+	}
+
+	private static String join(List<String> values) {
+		StringBuilder joined = new StringBuilder();
+		for (String value : values) {
+			if (joined.length() > 0) {
+				joined.append(", ");
+			}
+			joined.append(value);
+		}
+		return joined.toString();
+	}
+
+	private static String jsString(String value) {
+		String quoted = new String(JsonStringEncoder.getInstance().quoteAsString(value));
+		// line terminators in JS strings, not in JSON ones
+		return "\"" + quoted.replace("\u2028", "\\u2028").replace("\u2029", "\\u2029") + "\"";
+	}
+}
@@ -0,0 +1,116 @@
+package java2typescript.jaxrs;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * JAX-RS resources and the types reachable from their methods, as recorded at compile time by the
+ * java2typescript-processor annotation processor. Indexes of all the jars and classes folders of a class loader are
+ * merged, so that a multi-module build gets the contribution of each module without scanning the classpath.
+ */
+public class ResourceIndex {
+
+	/** Same as ResourceIndexProcessor.LOCATION, without depending on the processor */
+	public static final String LOCATION = "META-INF/java2typescript/index";
+
+	private static final String RESOURCE = "resource";
+
+	private static final String TYPE = "type";
+
+	private final Set<String> resourceNames = new LinkedHashSet<String>();
+
+	private final Set<String> typeNames = new LinkedHashSet<String>();
+
+	private final List<URL> locations = new ArrayList<URL>();
+
+	private ResourceIndex() {
+	}
+
+	/** @return merged content of the indexes found by given class loader, empty if there are none */
+	public static ResourceIndex load(ClassLoader classLoader) throws IOException {
+		ResourceIndex index = new ResourceIndex();
+		Enumeration<URL> urls = classLoader.getResources(LOCATION);
+		while (urls.hasMoreElements()) {
+			index.read(urls.nextElement());
+		}
+		return index;
+	}
+
+	private void read(URL url) throws IOException {
+		locations.add(url);
+		BufferedReader in = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8));
+		try {
+			String line;
+			while ((line = in.readLine()) != null) {
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+				String[] entry = line.split(" ", 2);
+				if (entry.length == 2 && RESOURCE.equals(entry[0])) {
+					resourceNames.add(entry[1]);
+				} else if (entry.length == 2 && TYPE.equals(entry[0])) {
+					typeNames.add(entry[1]);
+				}
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+	/** @return true if no index has been found */
+	public boolean isEmpty() {
+		return locations.isEmpty();
+	}
+
+	/** @return indexes that have been read */
+	public List<URL> getLocations() {
+		return Collections.unmodifiableList(locations);
+	}
+
+	/** @return binary names of all the resources */
+	public Set<String> getResourceNames() {
+		return Collections.unmodifiableSet(resourceNames);
+	}
+
+	/**
+	 * @param packageName
+	 *            package of the resources to return, including its subpackages, all if null or empty
+	 * @return binary names of the resources of given package
+	 */
+	public List<String> getResourceNames(String packageName) {
+		List<String> names = new ArrayList<String>();
+		for (String name : resourceNames) {
+			if (packageName == null || packageName.isEmpty() || name.startsWith(packageName + ".")) {
+				names.add(name);
+			}
+		}
+		return names;
+	}
+
+	/** @return binary names of the types reachable from the methods of the resources */
+	public Set<String> getTypeNames() {
+		return Collections.unmodifiableSet(typeNames);
+	}
+
+	/**
+	 * @param packageName
+	 *            package of the resources to load, including its subpackages, all if null or empty
+	 * @return resources of given package, loaded with given class loader
+	 */
+	public List<Class<?>> loadResources(String packageName, ClassLoader classLoader) throws ClassNotFoundException {
+		List<Class<?>> classes = new ArrayList<Class<?>>();
+		for (String name : getResourceNames(packageName)) {
+			classes.add(Class.forName(name, true, classLoader));
+		}
+		return classes;
+	}
+}
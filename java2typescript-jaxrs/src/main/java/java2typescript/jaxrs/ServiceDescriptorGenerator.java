@@ -26,14 +26,18 @@ import java.io.StringWriter;
 import java.io.Writer;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 
 import java2typescript.jackson.module.Configuration;
 import java2typescript.jackson.module.DefinitionGenerator;
+import java2typescript.jackson.module.cache.ClassIntrospectionCache;
+import java2typescript.jackson.module.cache.ClassIntrospectionCache.ClassInfo;
 import java2typescript.jackson.module.grammar.AnyType;
 import java2typescript.jackson.module.grammar.ClassType;
 import java2typescript.jackson.module.grammar.FunctionType;
@@ -84,12 +88,27 @@ public class ServiceDescriptorGenerator {
 	}
 
 	private static final String JS_TEMPLATE_RES = "module-template.js";
+	private static final String PRECOMPILED_JS_TEMPLATE_RES = "precompiled-module-template.js";
+	private static final String ES_MODULE_JS_TEMPLATE_RES = "es-module-template.js";
 
 	private static final String MODULE_NAME_PLACEHOLDER = "%MODULE_NAME%";
 	private static final String JSON_PLACEHOLDER = "%JSON%";
+	private static final String CLIENT_PLACEHOLDER = "%CLIENT%";
+	private static final String EXPORTS_PLACEHOLDER = "%EXPORTS%";
+
+	/** Methods by name, then by signature for overloads */
+	private static final Comparator<Method> BY_NAME = new Comparator<Method>() {
+		@Override
+		public int compare(Method m1, Method m2) {
+			int byName = m1.getName().compareTo(m2.getName());
+			return byName != 0 ? byName : m1.toGenericString().compareTo(m2.toGenericString());
+		}
+	};
 
 	static private final String ROOT_URL_VAR = "rootUrl";
 	static private final String ADAPTER_VAR = "adapter";
+	static private final String SET_ROOT_URL_VAR = "setRootUrl";
+	static private final String SET_ADAPTER_VAR = "setAdapter";
 
 	private final Collection<? extends Class<?>> classes;
 
@@ -97,8 +116,20 @@ public class ServiceDescriptorGenerator {
 
 	private String alternateJsTemplate = null;
 
+	private boolean indentJson = true;
+
+	private boolean precompiledClient = false;
+
+	private boolean esModule = false;
+
 	private ExtraFieldProvider extras = null;
 
+	/** Replaced by the one of the configuration once {@link #generateTypeScript} is called */
+	private ClassIntrospectionCache introspectionCache = new ClassIntrospectionCache();
+
+	/** Descriptions of the services, reflected once and shared by the TypeScript and JavaScript generation */
+	private Collection<RestService> restServices;
+
 	public ServiceDescriptorGenerator(Collection<? extends Class<?>> classes) {
 		this(classes, new ObjectMapper(), null);
 	}
@@ -111,6 +142,16 @@ public class ServiceDescriptorGenerator {
 		addDummyMappingForJAXRSClasses();
 	}
 
+	/**
+	 * @param packageName
+	 *            package of the services, including its subpackages, all if null or empty
+	 * @return generator of the services listed by the compile time {@link ResourceIndex} of given class loader
+	 */
+	public static ServiceDescriptorGenerator fromResourceIndex(ClassLoader classLoader, String packageName)
+			throws IOException, ClassNotFoundException {
+		return new ServiceDescriptorGenerator(ResourceIndex.load(classLoader).loadResources(packageName, classLoader));
+	}
+
 	private class DummySerializer extends JsonSerializer<Object> {
 		@Override
 		public void serialize(Object value, JsonGenerator jgen, SerializerProvider provider) throws IOException,
@@ -128,6 +169,14 @@ public class ServiceDescriptorGenerator {
 		mapper.registerModule(module);
 	}
 
+	/** @return descriptions of the services, generated on first call */
+	private synchronized Collection<RestService> getRestServices() {
+		if (restServices == null) {
+			restServices = generateRestServices(classes);
+		}
+		return restServices;
+	}
+
 	/**
 	 * Main method to generate a REST Service desciptor out of JAX-RS service
 	 * class
@@ -149,11 +198,13 @@ public class ServiceDescriptorGenerator {
 
 			service.setPath(pathAnnotation.value());
 
-			for (Method method : clazz.getDeclaredMethods()) {
-				if (Modifier.isPublic(method.getModifiers())) {
-					RestMethod restMethod = generateMethod(method);
-					service.getMethods().put(restMethod.getName(), restMethod);
-				}
+			ClassInfo classInfo = introspectionCache.get(clazz);
+			// sorted for the descriptor not to depend on the order of reflection, which varies between runs
+			List<Method> methods = new ArrayList<Method>(classInfo.getPublicDeclaredMethods());
+			Collections.sort(methods, BY_NAME);
+			for (Method method : methods) {
+				RestMethod restMethod = generateMethod(method, classInfo);
+				service.getMethods().put(restMethod.getName(), restMethod);
 			}
 
 			if (extras != null) {
@@ -171,19 +222,58 @@ public class ServiceDescriptorGenerator {
 	 */
 	public Module generateTypeScript(String moduleName, Configuration configutation) throws JsonMappingException {
 
+		if (configutation != null) {
+			introspectionCache = configutation.getIntrospectionCache();
+		}
+
 		// Generates Typescript module out of service classses definition
 		DefinitionGenerator defGen = new DefinitionGenerator(mapper);
 		Module module = defGen.generateTypeScript(moduleName, classes, configutation);
+		decorate(module);
+		return module;
+	}
 
+	private void decorate(Module module) {
 		// For each rest service, update methods with parameter names, got from Rest service descriptor 
-		for (RestService restService : generateRestServices(classes)) {
+		for (RestService restService : getRestServices()) {
 			ClassType classDef = (ClassType) module.getNamedTypes().get(restService.getName());
 			decorateParamNames(restService, classDef);
 		}
 
 		addModuleVars(module, classes);
+		if (esModule) {
+			addEsModuleExports(module);
+		}
+	}
 
-		return module;
+	/**
+	 * Generates both the typescript definition and the JS implementation of the services, out of a single reflection
+	 * of the services
+	 */
+	public GeneratedServices generate(String moduleName, Configuration configuration) throws JsonMappingException {
+		Module module = generateTypeScript(moduleName, configuration);
+		return new GeneratedServices(this, moduleName, module, getRestServices());
+	}
+
+	/**
+	 * Generates the services as {@link #generate(String, Configuration)} does, once some of the types of a previous
+	 * module changed: only the services, the changed types and the types depending on them are generated again, see
+	 * {@link DefinitionGenerator#regenerateTypeScript}
+	 * 
+	 * @param previous
+	 *            module previously generated for the services, left unchanged
+	 * @param changedTypeNames
+	 *            names of the types of the previous module whose classes changed
+	 */
+	public GeneratedServices regenerate(Module previous, Collection<String> changedTypeNames,
+			Configuration configuration) throws IOException {
+		if (configuration != null) {
+			introspectionCache = configuration.getIntrospectionCache();
+		}
+		DefinitionGenerator defGen = new DefinitionGenerator(mapper);
+		Module module = defGen.regenerateTypeScript(previous, changedTypeNames, classes, configuration);
+		decorate(module);
+		return new GeneratedServices(this, previous.getName(), module, getRestServices());
 	}
 
 	/** Generate JS implementation 
@@ -192,11 +282,11 @@ public class ServiceDescriptorGenerator {
 	 * @throws JsonGenerationException */
 	public void generateJavascript(String moduleName, Writer writer) throws JsonGenerationException,
 			JsonMappingException, IOException {
+		writeJavascript(moduleName, getRestServices(), writer);
+	}
 
-		// Generate JSON as String
-		StringWriter jsonOut = new StringWriter();
-		Collection<RestService> restServices = this.generateRestServices(classes);
-		RestService.toJSON(restServices, jsonOut);
+	void writeJavascript(String moduleName, Collection<RestService> restServices, Writer writer)
+			throws IOException {
 
 		// Read template content
 		final String jsTemplate;
@@ -204,35 +294,51 @@ public class ServiceDescriptorGenerator {
 			jsTemplate = alternateJsTemplate;
 		} else {
 			jsTemplate = com.google.common.io.Resources.toString(//
-				ServiceDescriptorGenerator.class.getResource(JS_TEMPLATE_RES), //
+				ServiceDescriptorGenerator.class.getResource(esModule ? ES_MODULE_JS_TEMPLATE_RES
+						: precompiledClient ? PRECOMPILED_JS_TEMPLATE_RES : JS_TEMPLATE_RES), //
 				Charset.defaultCharset());
 		}
 
 		// Replace template values
 		String out = jsTemplate.replace(MODULE_NAME_PLACEHOLDER, moduleName);
-		out = out.replace(JSON_PLACEHOLDER, jsonOut.toString());
+		if (out.contains(JSON_PLACEHOLDER)) {
+			// Generate JSON as String
+			StringWriter jsonOut = new StringWriter();
+			RestService.toJSON(restServices, jsonOut, indentJson);
+			out = out.replace(JSON_PLACEHOLDER, jsonOut.toString());
+		}
+		if (out.contains(CLIENT_PLACEHOLDER)) {
+			StringWriter clientOut = new StringWriter();
+			new PrecompiledClientWriter(clientOut, false).write(restServices);
+			out = out.replace(CLIENT_PLACEHOLDER, clientOut.toString());
+		}
+		if (out.contains(EXPORTS_PLACEHOLDER)) {
+			StringWriter exportsOut = new StringWriter();
+			new PrecompiledClientWriter(exportsOut, true).write(restServices);
+			out = out.replace(EXPORTS_PLACEHOLDER, exportsOut.toString());
+		}
 		writer.write(out);
 	}
 
-	private RestMethod generateMethod(Method method) {
+	private RestMethod generateMethod(Method method, ClassInfo classInfo) {
 
 		RestMethod restMethod = new RestMethod();
-		Path pathAnnotation = method.getAnnotation(Path.class);
+		Path pathAnnotation = classInfo.getAnnotation(method, Path.class);
 
 		restMethod.setPath(pathAnnotation == null ? "" : pathAnnotation.value());
 
 		restMethod.setName(method.getName());
 
-		if (method.getAnnotation(GET.class) != null) {
+		if (classInfo.getAnnotation(method, GET.class) != null) {
 			restMethod.setHttpMethod(HttpMethod.GET);
 		}
-		if (method.getAnnotation(POST.class) != null) {
+		if (classInfo.getAnnotation(method, POST.class) != null) {
 			restMethod.setHttpMethod(HttpMethod.POST);
 		}
-		if (method.getAnnotation(PUT.class) != null) {
+		if (classInfo.getAnnotation(method, PUT.class) != null) {
 			restMethod.setHttpMethod(HttpMethod.PUT);
 		}
-		if (method.getAnnotation(DELETE.class) != null) {
+		if (classInfo.getAnnotation(method, DELETE.class) != null) {
 			restMethod.setHttpMethod(HttpMethod.DELETE);
 		}
 
@@ -240,7 +346,7 @@ public class ServiceDescriptorGenerator {
 			throw new RuntimeException("No Http method defined for method : " + method.getName());
 		}
 
-		restMethod.setParams(generateParams(method));
+		restMethod.setParams(generateParams(method, classInfo));
 
 		if (extras != null) {
 			restMethod.setExtra(extras.getExtraForMethod(method));
@@ -249,9 +355,9 @@ public class ServiceDescriptorGenerator {
 		return restMethod;
 	}
 
-	private List<Param> generateParams(Method method) {
+	private List<Param> generateParams(Method method, ClassInfo classInfo) {
 		List<Param> params = new ArrayList<Param>();
-		for (Annotation[] annotations : method.getParameterAnnotations()) {
+		for (Annotation[] annotations : classInfo.getParameterAnnotations(method)) {
 			Param param = new Param();
 			param.setType(BODY); // By default, in case of no annotation
 			param.setName("body");
@@ -306,17 +412,8 @@ public class ServiceDescriptorGenerator {
 	private void addModuleVars(Module module, Collection<? extends Class<?>> serviceClasses) {
 		module.getVars().put(ROOT_URL_VAR, StringType.getInstance());
 
-		// Adapter function 
-		FunctionType adapterFuncType = new FunctionType();
-		adapterFuncType.setResultType(VoidType.getInstance());
-		adapterFuncType.getParameters().put("httpMethod", StringType.getInstance());
-		adapterFuncType.getParameters().put("path", StringType.getInstance());
-		adapterFuncType.getParameters().put("getParams", ClassType.getObjectClass());
-		adapterFuncType.getParameters().put("postParams", ClassType.getObjectClass());
-		adapterFuncType.getParameters().put("body", AnyType.getInstance());
-
 		module.getVars().put(ROOT_URL_VAR, StringType.getInstance());
-		module.getVars().put(ADAPTER_VAR, adapterFuncType);
+		module.getVars().put(ADAPTER_VAR, createAdapterFuncType());
 
 		// Generate : var someService : SomeService;
 		for (Class<?> clazz : serviceClasses) {
@@ -328,7 +425,70 @@ public class ServiceDescriptorGenerator {
 
 	}
 
+	/** Adapter function */
+	private static FunctionType createAdapterFuncType() {
+		FunctionType adapterFuncType = new FunctionType();
+		adapterFuncType.setResultType(VoidType.getInstance());
+		adapterFuncType.getParameters().put("httpMethod", StringType.getInstance());
+		adapterFuncType.getParameters().put("path", StringType.getInstance());
+		adapterFuncType.getParameters().put("getParams", ClassType.getObjectClass());
+		adapterFuncType.getParameters().put("postParams", ClassType.getObjectClass());
+		adapterFuncType.getParameters().put("body", AnyType.getInstance());
+		return adapterFuncType;
+	}
+
+	/**
+	 * Declare the exports of the ES module of the services besides the vars of given module: setters of the root URL
+	 * and of the adapter, whose vars cannot be assigned once imported, and the function of each REST method. Done by
+	 * {@link #generateTypeScript} once {@link #setEsModule} is set, to be called for modules generated otherwise.
+	 */
+	public void addEsModuleExports(Module module) {
+		FunctionType setRootUrl = new FunctionType();
+		setRootUrl.setResultType(VoidType.getInstance());
+		setRootUrl.getParameters().put("url", StringType.getInstance());
+		module.getVars().put(SET_ROOT_URL_VAR, setRootUrl);
+
+		FunctionType setAdapter = new FunctionType();
+		setAdapter.setResultType(VoidType.getInstance());
+		setAdapter.getParameters().put("restAdapter", createAdapterFuncType());
+		module.getVars().put(SET_ADAPTER_VAR, setAdapter);
+
+		// Generate : var someService_someMethod : (someParam: string)=> void;
+		Map<RestService, Map<String, String>> exportNames = PrecompiledClientWriter.exportNames(getRestServices());
+		for (RestService restService : getRestServices()) {
+			ClassType classDef = (ClassType) module.getNamedTypes().get(restService.getName());
+			for (Map.Entry<String, String> exportName : exportNames.get(restService).entrySet()) {
+				module.getVars().put(exportName.getValue(), classDef.getMethods().get(exportName.getKey()));
+			}
+		}
+	}
+
 	public void setAlternateJsTemplate(String alternateJsTemplate) {
 		this.alternateJsTemplate = alternateJsTemplate;
 	}
+
+	/**
+	 * @param precompiledClient
+	 *            true for the default JS template to implement each REST method with a dedicated function, instead of
+	 *            interpreting the JSON descriptor of the services on each call. Alternate templates can use the
+	 *            %CLIENT% placeholder for that in any case.
+	 */
+	public void setPrecompiledClient(boolean precompiledClient) {
+		this.precompiledClient = precompiledClient;
+	}
+
+	/**
+	 * @param esModule
+	 *            true for the default JS template to be an ES module, whose services and REST methods are named exports
+	 *            so that bundlers can leave out the unused ones, and for the typescript module to declare these
+	 *            exports. Alternate templates can use the %EXPORTS% placeholder for the exports in any case.
+	 */
+	public void setEsModule(boolean esModule) {
+		this.esModule = esModule;
+	}
+
+	/** @param indentJson false to write the JSON descriptor of the services in the JS without any whitespace */
+	public void setIndentJson(boolean indentJson) {
+		this.indentJson = indentJson;
+	}
 }
@@ -15,7 +15,10 @@
  ******************************************************************************/
 package java2typescript.jaxrs.model;
 
+import java.io.IOException;
+
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonGenerator;
 
 public class Param {
 	private String name;
@@ -47,4 +50,11 @@ public class Param {
 	public void setContext(boolean context) {
 		this.context = context;
 	}
+
+	void writeJSON(JsonGenerator generator) throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("name", name);
+		generator.writeStringField("type", type == null ? null : type.name());
+		generator.writeEndObject();
+	}
 }
@@ -15,9 +15,11 @@
  ******************************************************************************/
 package java2typescript.jaxrs.model;
 
+import java.io.IOException;
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonGenerator;
 
 public class RestMethod {
 
@@ -68,4 +70,24 @@ public class RestMethod {
 		this.extra = extra;
 	}
 
+
+	void writeJSON(JsonGenerator generator) throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("path", path);
+		if (params == null) {
+			generator.writeNullField("params");
+		} else {
+			generator.writeArrayFieldStart("params");
+			for (Param param : params) {
+				// technical parameters, not part of the client API
+				if (!param.isContext()) {
+					param.writeJSON(generator);
+				}
+			}
+			generator.writeEndArray();
+		}
+		generator.writeStringField("httpMethod", httpMethod == null ? null : httpMethod.name());
+		generator.writeObjectField("extra", extra);
+		generator.writeEndObject();
+	}
 }
@@ -15,25 +15,22 @@
  ******************************************************************************/
 package java2typescript.jaxrs.model;
 
-import static com.fasterxml.jackson.databind.SerializationFeature.INDENT_OUTPUT;
-
 import java.io.IOException;
 import java.io.Writer;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 
-import com.esotericsoftware.kryo.Kryo;
-import com.fasterxml.jackson.core.JsonGenerationException;
-import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 /** Root descrpition of a service */
 public class RestService {
 
+	/** Writes the extras of the descriptors */
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
 	private String name;
 	private String path;
 	private Object extra;
@@ -68,35 +65,44 @@ public class RestService {
 	}
 
 	/**
-	 * Dump a JSON representation of the REST services
+	 * Dump an indented JSON representation of the REST services
 	 */
-	static public void toJSON(Collection<RestService> services, Writer writer) throws JsonGenerationException,
-			JsonMappingException, IOException {
-
-		ObjectMapper mapper = new ObjectMapper();
-		mapper.configure(INDENT_OUTPUT, true);
+	static public void toJSON(Collection<RestService> services, Writer writer) throws IOException {
+		toJSON(services, writer, true);
+	}
 
-		List<RestService> restServivcesWithoutParams = new ArrayList<RestService>();
-		for (RestService restService : services) {
-			restServivcesWithoutParams.add(copyWithoutContextParams(restService));
+	/**
+	 * Stream a JSON representation of the REST services to given writer, which is left open. @Context parameters are
+	 * left out.
+	 *
+	 * @param indent
+	 *            false for compact JSON
+	 */
+	static public void toJSON(Collection<RestService> services, Writer writer, boolean indent) throws IOException {
+		JsonGenerator generator = MAPPER.getFactory().createGenerator(writer);
+		generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		if (indent) {
+			generator.useDefaultPrettyPrinter();
 		}
-
-		mapper.writeValue(writer, restServivcesWithoutParams);
+		generator.writeStartArray();
+		for (RestService service : services) {
+			service.writeJSON(generator);
+		}
+		generator.writeEndArray();
+		generator.close();
 	}
 
-	/** Re,ove @Context parameters from JSON definition before rendering */
-	static private RestService copyWithoutContextParams(RestService restService) {
-		Kryo kryo = new Kryo();
-		RestService res = kryo.copy(restService);
-		for (RestMethod method : res.getMethods().values()) {
-			Iterator<Param> paramsIt = method.getParams().iterator();
-			while (paramsIt.hasNext()) {
-				Param param = paramsIt.next();
-				if (param.isContext()) {
-					paramsIt.remove();
-				}
-			}
+	private void writeJSON(JsonGenerator generator) throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("name", name);
+		generator.writeStringField("path", path);
+		generator.writeObjectField("extra", extra);
+		generator.writeObjectFieldStart("methods");
+		for (Entry<String, RestMethod> method : methods.entrySet()) {
+			generator.writeFieldName(method.getKey());
+			method.getValue().writeJSON(generator);
 		}
-		return res;
+		generator.writeEndObject();
+		generator.writeEndObject();
 	}
 }
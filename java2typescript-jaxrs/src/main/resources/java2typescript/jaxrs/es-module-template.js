@@ -0,0 +1,49 @@
+// java2ts ES module, with one export per service and per REST method
+
+// >> Jquery adapter for REST calls
+function jQueryAdapter(httpMethod, url, getParams, postParams, body) {
+  var processData = true;
+  var data;
+  if (getParams != null) {
+    // in URL
+    data = getParams;
+  } else if (postParams != null) {
+    // as form Params
+    data = postParams;
+  } else if (body != null) {
+    // as JSON in body
+    data = JSON.stringify(body);
+    processData = false;
+  }
+
+  jQuery.ajax({
+    type : httpMethod,
+    url : url,
+    processData : processData,
+    data : data
+  }).done(function(data) {
+    console.log(data);
+  })
+} // end of jQuery adapter
+
+export let rootUrl = null;
+
+// JQuery by default
+export let adapter = jQueryAdapter;
+
+export function setRootUrl(url) {
+  rootUrl = url;
+}
+
+export function setAdapter(restAdapter) {
+  adapter = restAdapter;
+}
+
+function baseUrl() {
+  if (rootUrl == null) {
+    throw new Error("rootUrl is null, set it before calling rest methods");
+  }
+  return rootUrl;
+}
+
+%EXPORTS%
\ No newline at end of file
@@ -0,0 +1,41 @@
+// java2ts module, with one function per REST method
+j2ts = {
+  
+  // -- Adapters for REST calls
+  adapters : {
+  
+     // >> To console
+     console: function(httpMethod, path, getParams, postParams, body) {
+       console.log([httpMethod, path, getParams, postParams, body]);
+     },
+  
+     // >> Jquery
+     jQuery : function jQueryAdapter(httpMethod, url, getParams, postParams, body) {
+       var processData = true;
+       var data;
+     if (getParams != null) {
+       // in URL
+       data = getParams;
+     } else if (postParams != null) {
+       // as form Params
+       data = postParams;
+     } else if (body != null) {
+       // as JSON in body
+       data = JSON.stringify(body);
+       processData = false;
+     }
+ 
+     jQuery.ajax({
+       type : httpMethod,
+       url : url,
+       processData : processData,
+       data : data
+     }).done(function(data) {
+       console.log(data);
+     })
+    } // end of jQuery adapter
+  } // end of adapters
+
+} // end of j2ts module definition
+
+%MODULE_NAME% = %CLIENT%;
@@ -15,11 +15,24 @@
  ******************************************************************************/
 package java2typescript.jaxrs;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+import java2typescript.jackson.module.Configuration;
+import java2typescript.jackson.module.grammar.ClassType;
 import java2typescript.jackson.module.grammar.Module;
+import java2typescript.jackson.module.writer.ExternalModuleFormatWriter;
 
 import javax.ws.rs.FormParam;
 import javax.ws.rs.GET;
@@ -27,6 +40,8 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.UriInfo;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -66,6 +81,30 @@ public class DescriptorGeneratorTest {
 
 	}
 
+	@Path("/context")
+	static private interface ContextService {
+
+		@Path("/{id}")
+		@GET
+		public String get(@Context UriInfo uriInfo, @PathParam("id") String id);
+	}
+
+	@Path("/foo")
+	static private interface Foo {
+
+		@Path("/bar_baz")
+		@GET
+		public String bar_baz();
+	}
+
+	@Path("/foo_bar")
+	static private interface Foo_bar {
+
+		@Path("/baz")
+		@GET
+		public String baz();
+	}
+
 	@Before
 	public void setUp() {
 		out = new OutputStreamWriter(System.out);
@@ -92,4 +131,177 @@ public class DescriptorGeneratorTest {
 		Module tsModule = descGen.generateTypeScript("modName", null);
 		tsModule.write(out);
 	}
+
+	@Test
+	public void servicesReflectedOnceForBothOutputs() throws IOException {
+		final List<String> calls = new ArrayList<String>();
+		ServiceDescriptorGenerator.ExtraFieldProvider extras = new ServiceDescriptorGenerator.ExtraFieldProvider() {
+			@Override
+			public Object getExtraForService(Class<?> clazz) {
+				calls.add(clazz.getSimpleName());
+				return null;
+			}
+
+			@Override
+			public Object getExtraForMethod(Method method) {
+				calls.add(method.getName());
+				return null;
+			}
+		};
+		ServiceDescriptorGenerator descGen = new ServiceDescriptorGenerator(
+				Collections.singletonList(ExampleService.class), new ObjectMapper(), extras);
+		GeneratedServices services = descGen.generate("modName", null);
+		StringWriter ts = new StringWriter();
+		services.getModule().write(ts);
+		StringWriter js = new StringWriter();
+		services.writeJavascript(js);
+		assertEquals(3, calls.size());
+		assertEquals(1, services.getRestServices().size());
+
+		// same outputs as separate generations
+		ServiceDescriptorGenerator separateGen = new ServiceDescriptorGenerator(
+				Collections.singletonList(ExampleService.class));
+		StringWriter separateTs = new StringWriter();
+		separateGen.generateTypeScript("modName", null).write(separateTs);
+		StringWriter separateJs = new StringWriter();
+		separateGen.generateJavascript("modName", separateJs);
+		assertEquals(separateTs.toString(), ts.toString());
+		assertEquals(separateJs.toString(), js.toString());
+	}
+
+	@Test
+	public void compactDescriptorWithoutContextParams() throws IOException {
+		ServiceDescriptorGenerator.ExtraFieldProvider extras = new ServiceDescriptorGenerator.ExtraFieldProvider() {
+			@Override
+			public Object getExtraForService(Class<?> clazz) {
+				return Arrays.asList("admin", "user");
+			}
+
+			@Override
+			public Object getExtraForMethod(Method method) {
+				return null;
+			}
+		};
+		ServiceDescriptorGenerator descGen = new ServiceDescriptorGenerator(
+				Collections.singletonList(ContextService.class), new ObjectMapper(), extras);
+		descGen.setAlternateJsTemplate("%JSON%");
+		descGen.setIndentJson(false);
+		StringWriter js = new StringWriter();
+		descGen.generateJavascript("modName", js);
+		assertEquals("[{\"name\":\"ContextService\",\"path\":\"/context\",\"extra\":[\"admin\",\"user\"],"
+				+ "\"methods\":{\"get\":{\"path\":\"/{id}\",\"params\":[{\"name\":\"id\",\"type\":\"PATH\"}],"
+				+ "\"httpMethod\":\"GET\",\"extra\":null}}}]", js.toString());
+	}
+
+	@Test
+	public void precompiledClientFunctions() throws IOException {
+		ServiceDescriptorGenerator descGen = new ServiceDescriptorGenerator(Arrays.asList(ExampleService.class,
+				ContextService.class));
+		descGen.setAlternateJsTemplate("%MODULE_NAME% = %CLIENT%;");
+		StringWriter js = new StringWriter();
+		descGen.generateJavascript("modName", js);
+		String generated = js.toString();
+
+		assertTrue(generated.startsWith("modName = (function() {"));
+		assertTrue(generated.contains("  function exampleService_aGetMethod(q1, id, formParam, body) {\n"
+				+ "    outModule.adapter(\"GET\", rootUrl() + \"//\" + id, { \"q1\" : q1 }, "
+				+ "{ \"formParam\" : formParam }, body);\n"));
+		assertTrue(generated.contains("  outModule.exampleService = {\n"
+				+ "    \"aGetMethod\" : exampleService_aGetMethod,\n"
+				+ "    \"aPostMethod\" : exampleService_aPostMethod\n  };\n"));
+		// context parameters are not arguments of the client
+		assertTrue(generated.contains("  function contextService_get(id) {\n"
+				+ "    outModule.adapter(\"GET\", rootUrl() + \"/context/\" + id, null, null, null);\n"));
+	}
+
+	@Test
+	public void esModuleExports() throws IOException {
+		ServiceDescriptorGenerator descGen = new ServiceDescriptorGenerator(Arrays.asList(ExampleService.class,
+				ContextService.class));
+		descGen.setEsModule(true);
+		GeneratedServices services = descGen.generate("modName", null);
+		StringWriter js = new StringWriter();
+		services.writeJavascript(js);
+		String generated = js.toString();
+
+		assertTrue(generated.contains("export function exampleService_aGetMethod(q1, id, formParam, body) {\n"
+				+ "  adapter(\"GET\", baseUrl() + \"//\" + id, { \"q1\" : q1 }, { \"formParam\" : formParam }, body);\n"
+				+ "}\n"));
+		assertTrue(generated.contains("export const contextService = {\n"
+				+ "  \"get\" : contextService_get\n};\n"));
+		// no global
+		assertFalse(generated.contains("modName"));
+
+		// exports declared by the typescript module
+		StringWriter ts = new StringWriter();
+		new ExternalModuleFormatWriter().write(services.getModule(), ts);
+		String declared = ts.toString();
+		assertTrue(declared.contains("export var contextService: ContextService;"));
+		assertTrue(declared.contains("export var contextService_get: (id: string)=> string;"));
+		assertTrue(declared.contains("export var setRootUrl: (url: string)=> void;"));
+	}
+
+	@Test
+	public void collidingExportNamesAreDisambiguated() throws IOException {
+		ServiceDescriptorGenerator descGen = new ServiceDescriptorGenerator(Arrays.asList(Foo.class, Foo_bar.class));
+		descGen.setEsModule(true);
+		GeneratedServices services = descGen.generate("modName", null);
+		StringWriter js = new StringWriter();
+		services.writeJavascript(js);
+		String generated = js.toString();
+
+		assertTrue(generated.contains("export function foo_bar_baz() {\n  adapter(\"GET\", baseUrl() + \"/foo/bar_baz\""));
+		assertTrue(generated.contains("export function foo_bar_baz2() {\n  adapter(\"GET\", baseUrl() + \"/foo_bar/baz\""));
+		assertTrue(generated.contains("export const foo = {\n  \"bar_baz\" : foo_bar_baz\n};\n"));
+		assertTrue(generated.contains("export const foo_bar = {\n  \"baz\" : foo_bar_baz2\n};\n"));
+
+		StringWriter ts = new StringWriter();
+		new ExternalModuleFormatWriter().write(services.getModule(), ts);
+		String declared = ts.toString();
+		assertTrue(declared.contains("export var foo_bar_baz: ()=> string;"));
+		assertTrue(declared.contains("export var foo_bar_baz2: ()=> string;"));
+	}
+
+	@Test
+	public void regeneratedServicesSameAsGenerated() throws IOException {
+		ServiceDescriptorGenerator descGen = new ServiceDescriptorGenerator(
+				Collections.singletonList(ExampleService.class));
+		descGen.setEsModule(true);
+		GeneratedServices services = descGen.generate("modName", null);
+		String expected = write(services.getModule());
+
+		ServiceDescriptorGenerator regenerator = new ServiceDescriptorGenerator(
+				Collections.singletonList(ExampleService.class));
+		regenerator.setEsModule(true);
+		GeneratedServices regenerated = regenerator.regenerate(services.getModule(),
+				Collections.singleton("MyObject"), null);
+		assertEquals(expected, write(regenerated.getModule()));
+		assertEquals("modName", regenerated.getModule().getName());
+	}
+
+	private static String write(Module module) throws IOException {
+		StringWriter ts = new StringWriter();
+		new ExternalModuleFormatWriter().write(module, ts);
+		return ts.toString();
+	}
+
+	@Test
+	public void servicesDescribedOutOfTheClassFilter() throws IOException {
+		Configuration conf = new Configuration();
+		conf.setClassFilter(new Predicate<Class<?>>() {
+			@Override
+			public boolean test(Class<?> clazz) {
+				return false;
+			}
+		});
+		ServiceDescriptorGenerator descGen = new ServiceDescriptorGenerator(
+				Collections.singletonList(ExampleService.class));
+		Module module = descGen.generate("modName", conf).getModule();
+
+		ClassType service = (ClassType) module.getNamedTypes().get("ExampleService");
+		assertEquals(new ArrayList<String>(service.getMethods().get("aGetMethod").getParameters().keySet()),
+				Arrays.asList("q1", "id", "formParam", "body"));
+		// reached types are only referenced
+		assertFalse(module.getNamedTypes().containsKey("MyObject"));
+	}
 }
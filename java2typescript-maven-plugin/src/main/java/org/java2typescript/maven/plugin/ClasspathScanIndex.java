@@ -0,0 +1,237 @@
+package org.java2typescript.maven.plugin;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import org.apache.maven.plugin.logging.Log;
+
+import io.github.lukehutch.fastclasspathscanner.FastClasspathScanner;
+
+/**
+ * Names of the classes with a given annotation found by scanning the classpath, persisted between builds. Each jar or
+ * classes folder is scanned again only if it changed since the previous build: jars are compared by size and
+ * modification time, then by checksum, folders by the sizes and modification times of the files under the scanned
+ * package. Changed elements are scanned in parallel.
+ */
+class ClasspathScanIndex {
+
+	private static final String FORMAT = "java2typescript-scan-index 1";
+
+	private final File file;
+
+	private final String packageName;
+
+	private final Class<? extends Annotation> annotation;
+
+	/**
+	 * @param file
+	 *            where the index is kept between builds
+	 * @param packageName
+	 *            package (and subpackages) to scan, all if empty
+	 */
+	ClasspathScanIndex(File file, String packageName, Class<? extends Annotation> annotation) {
+		this.file = file;
+		this.packageName = packageName == null ? "" : packageName;
+		this.annotation = annotation;
+	}
+
+	/**
+	 * @param skippedElements
+	 *            canonical jars and classes folders not to scan, whose classes are known otherwise
+	 * @return names of the annotated classes, in classpath order
+	 */
+	List<String> getClassNames(Set<File> skippedElements, Log log) throws IOException {
+		List<File> elements = new ArrayList<>();
+		for (File element : new FastClasspathScanner(packageName).getUniqueClasspathElements()) {
+			if (!skippedElements.contains(element.getCanonicalFile())) {
+				elements.add(element);
+			}
+		}
+		Map<String, Entry> previous = load();
+		Map<String, Entry> current = new LinkedHashMap<>();
+		List<Entry> changed = new ArrayList<>();
+		for (File element : elements) {
+			Entry entry = new Entry(element.getAbsolutePath());
+			entry.stamp = stamp(element);
+			Entry previousEntry = previous.get(entry.path);
+			if (previousEntry != null && previousEntry.stamp.equals(entry.stamp)) {
+				entry.checksum = previousEntry.checksum;
+				entry.classNames = previousEntry.classNames;
+			} else {
+				if (element.isFile()) {
+					entry.checksum = checksum(element);
+				}
+				if (previousEntry != null && element.isFile() && entry.checksum == previousEntry.checksum) {
+					// jar rebuilt with the same content
+					entry.classNames = previousEntry.classNames;
+				} else {
+					changed.add(entry);
+				}
+			}
+			current.put(entry.path, entry);
+		}
+		scan(changed);
+		log.info("Scanned " + changed.size() + " of " + elements.size() + " classpath elements for @"
+				+ annotation.getSimpleName() + ", others unchanged since previous build");
+		save(current.values());
+
+		Set<String> classNames = new LinkedHashSet<>();
+		for (Entry entry : current.values()) {
+			classNames.addAll(entry.classNames);
+		}
+		return new ArrayList<>(classNames);
+	}
+
+	private void scan(List<Entry> entries) throws IOException {
+		if (entries.isEmpty()) {
+			return;
+		}
+		int threads = Math.min(entries.size(), Runtime.getRuntime().availableProcessors());
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<List<String>>> results = new ArrayList<>();
+			for (Entry entry : entries) {
+				results.add(executor.submit(() -> {
+					List<String> names = new FastClasspathScanner(packageName)
+						.overrideClasspath(entry.path)
+						.scan(1)
+						.getNamesOfClassesWithAnnotation(annotation);
+					List<String> sorted = new ArrayList<>(names);
+					Collections.sort(sorted);
+					return sorted;
+				}));
+			}
+			for (int i = 0; i < entries.size(); i++) {
+				entries.get(i).classNames = results.get(i).get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while scanning the classpath", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Failed to scan the classpath", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/** @return quick to compute value that changes when given jar or folder changes */
+	private String stamp(File element) throws IOException {
+		if (element.isFile()) {
+			return element.length() + ":" + element.lastModified();
+		}
+		Path root = element.toPath().resolve(packageName.replace('.', '/'));
+		if (!Files.isDirectory(root)) {
+			return "empty";
+		}
+		List<Path> files;
+		try (Stream<Path> walk = Files.walk(root)) {
+			files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+		}
+		CRC32 crc = new CRC32();
+		for (Path path : files) {
+			File f = path.toFile();
+			crc.update((root.relativize(path) + ":" + f.length() + ":" + f.lastModified() + "\n")
+				.getBytes(StandardCharsets.UTF_8));
+		}
+		return files.size() + ":" + crc.getValue();
+	}
+
+	private static long checksum(File jar) throws IOException {
+		CRC32 crc = new CRC32();
+		byte[] buffer = new byte[64 * 1024];
+		try (InputStream in = Files.newInputStream(jar.toPath())) {
+			int read;
+			while ((read = in.read(buffer)) > 0) {
+				crc.update(buffer, 0, read);
+			}
+		}
+		return crc.getValue();
+	}
+
+	private String header() {
+		return FORMAT + "\t" + packageName + "\t" + annotation.getName();
+	}
+
+	private Map<String, Entry> load() throws IOException {
+		Map<String, Entry> entries = new LinkedHashMap<>();
+		if (!file.isFile()) {
+			return entries;
+		}
+		try (BufferedReader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+			if (!header().equals(in.readLine())) {
+				// other format or scan settings
+				return entries;
+			}
+			Entry entry = null;
+			String line;
+			while ((line = in.readLine()) != null) {
+				if (line.startsWith("\t")) {
+					entry.classNames.add(line.substring(1));
+				} else {
+					String[] fields = line.split("\t");
+					entry = new Entry(fields[0]);
+					entry.stamp = fields[1];
+					entry.checksum = Long.parseLong(fields[2]);
+					entry.classNames = new ArrayList<>();
+					entries.put(entry.path, entry);
+				}
+			}
+		} catch (RuntimeException e) {
+			// corrupted index, everything is scanned again
+			entries.clear();
+		}
+		return entries;
+	}
+
+	private void save(Iterable<Entry> entries) throws IOException {
+		file.getAbsoluteFile().getParentFile().mkdirs();
+		try (BufferedWriter out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+			out.write(header());
+			out.write('\n');
+			for (Entry entry : entries) {
+				out.write(entry.path + "\t" + entry.stamp + "\t" + entry.checksum + "\n");
+				for (String className : entry.classNames) {
+					out.write("\t" + className + "\n");
+				}
+			}
+		}
+	}
+
+	/** Jar or classes folder of the classpath, with the annotated classes it contains */
+	private static class Entry {
+
+		final String path;
+
+		String stamp;
+
+		/** of jars, 0 for folders */
+		long checksum;
+
+		List<String> classNames;
+
+		Entry(String path) {
+			this.path = path;
+		}
+	}
+}
@@ -1,9 +1,7 @@
 package org.java2typescript.maven.plugin;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
@@ -12,15 +10,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
-import javax.ws.rs.Path;
-
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
 
-import io.github.lukehutch.fastclasspathscanner.FastClasspathScanner;
 import java2typescript.jackson.module.Configuration;
+import java2typescript.jackson.module.cache.TypeCache;
 import java2typescript.jackson.module.grammar.AnyType;
 import java2typescript.jackson.module.grammar.ClassType;
 import java2typescript.jackson.module.grammar.FunctionType;
@@ -28,8 +25,12 @@ import java2typescript.jackson.module.grammar.Module;
 import java2typescript.jackson.module.grammar.VoidType;
 import java2typescript.jackson.module.grammar.base.AbstractNamedType;
 import java2typescript.jackson.module.grammar.base.AbstractType;
+import java2typescript.jackson.module.metrics.GenerationMetrics;
+import java2typescript.jackson.module.metrics.GenerationPhase;
+import java2typescript.jackson.module.metrics.PhaseTimer;
 import java2typescript.jackson.module.writer.ExternalModuleFormatWriter;
-import java2typescript.jackson.module.writer.ModuleWriter;
+import java2typescript.jackson.module.writer.MultiFileModuleWriter;
+import java2typescript.jaxrs.GeneratedServices;
 import java2typescript.jaxrs.ServiceDescriptorGenerator;
 import java2typescript.jaxrs.ServiceDescriptorGenerator.ExtraFieldProvider;
 import rx.functions.Func1;
@@ -46,30 +47,24 @@ public class CustomMojo extends AbstractMojo {
 
 	private static class MyModuleWriter extends ExternalModuleFormatWriter {
 
-		private final String whitelistPackage;
-
-		public MyModuleWriter(String whitelistPackage) {
-			this.whitelistPackage = whitelistPackage;
-		}
+		private static final String HEADER = "import { Subscribable as Observable } from 'rxjs/Observable';\n\n";
 
 		@Override
 		public void write(Module module, Writer writer) throws IOException {
-			Collection<AbstractNamedType> types = module.getNamedTypes().values();
-			types.removeIf(type -> {
-				if (type instanceof GeneratedClassType) {
-					return false;
-				}
-				return !type.getJavaClass().getName().startsWith(whitelistPackage);
-			});
-			types.stream()
+			prepare(module);
+			writer.write(HEADER);
+			super.write(module, writer);
+		}
+
+		/** Make service methods return observables */
+		public void prepare(Module module) {
+			module.getNamedTypes().values().stream()
 				.filter(type -> !(type instanceof GeneratedClassType))
 				.filter(ClassType.class::isInstance)
 				.map(ClassType.class::cast)
 				.forEach(type -> {
 					type.getMethods().values().forEach(this::wrapInObservable);
 				});
-			writer.write("import { Subscribable as Observable } from 'rxjs/Observable';\n\n");
-			super.write(module, writer);
 		}
 
 		private void wrapInObservable(FunctionType method) {
@@ -77,15 +72,26 @@ public class CustomMojo extends AbstractMojo {
 		}
 
 		private AbstractType wrapInObservable(AbstractType original) {
-			if (original instanceof VoidType) return original;
-			return new AbstractType() {
-				@Override
-				public void write(Writer writer) throws IOException {
-					writer.write("Observable<");
-					original.write(writer);
-					writer.write(">");
-				}
-			};
+			// types reused by a regenerated module are already prepared
+			if (original instanceof VoidType || original instanceof ObservableType) return original;
+			return new ObservableType(original);
+		}
+
+	}
+
+	private static class ObservableType extends AbstractType {
+
+		private final AbstractType type;
+
+		public ObservableType(AbstractType type) {
+			this.type = type;
+		}
+
+		@Override
+		public void write(Writer writer) throws IOException {
+			writer.write("Observable<");
+			type.write(writer);
+			writer.write(">");
 		}
 
 	}
@@ -192,6 +198,48 @@ public class CustomMojo extends AbstractMojo {
 	 *    expression="${j2ts.jsTemplate}"
 	 */
 	protected String jsTemplate = null;
+	/**
+	 * @parameter
+	 *    alias="typeCacheFile"
+	 *    expression="${j2ts.typeCacheFile}"
+	 */
+	protected File typeCacheFile = new File("target/java2typescript/types.cache");
+	/**
+	 * @parameter
+	 *    alias="workDirectory"
+	 *    expression="${j2ts.workDirectory}"
+	 */
+	protected File workDirectory = new File("target/java2typescript");
+	/**
+	 * @parameter
+	 *    alias="metricsReport"
+	 *    expression="${j2ts.metricsReport}"
+	 */
+	protected boolean metricsReport = false;
+	/**
+	 * Write typings as one file per Java package in folder typingsOutFolder/moduleName, plus an index.d.ts file
+	 * re-exporting all of them, instead of a single moduleName.d.ts file
+	 *
+	 * @parameter
+	 *    alias="typingsPerPackage"
+	 *    expression="${j2ts.typingsPerPackage}"
+	 */
+	protected boolean typingsPerPackage = false;
+	/**
+	 * Take the JAX-RS resources of restServicePackageName from the META-INF/java2typescript/index files written by the
+	 * java2typescript-processor annotation processor, instead of scanning the classpath. Jars and classes folders
+	 * without an index are still scanned.
+	 *
+	 * @parameter
+	 *    alias="useResourceIndex"
+	 *    expression="${j2ts.useResourceIndex}"
+	 */
+	protected boolean useResourceIndex = false;
+	/**
+	 * @parameter default-value="${project.runtimeClasspathElements}"
+	 * @readonly
+	 */
+	protected List<String> classpathElements;
 
 	@Override
 	public void execute() throws MojoExecutionException {
@@ -203,40 +251,133 @@ public class CustomMojo extends AbstractMojo {
 	}
 
 	public void generate() throws Exception {
+		File typingsFolder = new File(typingsOutFolder, moduleName);
+		File typingsFile = typingsPerPackage ? new File(typingsFolder, MultiFileModuleWriter.INDEX_FILE)
+				: new File(typingsOutFolder, moduleName + ".d.ts");
+		File metadataFile = new File(metadataOutFolder, moduleName + ".js");
+		File fingerprintFile = new File(workDirectory, moduleName + ".fingerprint");
+		InputsFingerprint fingerprint = createFingerprint();
+		if (typingsFile.isFile() && metadataFile.isFile() && fingerprint.isSameAs(fingerprintFile)) {
+			getLog().info("Inputs unchanged since previous build, skipping generation of " + moduleName);
+			return;
+		}
+
+		GenerationMetrics metrics = new GenerationMetrics();
+		PhaseTimer scanTimer = PhaseTimer.start();
+		Collection<? extends Class<?>> classes = getClasses();
+		scanTimer.report(metrics, GenerationPhase.SCAN);
+
 		ExtraFieldProvider extras = createExtraFieldProvider();
-		ServiceDescriptorGenerator generator = new ServiceDescriptorGenerator(getClasses(), new ObjectMapper(), extras);
+		ObjectMapper mapper = new ObjectMapper();
+		// resolved types are released with the mapper, instead of being kept by the default type factory
+		mapper.setTypeFactory(TypeFactory.defaultInstance().withClassLoader(getProjectClassLoader()));
+		ServiceDescriptorGenerator generator = new ServiceDescriptorGenerator(classes, mapper, extras);
 		if (jsTemplate == null || jsTemplate.isEmpty()) {
 			generator.setAlternateJsTemplate("exports.metaData = %JSON%;");
 		} else {
 			generator.setAlternateJsTemplate(jsTemplate);
 		}
 
-		Writer typeDefOut = createFileAndGetWriter(typingsOutFolder, moduleName + ".d.ts");
-		Module module = generator.generateTypeScript(moduleName, new Configuration());
+		// both out of a single reflection of the services
+		GeneratedServices services = generateServices(generator, createConfiguration(metrics));
+		Module module = services.getModule();
 
 		// remove all module variables, as we have a factory type instead
 		module.getVars().clear();
 		module.getVars().put("metaData", AnyType.getInstance());
 
 		// add ClientFactory and ServerFactory types
-		List<ClassType> serviceClasses = getServiceClasses(module);
+		List<ClassType> serviceClasses = getServiceClasses(module, classes);
 		ClientFactoryType clientFactory = new ClientFactoryType(serviceClasses);
 		ServerFactoryType serverFactory = new ServerFactoryType(serviceClasses);
 		module.getNamedTypes().put(clientFactory.getName(), clientFactory);
 		module.getNamedTypes().put(serverFactory.getName(), serverFactory);
+		if (whitelistPackage != null && !whitelistPackage.isEmpty()) {
+			// services out of the whitelisted package are described for the factories, but not written
+			classes.stream()
+				.filter(clazz -> !clazz.getName().startsWith(whitelistPackage))
+				.forEach(clazz -> module.getNamedTypes().remove(clazz.getSimpleName()));
+		}
+
+		MyModuleWriter moduleWriter = new MyModuleWriter();
+		moduleWriter.preferences.setGenerationListener(metrics);
+		if (typingsPerPackage) {
+			moduleWriter.prepare(module);
+			MultiFileModuleWriter multiFileWriter = new MultiFileModuleWriter(moduleWriter);
+			multiFileWriter.setFileHeader(MyModuleWriter.HEADER);
+			List<File> written = multiFileWriter.write(module, typingsFolder, getPreviousModule());
+			getLog().info("Written " + written.size() + " changed typings files to " + typingsFolder);
+		} else {
+			OutputFiles.write(typingsFile, writer -> moduleWriter.write(module, writer), getLog());
+		}
+
+		PhaseTimer jsTimer = PhaseTimer.start();
+		OutputFiles.write(metadataFile, services::writeJavascript, getLog());
+		jsTimer.report(metrics, GenerationPhase.WRITE);
+
+		MetricsOutput.report(metrics, metricsReport ? new File(workDirectory, moduleName + "-metrics.json") : null,
+				getLog());
+
+		// computed again, as output folders may be part of the classpath
+		createFingerprint().saveTo(fingerprintFile);
+	}
+
+	private InputsFingerprint createFingerprint() throws IOException {
+		return new InputsFingerprint()
+			.add("moduleName", moduleName)
+			.add("whitelistPackage", whitelistPackage)
+			.add("restServicePackageName", restServicePackageName)
+			.add("serviceExtraFieldProvider", serviceExtraFieldProvider)
+			.add("methodExtraFieldProvider", methodExtraFieldProvider)
+			.add("typingsOutFolder", typingsOutFolder.getAbsolutePath())
+			.add("metadataOutFolder", metadataOutFolder.getAbsolutePath())
+			.add("jsTemplate", jsTemplate)
+			.add("typeCacheFile", typeCacheFile)
+			.add("metricsReport", metricsReport)
+			.add("typingsPerPackage", typingsPerPackage)
+			.add("useResourceIndex", useResourceIndex)
+			.addClasspath(classpathElements)
+			// generator code, including the default JS template
+			.addCodeSource(CustomMojo.class)
+			.addCodeSource(ServiceDescriptorGenerator.class)
+			.addCodeSource(Configuration.class);
+	}
+
+	/** Generate the services and the module of their types, as a whole */
+	protected GeneratedServices generateServices(ServiceDescriptorGenerator generator, Configuration conf)
+			throws IOException {
+		return generator.generate(moduleName, conf);
+	}
+
+	/**
+	 * @return module written by the previous generation, whose unchanged types are reused by the module being written,
+	 *         or null when the module has been generated as a whole
+	 */
+	protected Module getPreviousModule() {
+		return null;
+	}
 
-		ModuleWriter moduleWriter = new MyModuleWriter(whitelistPackage);
-		moduleWriter.write(module, typeDefOut);
-		typeDefOut.close();
+	protected Configuration createConfiguration(GenerationMetrics metrics) {
+		Configuration conf = new Configuration();
+		conf.setGenerationListener(metrics);
+		if (typeCacheFile != null && !typeCacheFile.getPath().isEmpty()) {
+			conf.setTypeCache(new TypeCache(typeCacheFile));
+		}
+		if (whitelistPackage != null && !whitelistPackage.isEmpty()) {
+			// types out of the whitelisted package are not visited, only referenced by name
+			conf.setClassFilter(type -> type.getName().startsWith(whitelistPackage));
+		}
+		return conf;
+	}
 
-		Writer implOut = createFileAndGetWriter(metadataOutFolder, moduleName + ".js");
-		generator.generateJavascript(moduleName, implOut);
-		implOut.close();
+	/** Class loader of the project classes: the services, the DTOs and the extra field providers */
+	protected ClassLoader getProjectClassLoader() {
+		return CustomMojo.class.getClassLoader();
 	}
 
-	private List<ClassType> getServiceClasses(Module module) throws ClassNotFoundException {
+	private List<ClassType> getServiceClasses(Module module, Collection<? extends Class<?>> classes) {
 		Map<String, AbstractNamedType> types = module.getNamedTypes();
-		return getClasses().stream()
+		return classes.stream()
 			.map(Class::getSimpleName)
 			.map(types::get)
 			.map(ClassType.class::cast)
@@ -248,13 +389,15 @@ public class CustomMojo extends AbstractMojo {
 			InstantiationException, IllegalAccessException {
 		final Func1<Class<?>, Object> forService;
 		if (serviceExtraFieldProvider != null) {
-			forService = (Func1<Class<?>, Object>) Class.forName(serviceExtraFieldProvider).newInstance();
+			forService = (Func1<Class<?>, Object>) Class.forName(serviceExtraFieldProvider, true,
+					getProjectClassLoader()).newInstance();
 		} else {
 			forService = x -> null;
 		}
 		final Func1<Method, Object> forMethod;
 		if (serviceExtraFieldProvider != null) {
-			forMethod = (Func1<Method, Object>) Class.forName(methodExtraFieldProvider).newInstance();
+			forMethod = (Func1<Method, Object>) Class.forName(methodExtraFieldProvider, true,
+					getProjectClassLoader()).newInstance();
 		} else {
 			forMethod = x -> null;
 		}
@@ -271,22 +414,13 @@ public class CustomMojo extends AbstractMojo {
 		};
 	}
 
-	private Collection<? extends Class<?>> getClasses() throws ClassNotFoundException {
+	private Collection<? extends Class<?>> getClasses() throws ClassNotFoundException, IOException {
 		Collection<Class<?>> classes = new ArrayList<>();
 		if (restServicePackageName != null) {
-			FastClasspathScanner scanner = new FastClasspathScanner(restServicePackageName);
-			scanner.matchClassesWithAnnotation(Path.class, classes::add);
-			scanner.scan();
+			classes.addAll(ResourceClasses.load(restServicePackageName, useResourceIndex,
+					new File(workDirectory, moduleName + ".scan-index"), getProjectClassLoader(), true, getLog()));
 		}
 		return classes;
 	}
 
-	private Writer createFileAndGetWriter(File folder, String fileName) throws IOException {
-		File file = new File(folder, fileName);
-		file.getParentFile().mkdirs();
-		file.createNewFile();
-		FileOutputStream stream = new FileOutputStream(file);
-		return new OutputStreamWriter(stream);
-	}
-
 }
@@ -0,0 +1,111 @@
+package org.java2typescript.maven.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Fingerprint of everything the generated files depend on : plugin configuration, project classpath (paths, sizes and
+ * modification times of class files and jars) and generator code, used to skip the generation when nothing changed
+ * since the previous build.
+ */
+class InputsFingerprint {
+
+	private final MessageDigest digest;
+
+	private String value;
+
+	InputsFingerprint() {
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	InputsFingerprint add(String name, Object value) {
+		update(name + "=" + value);
+		return this;
+	}
+
+	InputsFingerprint addClasspath(Collection<String> classpathElements) throws IOException {
+		if (classpathElements != null) {
+			for (String element : classpathElements) {
+				addClasspathElement(new File(element));
+			}
+		}
+		return this;
+	}
+
+	/** Jar or folder the given class has been loaded from, as a change in the generator changes the output */
+	InputsFingerprint addCodeSource(Class<?> clazz) throws IOException {
+		CodeSource codeSource = clazz.getProtectionDomain().getCodeSource();
+		if (codeSource == null || codeSource.getLocation() == null) {
+			return add("codeSource", clazz.getName());
+		}
+		try {
+			addClasspathElement(new File(codeSource.getLocation().toURI()));
+		} catch (URISyntaxException | IllegalArgumentException e) {
+			add("codeSource", codeSource.getLocation());
+		}
+		return this;
+	}
+
+	private void addClasspathElement(File element) throws IOException {
+		if (element.isDirectory()) {
+			Path root = element.toPath();
+			List<Path> files;
+			try (Stream<Path> walk = Files.walk(root)) {
+				files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+			}
+			add("folder", element.getAbsolutePath());
+			for (Path file : files) {
+				File f = file.toFile();
+				update(root.relativize(file) + ":" + f.length() + ":" + f.lastModified());
+			}
+		} else if (element.isFile()) {
+			update(element.getAbsolutePath() + ":" + element.length() + ":" + element.lastModified());
+		} else {
+			add("missing", element.getAbsolutePath());
+		}
+	}
+
+	private void update(String line) {
+		if (value != null) {
+			throw new IllegalStateException("Fingerprint already computed");
+		}
+		digest.update(line.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) '\n');
+	}
+
+	String getValue() {
+		if (value == null) {
+			StringBuilder hex = new StringBuilder();
+			for (byte b : digest.digest()) {
+				hex.append(String.format("%02x", b));
+			}
+			value = hex.toString();
+		}
+		return value;
+	}
+
+	/** @return true if given file contains the same fingerprint */
+	boolean isSameAs(File file) throws IOException {
+		return file.isFile() && getValue().equals(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+	}
+
+	void saveTo(File file) throws IOException {
+		file.getParentFile().mkdirs();
+		Files.write(file.toPath(), getValue().getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -17,23 +17,27 @@ package org.java2typescript.maven.plugin;
  */
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
 import java.util.Collection;
-
-import javax.ws.rs.Path;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 
 import com.google.common.collect.Lists;
 
-import io.github.lukehutch.fastclasspathscanner.FastClasspathScanner;
 import java2typescript.jackson.module.Configuration;
+import java2typescript.jackson.module.cache.TypeCache;
 import java2typescript.jackson.module.grammar.Module;
+import java2typescript.jackson.module.metrics.GenerationMetrics;
+import java2typescript.jackson.module.metrics.GenerationPhase;
+import java2typescript.jackson.module.metrics.PhaseTimer;
+import java2typescript.jackson.module.writer.ExternalModuleFormatWriter;
+import java2typescript.jackson.module.writer.InternalModuleFormatWriter;
+import java2typescript.jaxrs.GeneratedServices;
 import java2typescript.jaxrs.ServiceDescriptorGenerator;
+import java2typescript.processor.ClassFileDefinitionGenerator;
 
 /**
  * Generate typescript file out of RESt service definition
@@ -103,55 +107,213 @@ public class MainMojo extends AbstractMojo {
 	 */
 	private String jsTemplate;
 
+	/**
+	 * File where definitions of the visited classes are cached between builds,
+	 * only classes that changed since the previous build are visited again.
+	 * Caching is disabled if empty.
+	 *
+	 * @parameter
+	 *    alias="typeCacheFile"
+	 * 		expression="${j2ts.typeCacheFile}"
+	 * 		default-value = "${project.build.directory}/java2typescript/types.cache"
+	 */
+	private File typeCacheFile;
+
+	/**
+	 * Folder where the fingerprint of the inputs of the previous build is kept, with the index of the classpath scan.
+	 * Generation is skipped if the inputs didn't change since then, and unchanged jars and folders are not scanned.
+	 *
+	 * @parameter
+	 *    alias="workDirectory"
+	 * 		expression="${j2ts.workDirectory}"
+	 * 		default-value = "${project.build.directory}/java2typescript"
+	 */
+	private File workDirectory;
+
+	/**
+	 * Write metrics of the generation (timings, visited types, caches statistics, slowest classes) to
+	 * <workDirectory>/<moduleName>-metrics.json. A summary is printed in any case.
+	 *
+	 * @parameter
+	 *    alias="metricsReport"
+	 * 		expression="${j2ts.metricsReport}"
+	 * 		default-value = "false"
+	 */
+	private boolean metricsReport;
+
+	/**
+	 * Take the JAX-RS resources of restServicePackageName from the META-INF/java2typescript/index files written by the
+	 * java2typescript-processor annotation processor, instead of scanning the classpath. Jars and classes folders
+	 * without an index are still scanned.
+	 *
+	 * @parameter
+	 *    alias="useResourceIndex"
+	 * 		expression="${j2ts.useResourceIndex}"
+	 * 		default-value = "false"
+	 */
+	private boolean useResourceIndex;
+
+	/**
+	 * Describe the types of the .d.ts file out of their class files, read by the Java compiler, instead of loading
+	 * and introspecting them: the classes of the model are never loaded nor initialized, and the services are loaded
+	 * without being initialized. Requires running Maven on a JDK. The type cache is not used in this mode.
+	 *
+	 * @parameter
+	 *    alias="readClassFiles"
+	 * 		expression="${j2ts.readClassFiles}"
+	 * 		default-value = "false"
+	 */
+	private boolean readClassFiles;
+
+	/**
+	 * Implement each REST method of the .js file with a dedicated function, instead of interpreting the descriptor of
+	 * the services on each call. Services are then exposed under the names of the vars of the .d.ts file. Ignored when
+	 * a JS template is set.
+	 *
+	 * @parameter
+	 *    alias="precompiledClient"
+	 * 		expression="${j2ts.precompiledClient}"
+	 * 		default-value = "false"
+	 */
+	private boolean precompiledClient;
+
+	/**
+	 * Generate the .js file as an ES module, whose services and REST methods are named exports that bundlers can leave
+	 * out when unused, and the .d.ts file as the matching external module. Ignored for the .js file when a JS template
+	 * is set.
+	 *
+	 * @parameter
+	 *    alias="esModule"
+	 * 		expression="${j2ts.esModule}"
+	 * 		default-value = "false"
+	 */
+	private boolean esModule;
+
+	/**
+	 * @parameter default-value="${project.runtimeClasspathElements}"
+	 * @readonly
+	 */
+	private List<String> classpathElements;
+
 	@Override
 	public void execute() throws MojoExecutionException {
 
 		try {
 
+			File tsFile = new File(tsOutFolder, moduleName + ".d.ts");
+			File jsFile = new File(jsOutFolder, moduleName + ".js");
+			File fingerprintFile = new File(workDirectory, moduleName + ".fingerprint");
+			InputsFingerprint fingerprint = createFingerprint();
+			if (tsFile.isFile() && jsFile.isFile() && fingerprint.isSameAs(fingerprintFile)) {
+				getLog().info("Inputs unchanged since previous build, skipping generation of " + moduleName);
+				return;
+			}
+
+			GenerationMetrics metrics = new GenerationMetrics();
+			PhaseTimer scanTimer = PhaseTimer.start();
+			Collection<? extends Class<?>> classes = getClasses();
+			scanTimer.report(metrics, GenerationPhase.SCAN);
+
 			// Descriptor for service
-			ServiceDescriptorGenerator descGen = new ServiceDescriptorGenerator(getClasses());
+			ServiceDescriptorGenerator descGen = new ServiceDescriptorGenerator(classes);
 			descGen.setAlternateJsTemplate(jsTemplate);
+			descGen.setPrecompiledClient(precompiledClient);
+			descGen.setEsModule(esModule);
+
+			Module tsModule;
+			OutputFiles.Content javascript;
+			if (readClassFiles) {
+				tsModule = readTypeScript(classes, metrics);
+				if (esModule) {
+					descGen.addEsModuleExports(tsModule);
+				}
+				javascript = writer -> descGen.generateJavascript(moduleName, writer);
+			} else {
+				// both out of a single reflection of the services
+				GeneratedServices services = descGen.generate(moduleName, createConfiguration(metrics));
+				tsModule = services.getModule();
+				javascript = services::writeJavascript;
+			}
 
 			// To Typescript
 			{
-				Writer writer = createFileAndGetWriter(tsOutFolder, moduleName + ".d.ts");
-				Module tsModule = descGen.generateTypeScript(moduleName, new Configuration());
-				tsModule.write(writer);
-				writer.close();
+				ExternalModuleFormatWriter moduleWriter = esModule ? new ExternalModuleFormatWriter()
+						: new InternalModuleFormatWriter();
+				moduleWriter.preferences.setGenerationListener(metrics);
+				OutputFiles.write(tsFile, writer -> moduleWriter.write(tsModule, writer), getLog());
 			}
 
 			// To JS
 			{
-				Writer outFileWriter = createFileAndGetWriter(jsOutFolder, moduleName + ".js");
-				descGen.generateJavascript(moduleName, outFileWriter);
-				outFileWriter.close();
+				PhaseTimer jsTimer = PhaseTimer.start();
+				OutputFiles.write(jsFile, javascript, getLog());
+				jsTimer.report(metrics, GenerationPhase.WRITE);
 			}
 
+			MetricsOutput.report(metrics, metricsReport ? new File(workDirectory, moduleName + "-metrics.json") : null,
+					getLog());
+
+			// computed again, as output folders may be part of the classpath
+			createFingerprint().saveTo(fingerprintFile);
+
 		} catch (Exception e) {
 			throw new MojoExecutionException(e.getMessage(), e);
 		}
 	}
 
-	private Collection<? extends Class<?>> getClasses() throws ClassNotFoundException {
+	private InputsFingerprint createFingerprint() throws IOException {
+		return new InputsFingerprint()
+			.add("restServiceClassName", restServiceClassName)
+			.add("restServicePackageName", restServicePackageName)
+			.add("moduleName", moduleName)
+			.add("tsOutFolder", tsOutFolder.getAbsolutePath())
+			.add("jsOutFolder", jsOutFolder.getAbsolutePath())
+			.add("jsTemplate", jsTemplate)
+			.add("typeCacheFile", typeCacheFile)
+			.add("metricsReport", metricsReport)
+			.add("useResourceIndex", useResourceIndex)
+			.add("readClassFiles", readClassFiles)
+			.add("precompiledClient", precompiledClient)
+			.add("esModule", esModule)
+			.addClasspath(classpathElements)
+			// generator code, including the default JS template
+			.addCodeSource(MainMojo.class)
+			.addCodeSource(ServiceDescriptorGenerator.class)
+			.addCodeSource(ClassFileDefinitionGenerator.class)
+			.addCodeSource(Configuration.class);
+	}
+
+	private Configuration createConfiguration(GenerationMetrics metrics) {
+		Configuration conf = new Configuration();
+		conf.setGenerationListener(metrics);
+		if (typeCacheFile != null && !typeCacheFile.getPath().isEmpty()) {
+			conf.setTypeCache(new TypeCache(typeCacheFile));
+		}
+		return conf;
+	}
+
+	private Module readTypeScript(Collection<? extends Class<?>> classes, GenerationMetrics metrics)
+			throws IOException {
+		PhaseTimer visitTimer = PhaseTimer.start();
+		List<File> classpath = classpathElements.stream().map(File::new).collect(Collectors.toList());
+		List<String> classNames = classes.stream().map(Class::getName).collect(Collectors.toList());
+		// unsorted, as with the default configuration of the reflective generation
+		Module module = new ClassFileDefinitionGenerator(classpath).generateTypeScript(moduleName, classNames, false);
+		visitTimer.report(metrics, GenerationPhase.VISIT);
+		return module;
+	}
+
+	private Collection<? extends Class<?>> getClasses() throws ClassNotFoundException, IOException {
 		Collection<Class<?>> classes = Lists.<Class<?>>newArrayList();
+		// services are only reflected upon, not initialized, when their types are read out of class files
+		ClassLoader classLoader = MainMojo.class.getClassLoader();
 		if (restServiceClassName != null) {
-			classes.add(Class.forName(restServiceClassName));
+			classes.add(Class.forName(restServiceClassName, !readClassFiles, classLoader));
 		}
 		if (restServicePackageName != null) {
-			FastClasspathScanner scanner = new FastClasspathScanner(restServicePackageName);
-			scanner.matchClassesWithAnnotation(Path.class, classes::add);
-			scanner.scan();
+			classes.addAll(ResourceClasses.load(restServicePackageName, useResourceIndex, new File(workDirectory,
+					moduleName + ".scan-index"), classLoader, !readClassFiles, getLog()));
 		}
 		return classes;
 	}
-
-	private Writer createFileAndGetWriter(File folder, String fileName) throws IOException {
-		File file = new File(folder, fileName);
-		getLog().info("Create file : " + file.getCanonicalPath());
-		file.getParentFile().mkdirs();
-		file.createNewFile();
-		FileOutputStream stream = new FileOutputStream(file);
-		OutputStreamWriter writer = new OutputStreamWriter(stream);
-		return writer;
-	};
 }
@@ -0,0 +1,35 @@
+package org.java2typescript.maven.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.maven.plugin.logging.Log;
+
+import java2typescript.jackson.module.metrics.GenerationMetrics;
+
+/** Prints the metrics of a generation, and writes them as JSON so that they can be compared between builds */
+class MetricsOutput {
+
+	private MetricsOutput() {
+	}
+
+	/**
+	 * @param reportFile
+	 *            JSON report written if not null
+	 */
+	static void report(GenerationMetrics metrics, File reportFile, Log log) throws IOException {
+		for (String line : metrics.getSummary().split("\n")) {
+			log.info(line);
+		}
+		if (reportFile != null) {
+			StringWriter json = new StringWriter();
+			metrics.writeJson(json);
+			reportFile.getAbsoluteFile().getParentFile().mkdirs();
+			Files.write(reportFile.toPath(), json.toString().getBytes(StandardCharsets.UTF_8));
+			log.info("Metrics written to " + reportFile.getCanonicalPath());
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package org.java2typescript.maven.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+
+import org.apache.maven.plugin.logging.Log;
+
+import java2typescript.jackson.module.writer.AtomicFileWriter;
+
+/**
+ * Writes generated files in UTF-8, replacing them atomically and only when their content changed, so that their
+ * modification time is left untouched otherwise (and watchers such as tsc --watch are not triggered)
+ */
+class OutputFiles {
+
+	/** Content of a generated file, written as it is generated */
+	interface Content {
+		void writeTo(Writer writer) throws IOException;
+	}
+
+	private OutputFiles() {
+	}
+
+	/** @return true if the file has been written */
+	static boolean write(File file, Content content, Log log) throws IOException {
+		AtomicFileWriter out = new AtomicFileWriter(file);
+		try {
+			content.writeTo(out);
+			if (!out.commit()) {
+				log.info("Unchanged file : " + file.getCanonicalPath());
+				return false;
+			}
+		} finally {
+			out.close();
+		}
+		log.info("Create file : " + file.getCanonicalPath());
+		return true;
+	}
+}
@@ -0,0 +1,55 @@
+package org.java2typescript.maven.plugin;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Loads the classes of given folders itself, before asking its parent, so that classes recompiled since the parent
+ * loaded them are loaded again. Other classes (libraries, JDK) are shared with the parent.
+ */
+class ReloadingClassLoader extends URLClassLoader {
+
+	static {
+		registerAsParallelCapable();
+	}
+
+	ReloadingClassLoader(URL[] folders, ClassLoader parent) {
+		super(folders, parent);
+	}
+
+	@Override
+	protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+		synchronized (getClassLoadingLock(name)) {
+			Class<?> clazz = findLoadedClass(name);
+			if (clazz == null && findResource(name.replace('.', '/') + ".class") != null) {
+				clazz = findClass(name);
+			}
+			if (clazz == null) {
+				return super.loadClass(name, resolve);
+			}
+			if (resolve) {
+				resolveClass(clazz);
+			}
+			return clazz;
+		}
+	}
+
+	@Override
+	public URL getResource(String name) {
+		URL url = findResource(name);
+		return url != null ? url : super.getResource(name);
+	}
+
+	@Override
+	public Enumeration<URL> getResources(String name) throws IOException {
+		// folders are also known to the parent
+		Set<URL> urls = new LinkedHashSet<>(Collections.list(findResources(name)));
+		urls.addAll(Collections.list(getParent().getResources(name)));
+		return Collections.enumeration(urls);
+	}
+}
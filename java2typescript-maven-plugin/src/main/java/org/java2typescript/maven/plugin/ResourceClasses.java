@@ -0,0 +1,86 @@
+package org.java2typescript.maven.plugin;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.ws.rs.Path;
+
+import org.apache.maven.plugin.logging.Log;
+
+import java2typescript.jaxrs.ResourceIndex;
+
+/**
+ * JAX-RS resources to generate, taken from the indexes written at compile time by java2typescript-processor when
+ * there are some, and found by scanning the jars and classes folders of the classpath that have no index.
+ */
+final class ResourceClasses {
+
+	private ResourceClasses() {
+	}
+
+	/**
+	 * @param packageName
+	 *            package (and subpackages) of the resources
+	 * @param useResourceIndex
+	 *            false to always scan the whole classpath
+	 * @param scanIndexFile
+	 *            where the result of the scan is kept between builds
+	 * @param classLoader
+	 *            to read indexes from and load the resources with
+	 * @param initialize
+	 *            false for the resources to be loaded without running their static initializers
+	 */
+	static List<Class<?>> load(String packageName, boolean useResourceIndex, File scanIndexFile,
+			ClassLoader classLoader, boolean initialize, Log log) throws IOException, ClassNotFoundException {
+		Set<String> classNames = new LinkedHashSet<>();
+		Set<File> indexedElements = new HashSet<>();
+		if (useResourceIndex) {
+			ResourceIndex index = ResourceIndex.load(classLoader);
+			classNames.addAll(index.getResourceNames(packageName));
+			for (URL location : index.getLocations()) {
+				File element = classpathElement(location);
+				if (element != null) {
+					indexedElements.add(element);
+				}
+			}
+			log.info("Found " + classNames.size() + " resources in " + index.getLocations().size()
+					+ " compile time indexes");
+		}
+		// elements compiled without the processor
+		classNames.addAll(new ClasspathScanIndex(scanIndexFile, packageName, Path.class).getClassNames(
+				indexedElements, log));
+
+		List<Class<?>> classes = new ArrayList<>();
+		for (String className : classNames) {
+			classes.add(Class.forName(className, initialize, classLoader));
+		}
+		return classes;
+	}
+
+	/** @return canonical jar or classes folder containing given index, or null if it is not a local file */
+	private static File classpathElement(URL location) {
+		String url = location.toString();
+		if (url.startsWith("jar:") && url.contains("!/")) {
+			url = url.substring("jar:".length(), url.indexOf("!/"));
+		} else if (url.endsWith(ResourceIndex.LOCATION)) {
+			url = url.substring(0, url.length() - ResourceIndex.LOCATION.length());
+		}
+		if (!url.startsWith("file:")) {
+			return null;
+		}
+		try {
+			return new File(new URI(url)).getCanonicalFile();
+		} catch (URISyntaxException | IllegalArgumentException | IOException e) {
+			// scanned as well
+			return null;
+		}
+	}
+}
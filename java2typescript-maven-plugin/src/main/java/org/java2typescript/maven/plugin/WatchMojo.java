@@ -0,0 +1,289 @@
+package org.java2typescript.maven.plugin;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+import java2typescript.jackson.module.Configuration;
+import java2typescript.jackson.module.cache.ClassIntrospectionCache;
+import java2typescript.jackson.module.cache.TypeCache;
+import java2typescript.jackson.module.grammar.Module;
+import java2typescript.jackson.module.grammar.base.AbstractNamedType;
+import java2typescript.jackson.module.metrics.GenerationMetrics;
+import java2typescript.jaxrs.GeneratedServices;
+import java2typescript.jaxrs.ServiceDescriptorGenerator;
+
+/**
+ * Generate as generate-custom does, then again each time classes of the project are recompiled (by an IDE for
+ * instance), until Maven is stopped. Classes of the project are loaded again in a new class loader, while libraries,
+ * the type cache and the introspection of library classes are kept between generations.
+ * <p>
+ * Only the types of the recompiled classes, the types depending on them and the services are generated again, the
+ * other types of the previous module are reused, and only the typings files of the changed types are rendered again
+ * when they are written per package. The whole module is generated again when classes are added, when other classes
+ * than the types of the module change, or once reused types keep too many previous class loaders alive.
+ *
+ * @goal watch
+ * @configurator include-project-dependencies
+ * @requiresDependencyResolution compile+runtime
+ */
+public class WatchMojo extends CustomMojo {
+
+	/** Previous class loaders kept alive by the reused types of a module, before generating the whole module again */
+	private static final int MAX_CLASS_LOADERS = 3;
+
+	/**
+	 * Milliseconds without any change in the classes folders to wait for before generating, so that a compilation is
+	 * complete
+	 *
+	 * @parameter
+	 *    alias="watchQuietPeriod"
+	 *    expression="${j2ts.watchQuietPeriod}"
+	 */
+	protected long watchQuietPeriod = 200;
+
+	private final ClassIntrospectionCache introspectionCache = new ClassIntrospectionCache();
+
+	private TypeCache typeCache;
+
+	private ReloadingClassLoader classLoader;
+
+	/** Names of the classes changed since the previous generation, null to generate the whole module */
+	private Set<String> changedClasses;
+
+	/** Module written by the last generation, null if it failed */
+	private Module module;
+
+	/** Module written by the previous generation, whose unchanged types are reused by the current one */
+	private Module previousModule;
+
+	@Override
+	public void execute() throws MojoExecutionException {
+		List<Path> folders = new ArrayList<>();
+		for (String element : classpathElements) {
+			File file = new File(element);
+			if (file.isDirectory()) {
+				folders.add(file.toPath());
+			}
+		}
+		if (folders.isEmpty()) {
+			throw new MojoExecutionException("No classes folder to watch in " + classpathElements);
+		}
+
+		try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+			for (Path folder : folders) {
+				register(folder, watchService);
+			}
+			generate(folders);
+			getLog().info("Watching " + folders + " for changes, stop with Ctrl+C");
+			while (true) {
+				WatchKey key = watchService.take();
+				// wait for the compiler to be done
+				do {
+					collectChanges(key, watchService, folders);
+				} while ((key = watchService.poll(watchQuietPeriod, TimeUnit.MILLISECONDS)) != null);
+				generate(folders);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException e) {
+			throw new MojoExecutionException(e.getMessage(), e);
+		}
+	}
+
+	private void generate(List<Path> folders) throws IOException {
+		URL[] urls = new URL[folders.size()];
+		for (int i = 0; i < urls.length; i++) {
+			urls[i] = folders.get(i).toUri().toURL();
+		}
+		ReloadingClassLoader previous = classLoader;
+		classLoader = new ReloadingClassLoader(urls, WatchMojo.class.getClassLoader());
+		Thread thread = Thread.currentThread();
+		ClassLoader contextClassLoader = thread.getContextClassLoader();
+		thread.setContextClassLoader(classLoader);
+		long start = System.nanoTime();
+		try {
+			generate();
+			getLog().info("Generated " + moduleName + " in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+					+ " ms");
+		} catch (Exception e) {
+			// classes may be recompiled again, keep watching
+			getLog().error("Failed to generate " + moduleName + ", waiting for the next change", e);
+			module = null;
+		} finally {
+			changedClasses = new HashSet<>();
+			previousModule = null;
+			thread.setContextClassLoader(contextClassLoader);
+			if (previous != null) {
+				previous.close();
+			}
+		}
+	}
+
+	@Override
+	protected GeneratedServices generateServices(ServiceDescriptorGenerator generator, Configuration conf)
+			throws IOException {
+		Set<String> changedTypeNames = module == null ? null : getChangedTypeNames(module);
+		GeneratedServices services;
+		if (changedTypeNames == null) {
+			module = null;
+			services = super.generateServices(generator, conf);
+		} else {
+			previousModule = module;
+			services = generator.regenerate(previousModule, changedTypeNames, conf);
+			getLog().info("Generated again " + changedTypeNames + " of " + moduleName
+					+ ", the types depending on them and the services");
+		}
+		// completed by the generation, then written
+		module = services.getModule();
+		return services;
+	}
+
+	@Override
+	protected Module getPreviousModule() {
+		return previousModule;
+	}
+
+	/**
+	 * @return names of the types of given module whose classes, or super classes, changed since it was generated, or
+	 *         null if the whole module must be generated again
+	 */
+	private Set<String> getChangedTypeNames(Module previous) {
+		if (changedClasses == null) {
+			return null;
+		}
+		Set<String> typeNames = new TreeSet<>();
+		Set<String> matchedClasses = new HashSet<>();
+		Set<ClassLoader> classLoaders = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (AbstractNamedType type : previous.getNamedTypes().values()) {
+			if (type.getJavaClass() == null) {
+				continue;
+			}
+			if (type.getJavaClass().getClassLoader() instanceof ReloadingClassLoader) {
+				classLoaders.add(type.getJavaClass().getClassLoader());
+			}
+			for (Class<?> clazz = type.getJavaClass(); clazz != null; clazz = clazz.getSuperclass()) {
+				if (isChanged(clazz, matchedClasses)) {
+					typeNames.add(type.getName());
+				}
+				for (Class<?> implemented : clazz.getInterfaces()) {
+					if (isChanged(implemented, matchedClasses)) {
+						typeNames.add(type.getName());
+					}
+				}
+			}
+		}
+		if (classLoaders.size() > MAX_CLASS_LOADERS) {
+			return null;
+		}
+		// such as new classes, or classes used by annotations
+		return matchedClasses.size() < changedClasses.size() ? null : typeNames;
+	}
+
+	/** @return true if given class, or its top level class for nested and anonymous classes, changed */
+	private boolean isChanged(Class<?> clazz, Set<String> matchedClasses) {
+		boolean changed = false;
+		for (String changedClass : changedClasses) {
+			String topLevelClass = changedClass.indexOf('$') < 0 ? changedClass
+					: changedClass.substring(0, changedClass.indexOf('$'));
+			if (clazz.getName().equals(changedClass) || clazz.getName().equals(topLevelClass)) {
+				matchedClasses.add(changedClass);
+				changed = true;
+			}
+		}
+		return changed;
+	}
+
+	@Override
+	protected Configuration createConfiguration(GenerationMetrics metrics) {
+		Configuration conf = super.createConfiguration(metrics);
+		if (typeCache == null) {
+			typeCache = conf.getTypeCache();
+		} else {
+			conf.setTypeCache(typeCache);
+		}
+		conf.setIntrospectionCache(introspectionCache);
+		return conf;
+	}
+
+	@Override
+	protected ClassLoader getProjectClassLoader() {
+		return classLoader;
+	}
+
+	/**
+	 * Register the folders created in the folder of given key, and record the changed classes: a whole generation is
+	 * needed when events were lost, or when other files than classes changed
+	 */
+	private void collectChanges(WatchKey key, WatchService watchService, List<Path> folders) throws IOException {
+		Path folder = (Path) key.watchable();
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == OVERFLOW) {
+				changedClasses = null;
+				continue;
+			}
+			Path changed = folder.resolve((Path) event.context());
+			if (event.kind() == ENTRY_CREATE && Files.isDirectory(changed)) {
+				register(changed, watchService);
+			}
+			String className = getClassName(changed, folders);
+			if (className == null) {
+				changedClasses = null;
+			} else if (changedClasses != null) {
+				changedClasses.add(className);
+			}
+		}
+		// invalid once the folder is deleted
+		key.reset();
+	}
+
+	/** @return name of the class of given class file, or null if it is not a class file of given classes folders */
+	private static String getClassName(Path file, List<Path> folders) {
+		String fileName = file.getFileName().toString();
+		if (!fileName.endsWith(".class")) {
+			return null;
+		}
+		for (Path folder : folders) {
+			if (file.startsWith(folder)) {
+				String path = folder.relativize(file).toString();
+				return path.substring(0, path.length() - ".class".length()).replace(file.getFileSystem().getSeparator(),
+						".");
+			}
+		}
+		return null;
+	}
+
+	private static void register(Path folder, final WatchService watchService) throws IOException {
+		Files.walkFileTree(folder, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+				dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+}
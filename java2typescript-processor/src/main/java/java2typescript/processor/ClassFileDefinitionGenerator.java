@@ -0,0 +1,132 @@
+package java2typescript.processor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import java2typescript.jackson.module.grammar.Module;
+
+/**
+ * Generates the TypeScript definitions of JAX-RS services and their DTOs out of class files, without defining any
+ * class in a JVM class loader, so that neither class loading nor static initializers of the model cost anything. The
+ * class files are read by the compiler of the JDK (with annotation processing only, there is nothing to compile),
+ * which gives the same model of the classes as when compiling them, described by {@link MirrorDefinitionGenerator}.
+ * <p>
+ * Class files are read lazily, only for the types reachable from the services. Requires a JDK.
+ */
+public class ClassFileDefinitionGenerator {
+
+	private final List<File> classpath;
+
+	/**
+	 * @param classpath
+	 *            jars and folders of the services, the DTOs and the annotations (JAX-RS, Jackson) they use
+	 */
+	public ClassFileDefinitionGenerator(List<File> classpath) {
+		this.classpath = classpath;
+	}
+
+	/**
+	 * @param serviceClassNames
+	 *            binary names of the JAX-RS services
+	 * @param sorted
+	 *            to keep types and their members sorted by name
+	 */
+	public Module generateTypeScript(String moduleName, Collection<String> serviceClassNames, boolean sorted)
+			throws IOException {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		if (compiler == null) {
+			throw new IllegalStateException("No Java compiler found, running on a JDK is required to read class files");
+		}
+		DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<JavaFileObject>();
+		StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, Locale.ROOT,
+				StandardCharsets.UTF_8);
+		try {
+			fileManager.setLocation(StandardLocation.CLASS_PATH, classpath);
+			List<String> classNames = new ArrayList<String>();
+			for (String serviceClassName : serviceClassNames) {
+				classNames.add(serviceClassName.replace('$', '.'));
+			}
+			GeneratingProcessor processor = new GeneratingProcessor(new Module(moduleName, sorted), classNames);
+			JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+					Arrays.asList("-proc:only"), classNames, null);
+			task.setProcessors(Collections.singletonList(processor));
+			if (!task.call() || !processor.done) {
+				throw new IOException("Failed to read classes " + classNames + ": " + errors(diagnostics));
+			}
+			return processor.module;
+		} finally {
+			fileManager.close();
+		}
+	}
+
+	private static List<String> errors(DiagnosticCollector<JavaFileObject> diagnostics) {
+		List<String> errors = new ArrayList<String>();
+		for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+			if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+				errors.add(diagnostic.getMessage(Locale.ROOT));
+			}
+		}
+		return errors;
+	}
+
+	/** Builds the module in the first round, where the services are the root elements */
+	@SupportedAnnotationTypes("*")
+	private static class GeneratingProcessor extends AbstractProcessor {
+
+		private final Module module;
+
+		private final List<String> classNames;
+
+		private boolean done;
+
+		GeneratingProcessor(Module module, List<String> classNames) {
+			this.module = module;
+			this.classNames = classNames;
+		}
+
+		@Override
+		public SourceVersion getSupportedSourceVersion() {
+			return SourceVersion.latestSupported();
+		}
+
+		@Override
+		public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+			if (done) {
+				return false;
+			}
+			List<TypeElement> services = new ArrayList<TypeElement>();
+			for (String className : classNames) {
+				TypeElement service = processingEnv.getElementUtils().getTypeElement(className);
+				if (service == null) {
+					processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Class not found: " + className);
+					return false;
+				}
+				services.add(service);
+			}
+			new MirrorDefinitionGenerator(processingEnv, module).generateTypeScript(services);
+			done = true;
+			return false;
+		}
+	}
+}
@@ -0,0 +1,568 @@
+package java2typescript.processor;
+
+import java.beans.Introspector;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+import java2typescript.jackson.module.grammar.AnyType;
+import java2typescript.jackson.module.grammar.BooleanType;
+import java2typescript.jackson.module.grammar.ClassType;
+import java2typescript.jackson.module.grammar.EnumType;
+import java2typescript.jackson.module.grammar.FunctionType;
+import java2typescript.jackson.module.grammar.MapType;
+import java2typescript.jackson.module.grammar.Module;
+import java2typescript.jackson.module.grammar.NullType;
+import java2typescript.jackson.module.grammar.NumberType;
+import java2typescript.jackson.module.grammar.StringType;
+import java2typescript.jackson.module.grammar.VoidType;
+import java2typescript.jackson.module.grammar.base.AbstractNamedType;
+import java2typescript.jackson.module.grammar.base.AbstractType;
+
+/**
+ * Builds the TypeScript grammar of JAX-RS services and the DTOs they use out of the elements and type mirrors of the
+ * compiler, without loading any class, so that typings can be written while compiling. Types are described the way
+ * DefinitionGenerator describes them with the default ObjectMapper: JDK types as Jackson serializes them, beans
+ * through their public fields and getters, honouring Jackson annotations (looked up by name, so that they don't need
+ * to be on the processor path): {@code @JsonIgnore}, {@code @JsonProperty}, {@code @JsonIgnoreProperties},
+ * {@code @JsonIgnoreType}, {@code @JsonBackReference}, {@code @JsonTypeName} and {@code @JsonValue}.
+ * <p>
+ * Unlike the reflective generation, JAX-RS types (such as Response) are typed as any rather than described as beans,
+ * and custom serializers can not be taken into account. Named types have no Java class.
+ */
+public class MirrorDefinitionGenerator {
+
+	private static final String JACKSON_ANNOTATION = "com.fasterxml.jackson.annotation.";
+
+	private static final String JAXRS = "javax.ws.rs.";
+
+	/** Types (and their subtypes) serialized as JSON strings by the standard JDK serializers */
+	private static final List<String> STRING_TYPES = Arrays.asList("java.lang.CharSequence", "java.lang.Character",
+			"java.util.UUID", "java.net.URL", "java.net.URI", "java.io.File", "java.lang.Class", "java.util.Locale",
+			"java.util.Currency", "java.util.regex.Pattern", "java.util.TimeZone", "java.net.InetAddress",
+			"java.net.InetSocketAddress", "java.nio.charset.Charset", "java.nio.ByteBuffer", "java.sql.Time");
+
+	private static final List<String> BOOLEAN_TYPES = Arrays.asList("java.lang.Boolean",
+			"java.util.concurrent.atomic.AtomicBoolean");
+
+	/** Types described as any, as their serializers don't tell their format */
+	private static final List<String> ANY_TYPES = Arrays.asList("com.fasterxml.jackson.databind.JsonSerializable",
+			"java.util.concurrent.atomic.AtomicReference", "java.util.Map.Entry");
+
+	static private final String ROOT_URL_VAR = "rootUrl";
+	static private final String ADAPTER_VAR = "adapter";
+
+	private final Elements elements;
+
+	private final Types types;
+
+	private final Module module;
+
+	public MirrorDefinitionGenerator(ProcessingEnvironment processingEnv, Module module) {
+		this.elements = processingEnv.getElementUtils();
+		this.types = processingEnv.getTypeUtils();
+		this.module = module;
+	}
+
+	public Module getModule() {
+		return module;
+	}
+
+	/**
+	 * Add given JAX-RS services to the module, with the types they use, and the variables of the generated JavaScript
+	 * module, as ServiceDescriptorGenerator does
+	 */
+	public Module generateTypeScript(Collection<TypeElement> services) {
+		Map<TypeElement, ClassType> serviceTypes = new LinkedHashMap<TypeElement, ClassType>();
+		for (TypeElement service : services) {
+			serviceTypes.put(service, generateService(service));
+		}
+		addModuleVars(serviceTypes);
+		return module;
+	}
+
+	/** Service type, described as other classes, but with parameters named after their JAX-RS annotations */
+	private ClassType generateService(TypeElement service) {
+		ClassType classType = (ClassType) getClassType(service);
+		for (ExecutableElement method : ElementFilter.methodsIn(service.getEnclosedElements())) {
+			FunctionType function = classType.getMethods().get(method.getSimpleName().toString());
+			if (function == null) {
+				continue;
+			}
+			List<AbstractType> parameterTypes = new ArrayList<AbstractType>(function.getParameters().values());
+			function.getParameters().clear();
+			int i = 0;
+			for (VariableElement parameter : method.getParameters()) {
+				// Skip @Context parameters
+				if (findAnnotation(parameter, "javax.ws.rs.core.Context") == null) {
+					function.getParameters().put(getParamName(parameter), parameterTypes.get(i));
+				}
+				i++;
+			}
+		}
+		return classType;
+	}
+
+	private static String getParamName(VariableElement parameter) {
+		for (String annotation : Arrays.asList("PathParam", "QueryParam", "FormParam")) {
+			String name = getStringValue(findAnnotation(parameter, JAXRS + annotation), "value");
+			if (name != null) {
+				return name;
+			}
+		}
+		return "body";
+	}
+
+	private void addModuleVars(Map<TypeElement, ClassType> serviceTypes) {
+		FunctionType adapterFuncType = new FunctionType();
+		adapterFuncType.setResultType(VoidType.getInstance());
+		adapterFuncType.getParameters().put("httpMethod", StringType.getInstance());
+		adapterFuncType.getParameters().put("path", StringType.getInstance());
+		adapterFuncType.getParameters().put("getParams", ClassType.getObjectClass());
+		adapterFuncType.getParameters().put("postParams", ClassType.getObjectClass());
+		adapterFuncType.getParameters().put("body", AnyType.getInstance());
+
+		module.getVars().put(ROOT_URL_VAR, StringType.getInstance());
+		module.getVars().put(ADAPTER_VAR, adapterFuncType);
+
+		for (Map.Entry<TypeElement, ClassType> serviceType : serviceTypes.entrySet()) {
+			String varName = Introspector.decapitalize(serviceType.getKey().getSimpleName().toString());
+			module.getVars().put(varName, serviceType.getValue());
+		}
+	}
+
+	/** @return type of the values of given Java type, adding the named types it needs to the module */
+	public AbstractType getType(TypeMirror type) {
+		switch (type.getKind()) {
+		case VOID:
+			return VoidType.getInstance();
+		case BOOLEAN:
+			return BooleanType.getInstance();
+		case CHAR:
+			return StringType.getInstance();
+		case BYTE:
+		case SHORT:
+		case INT:
+		case LONG:
+		case FLOAT:
+		case DOUBLE:
+			return NumberType.getInstance();
+		case ARRAY:
+			TypeMirror componentType = ((ArrayType) type).getComponentType();
+			if (componentType.getKind() == TypeKind.BYTE) {
+				return new java2typescript.jackson.module.grammar.ArrayType(StringType.getInstance());
+			}
+			return new java2typescript.jackson.module.grammar.ArrayType(getType(componentType));
+		case WILDCARD:
+			TypeMirror bound = ((WildcardType) type).getExtendsBound();
+			return bound == null ? AnyType.getInstance() : getType(bound);
+		case DECLARED:
+			return getDeclaredType((DeclaredType) type);
+		default:
+			// type variables are not bound, as for raw classes visited by reflection
+			return AnyType.getInstance();
+		}
+	}
+
+	private AbstractType getDeclaredType(DeclaredType type) {
+		TypeElement element = (TypeElement) type.asElement();
+		String name = element.getQualifiedName().toString();
+		if (name.equals("java.lang.Object")) {
+			return AnyType.getInstance();
+		} else if (name.equals("java.lang.Void")) {
+			return NullType.getInstance();
+		} else if (element.getKind() == ElementKind.ENUM) {
+			return getEnumType(element);
+		} else if (isSubtypeOfOneOf(type, BOOLEAN_TYPES)) {
+			return BooleanType.getInstance();
+		} else if (isSubtypeOf(type, "java.lang.Number")) {
+			return NumberType.getInstance();
+		} else if (isSubtypeOfOneOf(type, STRING_TYPES) || isSubtypeOf(type, "java.sql.Date")) {
+			// java.sql.Date is written as a string unless told otherwise
+			return StringType.getInstance();
+		} else if (isSubtypeOf(type, "java.util.Date") || isSubtypeOf(type, "java.util.Calendar")) {
+			return NumberType.getInstance();
+		} else if (isSubtypeOfOneOf(type, ANY_TYPES) || name.startsWith(JAXRS)) {
+			return AnyType.getInstance();
+		} else if (isSubtypeOf(type, "java.util.Map")) {
+			return getMapType(type);
+		} else if (isSubtypeOf(type, "java.lang.Iterable")) {
+			return new java2typescript.jackson.module.grammar.ArrayType(getType(findTypeArgument(type,
+					"java.lang.Iterable")));
+		} else if (isSubtypeOf(type, "java.util.Iterator")) {
+			return new java2typescript.jackson.module.grammar.ArrayType(getType(findTypeArgument(type,
+					"java.util.Iterator")));
+		}
+		ExecutableElement valueMethod = findJsonValueMethod(element);
+		if (valueMethod != null) {
+			return getType(valueMethod.getReturnType());
+		}
+		return getClassType(element);
+	}
+
+	private AbstractType getMapType(DeclaredType type) {
+		List<? extends TypeMirror> arguments = findTypeArguments(type, "java.util.Map");
+		MapType mapType = new MapType();
+		TypeMirror keyType = arguments.isEmpty() ? null : arguments.get(0);
+		if (keyType != null && keyType.getKind() == TypeKind.DECLARED
+				&& ((DeclaredType) keyType).asElement().getKind() == ElementKind.ENUM) {
+			mapType.setKeyType(getType(keyType));
+		} else if (keyType == null || isObject(keyType)) {
+			mapType.setKeyType(AnyType.getInstance());
+		} else {
+			// keys are written as JSON strings
+			mapType.setKeyType(StringType.getInstance());
+		}
+		mapType.setValueType(arguments.isEmpty() ? AnyType.getInstance() : getType(arguments.get(1)));
+		return mapType;
+	}
+
+	private EnumType getEnumType(TypeElement element) {
+		String name = getName(element);
+		AbstractNamedType namedType = module.getNamedTypes().get(name);
+		if (namedType != null) {
+			return (EnumType) namedType;
+		}
+		EnumType enumType = new EnumType(name, null);
+		for (VariableElement constant : ElementFilter.fieldsIn(element.getEnclosedElements())) {
+			if (constant.getKind() == ElementKind.ENUM_CONSTANT) {
+				enumType.getValues().add(constant.getSimpleName().toString());
+			}
+		}
+		if (module.isSorted()) {
+			Collections.sort(enumType.getValues());
+		}
+		module.getNamedTypes().put(name, enumType);
+		return enumType;
+	}
+
+	private AbstractNamedType getClassType(TypeElement element) {
+		String name = getName(element);
+		AbstractNamedType namedType = module.getNamedTypes().get(name);
+		if (namedType != null) {
+			return namedType;
+		}
+		ClassType classType = new ClassType(name, null, module.isSorted());
+		// registered before its members are visited, for recursive types
+		module.getNamedTypes().put(name, classType);
+		for (Property property : findProperties(element)) {
+			classType.getFields().put(property.name, getType(property.type));
+		}
+		for (ExecutableElement method : ElementFilter.methodsIn(element.getEnclosedElements())) {
+			if (method.getModifiers().contains(Modifier.PUBLIC) && !isAccessor(method)
+					&& findAnnotation(method, "java.beans.Transient") == null) {
+				FunctionType function = new FunctionType();
+				function.setResultType(getType(unwrapObservable(method.getReturnType())));
+				int i = 0;
+				for (VariableElement parameter : method.getParameters()) {
+					function.getParameters().put("param" + i++, getType(unwrapObservable(parameter.asType())));
+				}
+				classType.getMethods().put(method.getSimpleName().toString(), function);
+			}
+		}
+		return classType;
+	}
+
+	/** Either Java simple name or @JsonTypeName annotation */
+	private static String getName(TypeElement element) {
+		String typeName = getStringValue(findAnnotation(element, JACKSON_ANNOTATION + "JsonTypeName"), "value");
+		return typeName != null ? typeName : element.getSimpleName().toString();
+	}
+
+	/** Mirrors the properties Jackson serializes: public fields and getters, or annotated members */
+	private List<Property> findProperties(TypeElement element) {
+		List<TypeElement> hierarchy = new ArrayList<TypeElement>();
+		for (TypeElement current = element; current != null && !isObject(current.asType()); current = superclass(current)) {
+			hierarchy.add(0, current);
+		}
+		List<String> ignored = new ArrayList<String>();
+		for (TypeElement current : hierarchy) {
+			ignored.addAll(getStringValues(findAnnotation(current, JACKSON_ANNOTATION + "JsonIgnoreProperties"),
+					"value"));
+		}
+
+		Map<String, Property> properties = new LinkedHashMap<String, Property>();
+		for (TypeElement current : hierarchy) {
+			for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+				if (!field.getModifiers().contains(Modifier.STATIC) && !field.getModifiers().contains(Modifier.TRANSIENT)) {
+					getProperty(properties, field.getSimpleName().toString()).addField(field);
+				}
+			}
+		}
+		for (TypeElement current : hierarchy) {
+			for (ExecutableElement method : ElementFilter.methodsIn(current.getEnclosedElements())) {
+				String name = getGetterPropertyName(method);
+				if (name != null) {
+					getProperty(properties, name).addGetter(method);
+				}
+			}
+		}
+
+		List<Property> visible = new ArrayList<Property>();
+		for (Property property : properties.values()) {
+			if (property.isVisible() && !ignored.contains(property.name) && !isIgnorableType(property.type)) {
+				visible.add(property);
+			}
+		}
+		return visible;
+	}
+
+	private static Property getProperty(Map<String, Property> properties, String name) {
+		Property property = properties.get(name);
+		if (property == null) {
+			property = new Property(name);
+			properties.put(name, property);
+		}
+		return property;
+	}
+
+	/** @return name of the property read by given method, as Jackson mangles it, or null if it is not a getter */
+	private static String getGetterPropertyName(ExecutableElement method) {
+		if (method.getModifiers().contains(Modifier.STATIC) || !method.getParameters().isEmpty()
+				|| method.getReturnType().getKind() == TypeKind.VOID) {
+			return null;
+		}
+		String name = method.getSimpleName().toString();
+		if (name.startsWith("get") && name.length() > 3 && !name.equals("getClass")) {
+			return manglePropertyName(name.substring(3));
+		}
+		if (name.startsWith("is") && name.length() > 2 && method.getReturnType().getKind() == TypeKind.BOOLEAN) {
+			return manglePropertyName(name.substring(2));
+		}
+		return null;
+	}
+
+	/** Lower case the leading upper case characters, as Jackson does ("URL" becomes "url") */
+	private static String manglePropertyName(String name) {
+		StringBuilder mangled = new StringBuilder(name);
+		for (int i = 0; i < mangled.length(); i++) {
+			char lower = Character.toLowerCase(mangled.charAt(i));
+			if (lower == mangled.charAt(i)) {
+				break;
+			}
+			mangled.setCharAt(i, lower);
+		}
+		return mangled.toString();
+	}
+
+	/** @return true if given method is the read or write method of a bean property, as java.beans finds them */
+	private static boolean isAccessor(ExecutableElement method) {
+		if (method.getModifiers().contains(Modifier.STATIC)) {
+			return false;
+		}
+		String name = method.getSimpleName().toString();
+		int parameters = method.getParameters().size();
+		boolean isVoid = method.getReturnType().getKind() == TypeKind.VOID;
+		if (parameters == 0 && !isVoid && name.startsWith("get") && name.length() > 3) {
+			return true;
+		}
+		if (parameters == 0 && method.getReturnType().getKind() == TypeKind.BOOLEAN && name.startsWith("is")
+				&& name.length() > 2) {
+			return true;
+		}
+		return parameters == 1 && isVoid && name.startsWith("set") && name.length() > 3;
+	}
+
+	private ExecutableElement findJsonValueMethod(TypeElement element) {
+		for (TypeElement current = element; current != null; current = superclass(current)) {
+			for (ExecutableElement method : ElementFilter.methodsIn(current.getEnclosedElements())) {
+				AnnotationMirror jsonValue = findAnnotation(method, JACKSON_ANNOTATION + "JsonValue");
+				if (jsonValue != null && !Boolean.FALSE.equals(getValue(jsonValue, "value"))) {
+					return method;
+				}
+			}
+		}
+		return null;
+	}
+
+	private boolean isIgnorableType(TypeMirror type) {
+		if (type.getKind() != TypeKind.DECLARED) {
+			return false;
+		}
+		AnnotationMirror ignoreType = findAnnotation(((DeclaredType) type).asElement(), JACKSON_ANNOTATION
+				+ "JsonIgnoreType");
+		return ignoreType != null && !Boolean.FALSE.equals(getValue(ignoreType, "value"));
+	}
+
+	/** Observables are typed by the type of their values, as in reflective generation */
+	private static TypeMirror unwrapObservable(TypeMirror type) {
+		if (type.getKind() == TypeKind.DECLARED
+				&& ((DeclaredType) type).asElement().getSimpleName().contentEquals("Observable")
+				&& !((DeclaredType) type).getTypeArguments().isEmpty()) {
+			return ((DeclaredType) type).getTypeArguments().get(0);
+		}
+		return type;
+	}
+
+	private TypeElement superclass(TypeElement element) {
+		TypeMirror superclass = element.getSuperclass();
+		return superclass.getKind() == TypeKind.DECLARED ? (TypeElement) ((DeclaredType) superclass).asElement()
+				: null;
+	}
+
+	private static boolean isObject(TypeMirror type) {
+		return type.getKind() == TypeKind.DECLARED
+				&& ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().contentEquals("java.lang.Object");
+	}
+
+	private boolean isSubtypeOf(TypeMirror type, String className) {
+		TypeElement element = elements.getTypeElement(className);
+		return element != null && types.isSubtype(types.erasure(type), types.erasure(element.asType()));
+	}
+
+	private boolean isSubtypeOfOneOf(TypeMirror type, List<String> classNames) {
+		for (String className : classNames) {
+			if (isSubtypeOf(type, className)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/** @return single type argument given type binds to given generic supertype, or Object */
+	private TypeMirror findTypeArgument(DeclaredType type, String supertype) {
+		List<? extends TypeMirror> arguments = findTypeArguments(type, supertype);
+		return arguments.size() == 1 ? arguments.get(0) : elements.getTypeElement("java.lang.Object").asType();
+	}
+
+	/** @return type arguments given type binds to given generic supertype, empty if raw */
+	private List<? extends TypeMirror> findTypeArguments(TypeMirror type, String supertype) {
+		if (type.getKind() != TypeKind.DECLARED) {
+			return Collections.emptyList();
+		}
+		if (((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().contentEquals(supertype)) {
+			return ((DeclaredType) type).getTypeArguments();
+		}
+		for (TypeMirror direct : types.directSupertypes(type)) {
+			if (isSubtypeOf(direct, supertype)) {
+				return findTypeArguments(direct, supertype);
+			}
+		}
+		return Collections.emptyList();
+	}
+
+	private static AnnotationMirror findAnnotation(Element element, String annotationName) {
+		for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+			if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName()
+				.contentEquals(annotationName)) {
+				return annotation;
+			}
+		}
+		return null;
+	}
+
+	/** @return explicit value of given annotation attribute, or null */
+	private static Object getValue(AnnotationMirror annotation, String attribute) {
+		if (annotation == null) {
+			return null;
+		}
+		for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotation.getElementValues()
+			.entrySet()) {
+			if (entry.getKey().getSimpleName().contentEquals(attribute)) {
+				return entry.getValue().getValue();
+			}
+		}
+		return null;
+	}
+
+	/** @return explicit, not empty, value of given string attribute, or null */
+	private static String getStringValue(AnnotationMirror annotation, String attribute) {
+		Object value = getValue(annotation, attribute);
+		return value instanceof String && !((String) value).isEmpty() ? (String) value : null;
+	}
+
+	private static List<String> getStringValues(AnnotationMirror annotation, String attribute) {
+		Object value = getValue(annotation, attribute);
+		List<String> values = new ArrayList<String>();
+		if (value instanceof List) {
+			for (Object item : (List<?>) value) {
+				values.add((String) ((AnnotationValue) item).getValue());
+			}
+		} else if (value instanceof String) {
+			values.add((String) value);
+		}
+		return values;
+	}
+
+	/** Field and getter of a property, merged as Jackson merges their annotations */
+	private static class Property {
+
+		String name;
+
+		TypeMirror type;
+
+		boolean hasVisibleAccessor;
+
+		boolean explicitlyIncluded;
+
+		boolean ignored;
+
+		boolean hasGetter;
+
+		Property(String name) {
+			this.name = name;
+		}
+
+		void addField(VariableElement field) {
+			addMember(field, field.getModifiers().contains(Modifier.PUBLIC));
+			if (!hasGetter) {
+				type = field.asType();
+			}
+		}
+
+		void addGetter(ExecutableElement getter) {
+			boolean visible = getter.getModifiers().contains(Modifier.PUBLIC);
+			addMember(getter, visible);
+			if (visible || findAnnotation(getter, JACKSON_ANNOTATION + "JsonProperty") != null) {
+				// the serializer reads the value through the getter
+				hasGetter = true;
+				type = getter.getReturnType();
+			}
+		}
+
+		private void addMember(Element member, boolean visible) {
+			hasVisibleAccessor |= visible;
+			AnnotationMirror jsonProperty = findAnnotation(member, JACKSON_ANNOTATION + "JsonProperty");
+			if (jsonProperty != null) {
+				explicitlyIncluded = true;
+				String renamed = getStringValue(jsonProperty, "value");
+				if (renamed != null) {
+					name = renamed;
+				}
+			}
+			AnnotationMirror jsonIgnore = findAnnotation(member, JACKSON_ANNOTATION + "JsonIgnore");
+			if (jsonIgnore != null && !Boolean.FALSE.equals(getValue(jsonIgnore, "value"))) {
+				ignored = true;
+			}
+			if (findAnnotation(member, JACKSON_ANNOTATION + "JsonBackReference") != null) {
+				ignored = true;
+			}
+		}
+
+		boolean isVisible() {
+			return !ignored && (hasVisibleAccessor || explicitlyIncluded);
+		}
+	}
+}
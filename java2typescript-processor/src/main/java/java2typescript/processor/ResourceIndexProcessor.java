@@ -0,0 +1,310 @@
+package java2typescript.processor;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import java2typescript.jackson.module.grammar.Module;
+
+/**
+ * Records, while compiling, the JAX-RS resources (classes and interfaces annotated with {@code @Path}) and the types
+ * reachable from the signatures of their methods into {@value #LOCATION}, so that the java2typescript Maven plugin and
+ * ServiceDescriptorGenerator get the classes to generate without scanning the classpath. Each jar built with this
+ * processor carries the index of its own classes.
+ * <p>
+ * The index is a UTF-8 text file, one entry per line: {@code resource <binary name>} or {@code type <binary name>}.
+ * Lines starting with {@code #} are comments.
+ * <p>
+ * On incremental compilations, the entries of the previous index are kept as long as their classes still exist (and
+ * resources are still annotated), so types no longer reachable from a resource only go away on a full build.
+ * <p>
+ * When the {@value #MODULE_NAME_OPTION} option is given, the TypeScript definitions of the indexed resources are also
+ * written, in internal module format, out of the compiler's model of the classes (see
+ * {@link MirrorDefinitionGenerator}), so that no class has to be loaded to generate them. They go to
+ * {@code <moduleName>.d.ts} in the folder given by the {@value #TYPINGS_OUT_FOLDER_OPTION} option, or else next to
+ * the index. The {@value #SORTED_OPTION} option keeps types and their members sorted by name.
+ */
+@SupportedOptions({ ResourceIndexProcessor.MODULE_NAME_OPTION, ResourceIndexProcessor.TYPINGS_OUT_FOLDER_OPTION,
+		ResourceIndexProcessor.SORTED_OPTION })
+@SupportedAnnotationTypes(ResourceIndexProcessor.PATH_ANNOTATION)
+public class ResourceIndexProcessor extends AbstractProcessor {
+
+	public static final String LOCATION = "META-INF/java2typescript/index";
+
+	public static final String HEADER = "# java2typescript index 1";
+
+	public static final String RESOURCE = "resource";
+
+	public static final String TYPE = "type";
+
+	public static final String MODULE_NAME_OPTION = "java2typescript.moduleName";
+
+	public static final String TYPINGS_OUT_FOLDER_OPTION = "java2typescript.typingsOutFolder";
+
+	public static final String SORTED_OPTION = "java2typescript.sorted";
+
+	static final String PATH_ANNOTATION = "javax.ws.rs.Path";
+
+	private static final String HTTP_METHOD_ANNOTATION = "javax.ws.rs.HttpMethod";
+
+	private final SortedSet<String> resources = new TreeSet<String>();
+
+	private final SortedSet<String> types = new TreeSet<String>();
+
+	private final List<Element> originatingElements = new ArrayList<Element>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		TypeElement path = processingEnv.getElementUtils().getTypeElement(PATH_ANNOTATION);
+		if (path != null) {
+			for (Element element : roundEnv.getElementsAnnotatedWith(path)) {
+				if (element.getKind().isClass() || element.getKind().isInterface()) {
+					addResource((TypeElement) element);
+				}
+			}
+		}
+		if (roundEnv.processingOver() && !resources.isEmpty()) {
+			mergePreviousIndex();
+			writeIndex();
+			String moduleName = processingEnv.getOptions().get(MODULE_NAME_OPTION);
+			if (moduleName != null && !moduleName.isEmpty()) {
+				writeTypings(moduleName);
+			}
+		}
+		// other processors may handle @Path as well
+		return false;
+	}
+
+	private void addResource(TypeElement resource) {
+		if (!resources.add(binaryName(resource))) {
+			return;
+		}
+		originatingElements.add(resource);
+		for (ExecutableElement method : ElementFilter.methodsIn(resource.getEnclosedElements())) {
+			if (!isResourceMethod(method)) {
+				continue;
+			}
+			addReachableTypes(method.getReturnType());
+			for (VariableElement parameter : method.getParameters()) {
+				addReachableTypes(parameter.asType());
+			}
+		}
+	}
+
+	/** @return true if given method has an HTTP method annotation (such as @GET) or @Path */
+	private boolean isResourceMethod(ExecutableElement method) {
+		for (AnnotationMirror annotation : method.getAnnotationMirrors()) {
+			TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+			if (annotationType.getQualifiedName().contentEquals(PATH_ANNOTATION)) {
+				return true;
+			}
+			for (AnnotationMirror metaAnnotation : annotationType.getAnnotationMirrors()) {
+				TypeElement metaAnnotationType = (TypeElement) metaAnnotation.getAnnotationType().asElement();
+				if (metaAnnotationType.getQualifiedName().contentEquals(HTTP_METHOD_ANNOTATION)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/** Add given type, its type arguments, and the types of its properties, recursively */
+	private void addReachableTypes(TypeMirror type) {
+		if (type.getKind() == TypeKind.ARRAY) {
+			addReachableTypes(((ArrayType) type).getComponentType());
+		} else if (type.getKind() == TypeKind.WILDCARD) {
+			TypeMirror bound = ((WildcardType) type).getExtendsBound();
+			if (bound != null) {
+				addReachableTypes(bound);
+			}
+		} else if (type.getKind() == TypeKind.DECLARED) {
+			DeclaredType declaredType = (DeclaredType) type;
+			for (TypeMirror typeArgument : declaredType.getTypeArguments()) {
+				addReachableTypes(typeArgument);
+			}
+			TypeElement element = (TypeElement) declaredType.asElement();
+			if (isPlatformType(element) || !types.add(binaryName(element))) {
+				return;
+			}
+			addPropertyTypes(element);
+		}
+	}
+
+	private void addPropertyTypes(TypeElement element) {
+		for (VariableElement field : ElementFilter.fieldsIn(element.getEnclosedElements())) {
+			if (!field.getModifiers().contains(Modifier.STATIC) && !field.getModifiers().contains(Modifier.TRANSIENT)) {
+				addReachableTypes(field.asType());
+			}
+		}
+		for (ExecutableElement method : ElementFilter.methodsIn(element.getEnclosedElements())) {
+			if (isGetter(method)) {
+				addReachableTypes(method.getReturnType());
+			}
+		}
+		if (element.getKind() != ElementKind.ENUM) {
+			addReachableTypes(element.getSuperclass());
+		}
+	}
+
+	private static boolean isGetter(ExecutableElement method) {
+		String name = method.getSimpleName().toString();
+		return method.getModifiers().contains(Modifier.PUBLIC) && !method.getModifiers().contains(Modifier.STATIC)
+				&& method.getParameters().isEmpty() && method.getReturnType().getKind() != TypeKind.VOID
+				&& (name.startsWith("get") || name.startsWith("is"));
+	}
+
+	private boolean isPlatformType(TypeElement element) {
+		String packageName = processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().toString();
+		return packageName.startsWith("java.") || packageName.startsWith("javax.");
+	}
+
+	private String binaryName(TypeElement element) {
+		return processingEnv.getElementUtils().getBinaryName(element).toString();
+	}
+
+	/** Keep the entries of the previous index of which classes are not compiled this time but still exist */
+	private void mergePreviousIndex() {
+		List<String> lines;
+		try {
+			FileObject previous = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", LOCATION);
+			lines = readLines(previous);
+		} catch (IOException e) {
+			// no previous index
+			return;
+		}
+		for (String line : lines) {
+			String[] entry = line.split(" ", 2);
+			if (entry.length != 2) {
+				continue;
+			}
+			TypeElement element = processingEnv.getElementUtils().getTypeElement(entry[1].replace('$', '.'));
+			if (element == null) {
+				continue;
+			}
+			if (RESOURCE.equals(entry[0]) && hasPathAnnotation(element)) {
+				resources.add(entry[1]);
+			} else if (TYPE.equals(entry[0])) {
+				types.add(entry[1]);
+			}
+		}
+	}
+
+	private static boolean hasPathAnnotation(TypeElement element) {
+		for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+			TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+			if (annotationType.getQualifiedName().contentEquals(PATH_ANNOTATION)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static List<String> readLines(FileObject file) throws IOException {
+		List<String> lines = new ArrayList<String>();
+		BufferedReader in = new BufferedReader(new InputStreamReader(file.openInputStream(), StandardCharsets.UTF_8));
+		try {
+			String line;
+			while ((line = in.readLine()) != null) {
+				if (!line.isEmpty() && !line.startsWith("#")) {
+					lines.add(line);
+				}
+			}
+		} finally {
+			in.close();
+		}
+		return lines;
+	}
+
+	private void writeIndex() {
+		try {
+			FileObject index = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", LOCATION,
+					originatingElements.toArray(new Element[originatingElements.size()]));
+			Writer out = new OutputStreamWriter(index.openOutputStream(), StandardCharsets.UTF_8);
+			try {
+				out.write(HEADER + "\n");
+				for (String resource : resources) {
+					out.write(RESOURCE + " " + resource + "\n");
+				}
+				for (String type : types) {
+					out.write(TYPE + " " + type + "\n");
+				}
+			} finally {
+				out.close();
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+					"Could not write " + LOCATION + ": " + e.getMessage());
+		}
+	}
+
+	private void writeTypings(String moduleName) {
+		List<TypeElement> services = new ArrayList<TypeElement>();
+		for (String resource : resources) {
+			TypeElement service = processingEnv.getElementUtils().getTypeElement(resource.replace('$', '.'));
+			if (service != null) {
+				services.add(service);
+			}
+		}
+		boolean sorted = Boolean.parseBoolean(processingEnv.getOptions().get(SORTED_OPTION));
+		Module module = new MirrorDefinitionGenerator(processingEnv, new Module(moduleName, sorted))
+			.generateTypeScript(services);
+
+		String fileName = moduleName + ".d.ts";
+		String typingsOutFolder = processingEnv.getOptions().get(TYPINGS_OUT_FOLDER_OPTION);
+		try {
+			if (typingsOutFolder != null && !typingsOutFolder.isEmpty()) {
+				// only rewritten if changed, not to trigger the compilation of the client on each build
+				module.write(new File(typingsOutFolder, fileName));
+			} else {
+				FileObject typings = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+						LOCATION.substring(0, LOCATION.lastIndexOf('/') + 1) + fileName,
+						originatingElements.toArray(new Element[originatingElements.size()]));
+				Writer out = new OutputStreamWriter(typings.openOutputStream(), StandardCharsets.UTF_8);
+				try {
+					module.write(out);
+				} finally {
+					out.close();
+				}
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+					"Could not write " + fileName + ": " + e.getMessage());
+		}
+	}
+}
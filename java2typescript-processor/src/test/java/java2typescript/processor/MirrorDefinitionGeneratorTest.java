@@ -0,0 +1,163 @@
+package java2typescript.processor;
+
+import static java2typescript.processor.util.TestCompiler.source;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java2typescript.jackson.module.Configuration;
+import java2typescript.jackson.module.conf.IntrospectionBackend;
+import java2typescript.jackson.module.grammar.Module;
+import java2typescript.jaxrs.ServiceDescriptorGenerator;
+import java2typescript.processor.util.TestCompiler;
+
+public class MirrorDefinitionGeneratorTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static final String BASE = "package com.example.dto;\n"
+			+ "public abstract class Base {\n"
+			+ "  public long id;\n"
+			+ "  private int version;\n"
+			+ "  public int getVersion() { return version; }\n"
+			+ "}\n";
+
+	private static final String PERSON = "package com.example.dto;\n"
+			+ "import com.fasterxml.jackson.annotation.*;\n"
+			+ "@JsonIgnoreProperties({ \"nickname\" })\n"
+			+ "public class Person extends Base {\n"
+			+ "  public String nickname;\n"
+			+ "  public static Person DEFAULT;\n"
+			+ "  public transient String cached;\n"
+			+ "  @JsonProperty(\"mail\") public String email;\n"
+			+ "  @JsonIgnore public String password;\n"
+			+ "  @JsonProperty private Integer age;\n"
+			+ "  public java.util.Date birthDate;\n"
+			+ "  public java.util.List<Address> addresses;\n"
+			+ "  public java.util.Map<String, Address> addressesByName;\n"
+			+ "  public java.util.Map<Status, Boolean> flags;\n"
+			+ "  public String[] tags;\n"
+			+ "  public int[] scores;\n"
+			+ "  public byte[] picture;\n"
+			+ "  public Object extra;\n"
+			+ "  public Wrapped wrapped;\n"
+			+ "  public Status getStatus() { return null; }\n"
+			+ "  public boolean isActive() { return true; }\n"
+			+ "  public String getURL() { return null; }\n"
+			+ "  public void setNickname(String nickname) {}\n"
+			+ "  public String fullName(String separator) { return null; }\n"
+			+ "  public static class Address { public String street; public Person owner; }\n"
+			+ "  @JsonTypeName(\"Renamed\") public static class Wrapped { public java.util.Set<Long> values; }\n"
+			+ "}\n";
+
+	private static final String STATUS = "package com.example.dto;\n"
+			+ "public enum Status { INACTIVE, ACTIVE }\n";
+
+	private static final String CODE = "package com.example.dto;\n"
+			+ "public class Code {\n"
+			+ "  @com.fasterxml.jackson.annotation.JsonValue public String getValue() { return null; }\n"
+			+ "}\n";
+
+	private static final String PEOPLE_SERVICE = "package com.example.rs;\n"
+			+ "import javax.ws.rs.*;\n"
+			+ "import com.example.dto.*;\n"
+			+ "@Path(\"/people\")\n"
+			+ "public class PeopleService {\n"
+			+ "  @GET public java.util.Collection<Person> list(@QueryParam(\"page\") int page) { return null; }\n"
+			+ "  @GET @Path(\"{email}\") public Person get(@PathParam(\"email\") String email) { return null; }\n"
+			+ "  @POST public Code add(@FormParam(\"email\") String email, Person person) { return null; }\n"
+			+ "}\n";
+
+	private static final String CONTEXT_SERVICE = "package com.example.rs;\n"
+			+ "import javax.ws.rs.*;\n"
+			+ "import javax.ws.rs.core.*;\n"
+			+ "@Path(\"/context\")\n"
+			+ "public class ContextService {\n"
+			+ "  @GET @Path(\"{id}\") public Response get(@Context UriInfo uriInfo, @PathParam(\"id\") String id) { return null; }\n"
+			+ "}\n";
+
+	@Test
+	public void sameDefinitionsAsReflectiveGeneration() throws Exception {
+		File classes = folder.newFolder("classes");
+		File typings = folder.newFolder("typings");
+		TestCompiler.compile(classes, Arrays.asList("-Ajava2typescript.moduleName=modName",
+				"-Ajava2typescript.typingsOutFolder=" + typings.getPath(), "-Ajava2typescript.sorted=true"),
+				source("com.example.dto.Base", BASE), source("com.example.dto.Person", PERSON),
+				source("com.example.dto.Status", STATUS), source("com.example.dto.Code", CODE),
+				source("com.example.rs.PeopleService", PEOPLE_SERVICE));
+
+		String generated = new String(Files.readAllBytes(new File(typings, "modName.d.ts").toPath()),
+				StandardCharsets.UTF_8);
+		assertEquals(generateByReflection(classes), generated);
+		assertFalse(generated.contains("password"));
+	}
+
+	@Test
+	public void sameDefinitionsFromClassFiles() throws Exception {
+		File classes = folder.newFolder("classes");
+		TestCompiler.compile(classes, Collections.<String> emptyList(), source("com.example.dto.Base", BASE),
+				source("com.example.dto.Person", PERSON), source("com.example.dto.Status", STATUS),
+				source("com.example.dto.Code", CODE), source("com.example.rs.PeopleService", PEOPLE_SERVICE));
+
+		List<File> classpath = new ArrayList<File>(TestCompiler.annotationsClasspath());
+		classpath.add(classes);
+		System.clearProperty("j2ts.test.initialized");
+		Module module = new ClassFileDefinitionGenerator(classpath).generateTypeScript("modName",
+				Collections.singletonList("com.example.rs.PeopleService"), true);
+		// classes are read, not initialized
+		assertNull(System.getProperty("j2ts.test.initialized"));
+
+		StringWriter out = new StringWriter();
+		module.write(out);
+		assertEquals(generateByReflection(classes), out.toString());
+	}
+
+	@Test
+	public void typingsWrittenNextToIndexByDefault() throws IOException {
+		File classes = folder.newFolder("classes");
+		TestCompiler.compile(classes, Collections.singletonList("-Ajava2typescript.moduleName=modName"),
+				source("com.example.rs.ContextService", CONTEXT_SERVICE));
+
+		String generated = new String(Files.readAllBytes(new File(classes, "META-INF/java2typescript/modName.d.ts")
+			.toPath()), StandardCharsets.UTF_8);
+		// JAX-RS types are not described
+		assertTrue(generated.contains("get(id: string): any;"));
+		assertFalse(generated.contains("UriInfo"));
+	}
+
+	private static String generateByReflection(File classes) throws Exception {
+		URLClassLoader classLoader = new URLClassLoader(new URL[] { classes.toURI().toURL() },
+				MirrorDefinitionGeneratorTest.class.getClassLoader());
+		try {
+			Configuration conf = new Configuration();
+			conf.setSorted(true);
+			// serializers can not describe @JsonValue types
+			conf.setIntrospectionBackend(IntrospectionBackend.BEAN_DESCRIPTIONS);
+			Module module = new ServiceDescriptorGenerator(Collections.singletonList(classLoader
+				.loadClass("com.example.rs.PeopleService"))).generateTypeScript("modName", conf);
+			StringWriter out = new StringWriter();
+			module.write(out);
+			return out.toString();
+		} finally {
+			classLoader.close();
+		}
+	}
+}
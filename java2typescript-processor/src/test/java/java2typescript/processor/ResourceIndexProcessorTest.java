@@ -0,0 +1,115 @@
+package java2typescript.processor;
+
+import static java2typescript.processor.util.TestCompiler.source;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.tools.JavaFileObject;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java2typescript.jaxrs.ResourceIndex;
+import java2typescript.processor.util.TestCompiler;
+
+public class ResourceIndexProcessorTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static final String PERSON = "package com.example.dto;\n"
+			+ "public class Person extends Named {\n"
+			+ "  public static Person DEFAULT;\n"
+			+ "  public java.util.List<Address> addresses;\n"
+			+ "  public Status getStatus() { return null; }\n"
+			+ "  public static class Address { public String street; }\n"
+			+ "}\n";
+
+	private static final String NAMED = "package com.example.dto;\n"
+			+ "public abstract class Named { public String name; }\n";
+
+	private static final String STATUS = "package com.example.dto;\n"
+			+ "public enum Status { ACTIVE, INACTIVE }\n";
+
+	private static final String NOT_EXPOSED = "package com.example.dto;\n"
+			+ "public class NotExposed {}\n";
+
+	private static final String PEOPLE_SERVICE = "package com.example.rs;\n"
+			+ "import javax.ws.rs.*;\n"
+			+ "import com.example.dto.*;\n"
+			+ "@Path(\"/people\")\n"
+			+ "public class PeopleService {\n"
+			+ "  @GET public java.util.Map<String, Person[]> all() { return null; }\n"
+			+ "  @POST public void add(@QueryParam(\"p\") String p, Person person) {}\n"
+			+ "  public NotExposed helper() { return null; }\n"
+			+ "}\n";
+
+	private static final String ADMIN_SERVICE = "package com.example.rs.admin;\n"
+			+ "import javax.ws.rs.*;\n"
+			+ "@Path(\"/admin\")\n"
+			+ "public interface AdminService {\n"
+			+ "  @Path(\"reset\") @PUT void reset();\n"
+			+ "}\n";
+
+	@Test
+	public void indexesResourcesAndReachableTypes() throws IOException {
+		File classes = folder.newFolder("classes");
+		compile(classes, source("com.example.dto.Person", PERSON), source("com.example.dto.Named", NAMED),
+				source("com.example.dto.Status", STATUS), source("com.example.dto.NotExposed", NOT_EXPOSED),
+				source("com.example.rs.PeopleService", PEOPLE_SERVICE),
+				source("com.example.rs.admin.AdminService", ADMIN_SERVICE));
+
+		ResourceIndex index = load(classes);
+		assertEquals(Arrays.asList("com.example.rs.PeopleService", "com.example.rs.admin.AdminService"),
+				new ArrayList<String>(index.getResourceNames()));
+		assertEquals(Arrays.asList("com.example.dto.Named", "com.example.dto.Person", "com.example.dto.Person$Address",
+				"com.example.dto.Status"), new ArrayList<String>(index.getTypeNames()));
+		assertEquals(Collections.singletonList("com.example.rs.admin.AdminService"),
+				index.getResourceNames("com.example.rs.admin"));
+	}
+
+	@Test
+	public void keepsEntriesOfClassesNotRecompiled() throws IOException {
+		File classes = folder.newFolder("classes");
+		compile(classes, source("com.example.dto.Person", PERSON), source("com.example.dto.Named", NAMED),
+				source("com.example.dto.Status", STATUS), source("com.example.dto.NotExposed", NOT_EXPOSED),
+				source("com.example.rs.PeopleService", PEOPLE_SERVICE));
+
+		// incremental compilation of another resource, previous classes being on the classpath
+		compile(classes, source("com.example.rs.admin.AdminService", ADMIN_SERVICE));
+		ResourceIndex index = load(classes);
+		assertEquals(Arrays.asList("com.example.rs.PeopleService", "com.example.rs.admin.AdminService"),
+				new ArrayList<String>(index.getResourceNames()));
+		assertTrue(index.getTypeNames().contains("com.example.dto.Person"));
+
+		// deleted resource
+		assertTrue(new File(classes, "com/example/rs/PeopleService.class").delete());
+		compile(classes, source("com.example.rs.admin.AdminService", ADMIN_SERVICE));
+		index = load(classes);
+		assertEquals(Collections.singleton("com.example.rs.admin.AdminService"), index.getResourceNames());
+		assertFalse(index.isEmpty());
+	}
+
+	private static void compile(File classes, JavaFileObject... sources) {
+		TestCompiler.compile(classes, Collections.<String> emptyList(), sources);
+	}
+
+	private static ResourceIndex load(File classes) throws IOException {
+		URLClassLoader classLoader = new URLClassLoader(new URL[] { classes.toURI().toURL() }, null);
+		try {
+			return ResourceIndex.load(classLoader);
+		} finally {
+			classLoader.close();
+		}
+	}
+}
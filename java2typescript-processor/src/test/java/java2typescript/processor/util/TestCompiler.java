@@ -0,0 +1,69 @@
+package java2typescript.processor.util;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import javax.ws.rs.Path;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java2typescript.processor.ResourceIndexProcessor;
+
+/** Compiles in memory sources with {@link ResourceIndexProcessor}, against JAX-RS and Jackson annotations */
+public class TestCompiler {
+
+	public static JavaFileObject source(String className, final String code) {
+		return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"),
+				JavaFileObject.Kind.SOURCE) {
+			@Override
+			public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+				return code;
+			}
+		};
+	}
+
+	/**
+	 * @param classes
+	 *            output folder, also part of the classpath as in incremental builds
+	 * @param processorOptions
+	 *            such as "-Ajava2typescript.moduleName=modName"
+	 */
+	public static void compile(File classes, List<String> processorOptions, JavaFileObject... sources) {
+		StringBuilder classpath = new StringBuilder();
+		for (File file : annotationsClasspath()) {
+			classpath.append(file.getPath()).append(File.pathSeparator);
+		}
+		classpath.append(classes.getPath());
+		List<String> options = new ArrayList<String>(Arrays.asList("-d", classes.getPath(), "-classpath",
+				classpath.toString()));
+		options.addAll(processorOptions);
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		JavaCompiler.CompilationTask task = compiler.getTask(null, null, null, options, null, Arrays.asList(sources));
+		task.setProcessors(Collections.singletonList(new ResourceIndexProcessor()));
+		assertTrue("compilation failed", task.call());
+	}
+
+	/** @return jars of JAX-RS and Jackson annotations */
+	public static List<File> annotationsClasspath() {
+		return Arrays.asList(location(Path.class), location(JsonIgnore.class));
+	}
+
+	private static File location(Class<?> clazz) {
+		try {
+			return new File(clazz.getProtectionDomain().getCodeSource().getLocation().toURI());
+		} catch (URISyntaxException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
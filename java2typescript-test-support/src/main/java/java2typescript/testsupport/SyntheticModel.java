@@ -0,0 +1,50 @@
+package java2typescript.testsupport;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/** Classes generated by {@link SyntheticModelGenerator} */
+public class SyntheticModel {
+
+	private final ClassLoader classLoader;
+
+	private final List<Class<?>> dtos;
+
+	private final List<Class<?>> enums;
+
+	private final List<Class<?>> resources;
+
+	SyntheticModel(ClassLoader classLoader, List<Class<?>> dtos, List<Class<?>> enums, List<Class<?>> resources) {
+		this.classLoader = classLoader;
+		this.dtos = Collections.unmodifiableList(dtos);
+		this.enums = Collections.unmodifiableList(enums);
+		this.resources = Collections.unmodifiableList(resources);
+	}
+
+	/** @return class loader defining the generated classes */
+	public ClassLoader getClassLoader() {
+		return classLoader;
+	}
+
+	public List<Class<?>> getDtos() {
+		return dtos;
+	}
+
+	public List<Class<?>> getEnums() {
+		return enums;
+	}
+
+	/** @return DTOs and enums */
+	public List<Class<?>> getClasses() {
+		List<Class<?>> classes = new ArrayList<Class<?>>(dtos.size() + enums.size());
+		classes.addAll(dtos);
+		classes.addAll(enums);
+		return classes;
+	}
+
+	/** @return JAX-RS resource interfaces */
+	public List<Class<?>> getResources() {
+		return resources;
+	}
+}
@@ -0,0 +1,412 @@
+package java2typescript.testsupport;
+
+import static org.objectweb.asm.Opcodes.AASTORE;
+import static org.objectweb.asm.Opcodes.ACC_ABSTRACT;
+import static org.objectweb.asm.Opcodes.ACC_ENUM;
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_INTERFACE;
+import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_STATIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ACC_SYNTHETIC;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ANEWARRAY;
+import static org.objectweb.asm.Opcodes.ARETURN;
+import static org.objectweb.asm.Opcodes.CHECKCAST;
+import static org.objectweb.asm.Opcodes.DUP;
+import static org.objectweb.asm.Opcodes.GETSTATIC;
+import static org.objectweb.asm.Opcodes.ILOAD;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.NEW;
+import static org.objectweb.asm.Opcodes.PUTSTATIC;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.V1_8;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+/**
+ * Generates class graphs at runtime, defined by an in-memory class loader, so that generation can be tested and
+ * benchmarked over models of any size without compiling them:
+ * <ul>
+ * <li>DTOs with public fields of simple types, nested in chains of {@link #setNestingDepth(int) nesting depth} DTOs
+ * each referencing the next one and, if {@link #setCyclicReferences(boolean) cyclic references} are enabled, the
+ * previous one</li>
+ * <li>generic containers fields (lists, maps of lists, sets and maps) of the next DTO of the chain</li>
+ * <li>a {@link #setWideFields(int) wide} first DTO in each chain</li>
+ * <li>public static final constants</li>
+ * <li>enums, referenced by the DTOs</li>
+ * <li>JAX-RS resource interfaces with <code>@Path</code>, <code>@GET</code>, <code>@PathParam</code> and
+ * <code>@QueryParam</code> annotated methods returning the DTOs</li>
+ * </ul>
+ * JAX-RS annotations are only visible if their classes can be loaded by the parent class loader.
+ */
+public class SyntheticModelGenerator {
+
+	private static final String[] SIMPLE_FIELD_TYPES = { "I", "Ljava/lang/String;", "D", "Ljava/util/Date;", "Z",
+			"Ljava/lang/Long;" };
+
+	private String packageName = "java2typescript.synthetic";
+
+	private int dtoCount = 100;
+
+	private int fieldsPerClass = 5;
+
+	private int containerFieldsPerClass = 2;
+
+	private int wideFields = 0;
+
+	private int constantsPerClass = 0;
+
+	private int nestingDepth = 20;
+
+	private boolean cyclicReferences = true;
+
+	private int enumCount = 10;
+
+	private int enumSize = 5;
+
+	private int resourceCount = 1;
+
+	private int methodsPerResource = 10;
+
+	private ClassLoader parentClassLoader = SyntheticModelGenerator.class.getClassLoader();
+
+	public SyntheticModel generate() {
+		Map<String, byte[]> definitions = new HashMap<String, byte[]>();
+		List<String> dtoNames = new ArrayList<String>();
+		for (int i = 0; i < dtoCount; i++) {
+			dtoNames.add(define(definitions, dtoName(i), dtoDefinition(i)));
+		}
+		List<String> enumNames = new ArrayList<String>();
+		for (int e = 0; e < enumCount; e++) {
+			enumNames.add(define(definitions, enumName(e), enumDefinition(e)));
+		}
+		List<String> resourceNames = new ArrayList<String>();
+		for (int r = 0; r < resourceCount; r++) {
+			resourceNames.add(define(definitions, resourceName(r), resourceDefinition(r)));
+		}
+
+		ClassLoader loader = new InMemoryClassLoader(parentClassLoader, definitions);
+		return new SyntheticModel(loader, load(loader, dtoNames), load(loader, enumNames), load(loader, resourceNames));
+	}
+
+	private static String define(Map<String, byte[]> definitions, String internalName, byte[] definition) {
+		String name = internalName.replace('/', '.');
+		definitions.put(name, definition);
+		return name;
+	}
+
+	private static List<Class<?>> load(ClassLoader loader, List<String> names) {
+		List<Class<?>> loaded = new ArrayList<Class<?>>();
+		for (String name : names) {
+			try {
+				loaded.add(loader.loadClass(name));
+			} catch (ClassNotFoundException e) {
+				throw new IllegalStateException("Generated class not found: " + name, e);
+			}
+		}
+		return loaded;
+	}
+
+	private String internalPackage() {
+		return packageName.isEmpty() ? "" : packageName.replace('.', '/') + "/";
+	}
+
+	private String dtoName(int index) {
+		return internalPackage() + "Dto" + index;
+	}
+
+	private String enumName(int index) {
+		return internalPackage() + "Enum" + index;
+	}
+
+	private String resourceName(int index) {
+		return internalPackage() + "Resource" + index;
+	}
+
+	private static String descriptor(String internalName) {
+		return "L" + internalName + ";";
+	}
+
+	/** @return next DTO of the chain of given DTO, or -1 */
+	private int next(int index) {
+		int next = index + 1;
+		if (next >= dtoCount || next / nestingDepth != index / nestingDepth) {
+			return -1;
+		}
+		return next;
+	}
+
+	private byte[] dtoDefinition(int index) {
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_8, ACC_PUBLIC | ACC_SUPER, dtoName(index), null, "java/lang/Object", null);
+
+		field(cw, "id", "J", null);
+		for (int f = 0; f < fieldsPerClass; f++) {
+			field(cw, "field" + f, SIMPLE_FIELD_TYPES[f % SIMPLE_FIELD_TYPES.length], null);
+		}
+		if (index % nestingDepth == 0) {
+			for (int f = 0; f < wideFields; f++) {
+				field(cw, "wideField" + f, SIMPLE_FIELD_TYPES[f % SIMPLE_FIELD_TYPES.length], null);
+			}
+		}
+
+		int next = next(index);
+		if (next >= 0) {
+			field(cw, "next", descriptor(dtoName(next)), null);
+		}
+		if (cyclicReferences && index % nestingDepth > 0) {
+			field(cw, "previous", descriptor(dtoName(index - 1)), null);
+		}
+		String item = next >= 0 ? descriptor(dtoName(next)) : "Ljava/lang/String;";
+		for (int c = 0; c < containerFieldsPerClass; c++) {
+			switch (c % 4) {
+			case 0:
+				field(cw, "list" + c, "Ljava/util/List;", "Ljava/util/List<" + item + ">;");
+				break;
+			case 1:
+				field(cw, "mapOfLists" + c, "Ljava/util/Map;",
+						"Ljava/util/Map<Ljava/lang/String;Ljava/util/List<" + item + ">;>;");
+				break;
+			case 2:
+				field(cw, "set" + c, "Ljava/util/Set;", "Ljava/util/Set<" + item + ">;");
+				break;
+			default:
+				field(cw, "map" + c, "Ljava/util/Map;", "Ljava/util/Map<Ljava/lang/String;" + item + ">;");
+			}
+		}
+		if (enumCount > 0) {
+			field(cw, "status", descriptor(enumName(index % enumCount)), null);
+		}
+		for (int c = 0; c < constantsPerClass; c++) {
+			if (c % 2 == 0) {
+				cw.visitField(ACC_PUBLIC | ACC_STATIC | ACC_FINAL, "CONSTANT" + c, "I", null, Integer.valueOf(index))
+						.visitEnd();
+			} else {
+				cw.visitField(ACC_PUBLIC | ACC_STATIC | ACC_FINAL, "CONSTANT" + c, "Ljava/lang/String;", null,
+						"constant" + index).visitEnd();
+			}
+		}
+
+		MethodVisitor init = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+		init.visitCode();
+		init.visitVarInsn(ALOAD, 0);
+		init.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+		init.visitInsn(RETURN);
+		init.visitMaxs(0, 0);
+		init.visitEnd();
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private static void field(ClassWriter cw, String name, String descriptor, String signature) {
+		cw.visitField(ACC_PUBLIC, name, descriptor, signature, null).visitEnd();
+	}
+
+	private byte[] enumDefinition(int index) {
+		String name = enumName(index);
+		String descriptor = descriptor(name);
+		String arrayDescriptor = "[" + descriptor;
+
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_ENUM, name, "Ljava/lang/Enum<" + descriptor + ">;",
+				"java/lang/Enum", null);
+		for (int v = 0; v < enumSize; v++) {
+			cw.visitField(ACC_PUBLIC | ACC_STATIC | ACC_FINAL | ACC_ENUM, "VALUE" + v, descriptor, null, null)
+					.visitEnd();
+		}
+		cw.visitField(ACC_PRIVATE | ACC_STATIC | ACC_FINAL | ACC_SYNTHETIC, "$VALUES", arrayDescriptor, null, null)
+				.visitEnd();
+
+		MethodVisitor init = cw.visitMethod(ACC_PRIVATE, "<init>", "(Ljava/lang/String;I)V", "()V", null);
+		init.visitCode();
+		init.visitVarInsn(ALOAD, 0);
+		init.visitVarInsn(ALOAD, 1);
+		init.visitVarInsn(ILOAD, 2);
+		init.visitMethodInsn(INVOKESPECIAL, "java/lang/Enum", "<init>", "(Ljava/lang/String;I)V", false);
+		init.visitInsn(RETURN);
+		init.visitMaxs(0, 0);
+		init.visitEnd();
+
+		MethodVisitor clinit = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+		clinit.visitCode();
+		for (int v = 0; v < enumSize; v++) {
+			clinit.visitTypeInsn(NEW, name);
+			clinit.visitInsn(DUP);
+			clinit.visitLdcInsn("VALUE" + v);
+			clinit.visitLdcInsn(Integer.valueOf(v));
+			clinit.visitMethodInsn(INVOKESPECIAL, name, "<init>", "(Ljava/lang/String;I)V", false);
+			clinit.visitFieldInsn(PUTSTATIC, name, "VALUE" + v, descriptor);
+		}
+		clinit.visitLdcInsn(Integer.valueOf(enumSize));
+		clinit.visitTypeInsn(ANEWARRAY, name);
+		for (int v = 0; v < enumSize; v++) {
+			clinit.visitInsn(DUP);
+			clinit.visitLdcInsn(Integer.valueOf(v));
+			clinit.visitFieldInsn(GETSTATIC, name, "VALUE" + v, descriptor);
+			clinit.visitInsn(AASTORE);
+		}
+		clinit.visitFieldInsn(PUTSTATIC, name, "$VALUES", arrayDescriptor);
+		clinit.visitInsn(RETURN);
+		clinit.visitMaxs(0, 0);
+		clinit.visitEnd();
+
+		MethodVisitor values = cw.visitMethod(ACC_PUBLIC | ACC_STATIC, "values", "()" + arrayDescriptor, null, null);
+		values.visitCode();
+		values.visitFieldInsn(GETSTATIC, name, "$VALUES", arrayDescriptor);
+		values.visitMethodInsn(INVOKEVIRTUAL, arrayDescriptor, "clone", "()Ljava/lang/Object;", false);
+		values.visitTypeInsn(CHECKCAST, arrayDescriptor);
+		values.visitInsn(ARETURN);
+		values.visitMaxs(0, 0);
+		values.visitEnd();
+
+		MethodVisitor valueOf = cw.visitMethod(ACC_PUBLIC | ACC_STATIC, "valueOf", "(Ljava/lang/String;)" + descriptor,
+				null, null);
+		valueOf.visitCode();
+		valueOf.visitLdcInsn(Type.getType(descriptor));
+		valueOf.visitVarInsn(ALOAD, 0);
+		valueOf.visitMethodInsn(INVOKESTATIC, "java/lang/Enum", "valueOf",
+				"(Ljava/lang/Class;Ljava/lang/String;)Ljava/lang/Enum;", false);
+		valueOf.visitTypeInsn(CHECKCAST, name);
+		valueOf.visitInsn(ARETURN);
+		valueOf.visitMaxs(0, 0);
+		valueOf.visitEnd();
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private byte[] resourceDefinition(int index) {
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(V1_8, ACC_PUBLIC | ACC_ABSTRACT | ACC_INTERFACE, resourceName(index), null, "java/lang/Object", null);
+		annotation(cw.visitAnnotation("Ljavax/ws/rs/Path;", true), "/resource" + index);
+
+		for (int m = 0; m < methodsPerResource; m++) {
+			String result = dtoCount > 0 ? descriptor(dtoName((index * methodsPerResource + m) % dtoCount))
+					: "Ljava/lang/String;";
+			MethodVisitor mv = cw.visitMethod(ACC_PUBLIC | ACC_ABSTRACT, "find" + m, "(JLjava/lang/String;)" + result,
+					null, null);
+			mv.visitAnnotation("Ljavax/ws/rs/GET;", true).visitEnd();
+			annotation(mv.visitAnnotation("Ljavax/ws/rs/Path;", true), "/find" + m + "/{id}");
+			annotation(mv.visitParameterAnnotation(0, "Ljavax/ws/rs/PathParam;", true), "id");
+			annotation(mv.visitParameterAnnotation(1, "Ljavax/ws/rs/QueryParam;", true), "filter");
+			mv.visitEnd();
+		}
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	private static void annotation(AnnotationVisitor av, String value) {
+		av.visit("value", value);
+		av.visitEnd();
+	}
+
+	private static int checkNotNegative(String name, int value) {
+		if (value < 0) {
+			throw new IllegalArgumentException(name + " must not be negative: " + value);
+		}
+		return value;
+	}
+
+	/** package of the generated classes */
+	public void setPackageName(String packageName) {
+		if (packageName == null) {
+			throw new IllegalArgumentException("packageName must not be null");
+		}
+		this.packageName = packageName;
+	}
+
+	public void setDtoCount(int dtoCount) {
+		this.dtoCount = checkNotNegative("dtoCount", dtoCount);
+	}
+
+	/** simple fields (numbers, strings, dates and booleans) of each DTO */
+	public void setFieldsPerClass(int fieldsPerClass) {
+		this.fieldsPerClass = checkNotNegative("fieldsPerClass", fieldsPerClass);
+	}
+
+	/** lists, maps of lists, sets and maps fields of each DTO */
+	public void setContainerFieldsPerClass(int containerFieldsPerClass) {
+		this.containerFieldsPerClass = checkNotNegative("containerFieldsPerClass", containerFieldsPerClass);
+	}
+
+	/** additional simple fields of the first DTO of each chain */
+	public void setWideFields(int wideFields) {
+		this.wideFields = checkNotNegative("wideFields", wideFields);
+	}
+
+	/** public static final fields of each DTO */
+	public void setConstantsPerClass(int constantsPerClass) {
+		this.constantsPerClass = checkNotNegative("constantsPerClass", constantsPerClass);
+	}
+
+	/**
+	 * length of the chains of DTOs referencing each other. Generators visit referenced types recursively, so long chains
+	 * need a large stack.
+	 */
+	public void setNestingDepth(int nestingDepth) {
+		if (nestingDepth < 1) {
+			throw new IllegalArgumentException("nestingDepth must be positive: " + nestingDepth);
+		}
+		this.nestingDepth = nestingDepth;
+	}
+
+	/** whether DTOs also reference the previous DTO of their chain */
+	public void setCyclicReferences(boolean cyclicReferences) {
+		this.cyclicReferences = cyclicReferences;
+	}
+
+	public void setEnumCount(int enumCount) {
+		this.enumCount = checkNotNegative("enumCount", enumCount);
+	}
+
+	/** number of constants of each enum */
+	public void setEnumSize(int enumSize) {
+		this.enumSize = checkNotNegative("enumSize", enumSize);
+	}
+
+	public void setResourceCount(int resourceCount) {
+		this.resourceCount = checkNotNegative("resourceCount", resourceCount);
+	}
+
+	public void setMethodsPerResource(int methodsPerResource) {
+		this.methodsPerResource = checkNotNegative("methodsPerResource", methodsPerResource);
+	}
+
+	/** class loader of the classes referenced by generated classes (JAX-RS annotations) */
+	public void setParentClassLoader(ClassLoader parentClassLoader) {
+		this.parentClassLoader = parentClassLoader;
+	}
+
+	/** Defines generated classes on demand, so that they can reference each other */
+	private static class InMemoryClassLoader extends ClassLoader {
+
+		private final Map<String, byte[]> definitions;
+
+		InMemoryClassLoader(ClassLoader parent, Map<String, byte[]> definitions) {
+			super(parent);
+			this.definitions = definitions;
+		}
+
+		@Override
+		protected Class<?> findClass(String name) throws ClassNotFoundException {
+			byte[] definition = definitions.remove(name);
+			if (definition == null) {
+				throw new ClassNotFoundException(name);
+			}
+			return defineClass(name, definition, 0, definition.length);
+		}
+	}
+}